@@ -0,0 +1,47 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+import static java.lang.Integer.parseInt;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static uk.gov.hmcts.reform.amlib.utils.EnvironmentVariableUtils.getValueOrDefault;
+
+/**
+ * Runs audit queries against 10M and 50M audit records by default. To compare latency before and after
+ * partitioning run it against database migrated up to V23 and then against database migrated to the latest version.
+ * Number of records can be changed with comma separated BENCHMARK_AUDIT_RECORDS variable.
+ */
+class AuditPartitionBenchmarkTest {
+
+    @Test
+    void auditPartitionBenchmarksShouldRunWithoutErrors() throws Exception {
+        Path reportsDirectory = Paths.get("build/reports/jmh");
+        if (Files.notExists(reportsDirectory)) {
+            Files.createDirectories(reportsDirectory);
+        }
+
+        Options options = new OptionsBuilder()
+            .include(AuditPartitionBenchmarks.class.getSimpleName())
+            .param("numberOfRecords", getValueOrDefault("BENCHMARK_AUDIT_RECORDS", "10000000,50000000").split(","))
+            .warmupIterations(parseInt(getValueOrDefault("BENCHMARK_WARMUP_ITERATIONS", "4")))
+            .measurementIterations(parseInt(getValueOrDefault("BENCHMARK_MEASUREMENT_ITERATIONS", "10")))
+            .forks(0)
+            .shouldFailOnError(true)
+            .resultFormat(ResultFormatType.JSON)
+            .result(reportsDirectory + "/audit-partition-result.json")
+            .build();
+
+        Collection<RunResult> runResults = new Runner(options).run();
+        assertFalse(runResults.isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import uk.gov.hmcts.reform.amlib.states.AuditPartitionState;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AuditPartitionBenchmarks {
+
+    @Benchmark
+    public int countAuditOfResourceInMonth(AuditPartitionState state) {
+        LocalDateTime month = state.randomMonth();
+        String resourceId = state.randomResourceId();
+        return state.jdbi.withHandle(handle -> handle.createQuery("select count(1) from access_management_audit "
+            + "where audit_timestamp >= :from and audit_timestamp < :to and resource_id = :resourceId")
+            .bind("from", month)
+            .bind("to", month.plusMonths(1))
+            .bind("resourceId", resourceId)
+            .mapTo(Integer.class)
+            .one());
+    }
+
+    @Benchmark
+    public int countAuditInMonth(AuditPartitionState state) {
+        LocalDateTime month = state.randomMonth();
+        return state.jdbi.withHandle(handle -> handle.createQuery("select count(1) from access_management_audit "
+            + "where audit_timestamp >= :from and audit_timestamp < :to")
+            .bind("from", month)
+            .bind("to", month.plusMonths(1))
+            .mapTo(Integer.class)
+            .one());
+    }
+}
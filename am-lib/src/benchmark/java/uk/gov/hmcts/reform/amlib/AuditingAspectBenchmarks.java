@@ -0,0 +1,29 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import uk.gov.hmcts.reform.amlib.states.AuditState;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuditingAspectBenchmarks {
+
+    @Benchmark
+    public void logFilterResourceAuditEvent(AuditState state) {
+        state.aspect.after(state.joinPoint, state.result);
+    }
+
+    @Benchmark
+    public void renderFilterResourceAuditLog(AuditState state) {
+        state.renderingAspect.after(state.joinPoint, state.result);
+    }
+
+    @Benchmark
+    public void renderFilterResourceAuditLogWithReflection(AuditState state) {
+        state.reflectiveAspect.after(state.joinPoint, state.result);
+    }
+}
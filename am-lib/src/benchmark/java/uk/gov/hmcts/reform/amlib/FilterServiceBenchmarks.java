@@ -0,0 +1,33 @@
+package uk.gov.hmcts.reform.amlib;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import uk.gov.hmcts.reform.amlib.internal.FilterPlan;
+import uk.gov.hmcts.reform.amlib.states.FilterState;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterServiceBenchmarks {
+
+    @Benchmark
+    public JsonNode filterJson(FilterState state) {
+        return state.filterService.filterJson(state.resource, state.attributePermissions,
+            state.attributeSecurityClassifications, state.userSecurityClassifications);
+    }
+
+    @Benchmark
+    public JsonNode filterJsonWithCompiledPlan(FilterState state) {
+        return state.filterService.filterJson(state.resource, state.filterPlan);
+    }
+
+    @Benchmark
+    public FilterPlan compileFilterPlan(FilterState state) {
+        return state.filterService.compileFilterPlan(state.attributePermissions,
+            state.attributeSecurityClassifications, state.userSecurityClassifications);
+    }
+}
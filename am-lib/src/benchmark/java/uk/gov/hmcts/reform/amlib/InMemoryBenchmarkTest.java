@@ -0,0 +1,48 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+
+import static java.lang.Integer.parseInt;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static uk.gov.hmcts.reform.amlib.utils.EnvironmentVariableUtils.getValueOrDefault;
+
+/**
+ * Runs benchmarks of CPU bound code paths that do not need database. Scores are machine dependent so they are only
+ * reported, use them to compare runs before and after a change on the same machine.
+ */
+class InMemoryBenchmarkTest {
+
+    @Test
+    void inMemoryBenchmarksShouldRunWithoutErrors() throws Exception {
+        Path reportsDirectory = Paths.get("build/reports/jmh");
+        if (Files.notExists(reportsDirectory)) {
+            Files.createDirectories(reportsDirectory);
+        }
+
+        Options options = new OptionsBuilder()
+            .include(FilterServiceBenchmarks.class.getSimpleName())
+            .include(PermissionsServiceBenchmarks.class.getSimpleName())
+            .include(UtilityBenchmarks.class.getSimpleName())
+            .include(AuditingAspectBenchmarks.class.getSimpleName())
+            .warmupIterations(parseInt(getValueOrDefault("BENCHMARK_WARMUP_ITERATIONS", "4")))
+            .measurementIterations(parseInt(getValueOrDefault("BENCHMARK_MEASUREMENT_ITERATIONS", "10")))
+            .forks(0)
+            .shouldFailOnError(true)
+            .resultFormat(ResultFormatType.JSON)
+            .result(reportsDirectory + "/in-memory-result.json")
+            .build();
+
+        Collection<RunResult> runResults = new Runner(options).run();
+        assertFalse(runResults.isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
+import uk.gov.hmcts.reform.amlib.internal.utils.SecurityClassifications;
+import uk.gov.hmcts.reform.amlib.states.UtilityState;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilityBenchmarks {
+
+    @Benchmark
+    public Set<Permission> permissionsFromSumOf(UtilityState state) {
+        return Permissions.fromSumOf(state.nextPermissionsValue());
+    }
+
+    @Benchmark
+    public int permissionsSumOf(UtilityState state) {
+        return Permissions.sumOf(state.nextPermissionSet());
+    }
+
+    @Benchmark
+    public Set<SecurityClassification> visibleSecurityClassifications(UtilityState state) {
+        return SecurityClassifications.getVisibleSecurityClassifications(state.nextHierarchy());
+    }
+}
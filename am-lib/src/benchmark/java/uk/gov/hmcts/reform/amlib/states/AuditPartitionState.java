@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.amlib.states;
+
+import org.jdbi.v3.core.Jdbi;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static uk.gov.hmcts.reform.amlib.utils.DataSourceFactory.createDataSource;
+import static uk.gov.hmcts.reform.amlib.utils.EnvironmentVariableUtils.getValueOrDefault;
+import static uk.gov.hmcts.reform.amlib.utils.RandomNumberFactory.nextIntegerInRange;
+
+/**
+ * Explicit access audit spread evenly over the next twelve months. When audit table is partitioned then monthly
+ * partitions are created first, so that running benchmarks against database migrated with and without partitioning
+ * compares the same data.
+ */
+@State(Scope.Benchmark)
+public class AuditPartitionState {
+
+    public static final int NUMBER_OF_MONTHS = 12;
+    public static final int NUMBER_OF_RESOURCES = 100_000;
+
+    @Param({"10000000", "50000000"})
+    public int numberOfRecords;
+
+    public Jdbi jdbi;
+    public LocalDateTime firstMonth;
+
+    @Setup
+    public void populateAudit() {
+        jdbi = Jdbi.create(createDataSource());
+        firstMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).atStartOfDay();
+
+        if ("true".equalsIgnoreCase(getValueOrDefault("BENCHMARK_POPULATE_DATABASE", "true"))) {
+            jdbi.useHandle(handle -> {
+                handle.execute("truncate access_management_audit");
+                handle.execute("do $$ begin "
+                    + "if to_regproc('create_access_management_audit_partitions') is not null then "
+                    + "perform create_access_management_audit_partitions(" + NUMBER_OF_MONTHS + "); "
+                    + "end if; end $$");
+                handle.createUpdate("insert into access_management_audit (access_management_id, resource_id, "
+                    + "accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, "
+                    + "attribute, audit_timestamp, action) "
+                    + "select n, 'resource-' || n % :numberOfResources, 'user-' || n, 1, "
+                    + "cast('USER' as accessor_type), 'cmc-jmhtest', 'case', 'claim', '', "
+                    + ":firstMonth + make_interval(months => n % :numberOfMonths), cast('grant' as action) "
+                    + "from generate_series(1, :numberOfRecords) as n")
+                    .bind("numberOfResources", NUMBER_OF_RESOURCES)
+                    .bind("numberOfMonths", NUMBER_OF_MONTHS)
+                    .bind("numberOfRecords", numberOfRecords)
+                    .bind("firstMonth", firstMonth)
+                    .execute();
+                handle.execute("analyze access_management_audit");
+            });
+        }
+    }
+
+    public String randomResourceId() {
+        return "resource-" + nextIntegerInRange(0, NUMBER_OF_RESOURCES - 1);
+    }
+
+    public LocalDateTime randomMonth() {
+        return firstMonth.plusMonths(nextIntegerInRange(0, NUMBER_OF_MONTHS - 1));
+    }
+}
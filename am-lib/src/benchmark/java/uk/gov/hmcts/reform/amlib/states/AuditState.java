@@ -0,0 +1,155 @@
+package uk.gov.hmcts.reform.amlib.states;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableSet;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.audit.AuditEvent;
+import uk.gov.hmcts.reform.amlib.audit.AuditSink;
+import uk.gov.hmcts.reform.amlib.enums.AccessType;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditingAspect;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ReflectiveAuditingAspect;
+import uk.gov.hmcts.reform.amlib.models.AccessEnvelope;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.singletonList;
+
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+
+/**
+ * Join point of {@link FilterResourceService#filterResource(String, Set, Resource, Map)} call, so that audit message
+ * is rendered from the real template, together with result envelope holding permissions to every attribute of a
+ * fixture. Join point is a dynamic proxy as AspectJ does not provide a public implementation.
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD.UseConcurrentHashMap") // Map is built once in setup
+public class AuditState {
+
+    private static final String[] PARAMETER_NAMES = {
+        "userId", "userRoles", "resource", "attributeSecurityClassifications"
+    };
+
+    @Param({"cmc-jmhtest", "fpl-jmhtest"})
+    public String serviceName;
+
+    private static final int COLLECTION_LIMIT = 100;
+
+    /**
+     * Aspect logging with parameterised messages, which are not rendered as benchmark logger discards them.
+     */
+    public final AuditingAspect aspect = new AuditingAspect();
+    /**
+     * Aspect rendering every message, to compare with aspect rendering messages on every call before sinks.
+     */
+    public final AuditingAspect renderingAspect = new AuditingAspect(singletonList(new RenderingSink()),
+        COLLECTION_LIMIT);
+    public final ReflectiveAuditingAspect reflectiveAspect = new ReflectiveAuditingAspect();
+
+    public JoinPoint joinPoint;
+    public FilteredResourceEnvelope result;
+
+    @Setup
+    public void createJoinPoint(DataState data) throws NoSuchMethodException {
+        Resource resource = Resource.builder()
+            .id(serviceName + "-resource-1")
+            .definition(ResourceDefinition.builder()
+                .serviceName(serviceName)
+                .resourceType("case")
+                .resourceName("claim")
+                .build())
+            .data(data.resourceDataFor(serviceName))
+            .build();
+
+        Map<JsonPointer, Set<Permission>> permissions = new HashMap<>();
+        FilterState.collectAttributes(resource.getData())
+            .forEach(attribute -> permissions.put(attribute, ImmutableSet.of(READ)));
+
+        result = FilteredResourceEnvelope.builder()
+            .resource(resource)
+            .access(AccessEnvelope.builder()
+                .permissions(permissions)
+                .accessType(AccessType.ROLE_BASED)
+                .build())
+            .relationships(ImmutableSet.of())
+            .userSecurityClassification(SecurityClassification.PUBLIC)
+            .build();
+
+        Method method = FilterResourceService.class
+            .getMethod("filterResource", String.class, Set.class, Resource.class, Map.class);
+        Object[] args = {"user-1", ImmutableSet.of("caseworker-jmhtest"), resource,
+            data.getSecurityClassifications(serviceName)};
+
+        MethodSignature signature = createProxy(MethodSignature.class, name -> {
+            switch (name) {
+                case "getMethod":
+                    return method;
+                case "getParameterNames":
+                    return PARAMETER_NAMES.clone();
+                default:
+                    return null;
+            }
+        });
+        joinPoint = createProxy(JoinPoint.class, name -> {
+            switch (name) {
+                case "getSignature":
+                    return signature;
+                case "getArgs":
+                    return args.clone();
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T createProxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    return answer.answer(method.getName());
+            }
+        });
+    }
+
+    private static class RenderingSink implements AuditSink {
+        @SuppressWarnings({"unused", "PMD.SingularField"}) // Rendered message is kept to prevent dead code elimination
+        private String message;
+
+        @Override
+        public boolean isEnabled(AuditLog.Severity severity) {
+            return true;
+        }
+
+        @Override
+        public void write(AuditEvent event) {
+            message = event.render();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(String methodName);
+    }
+}
@@ -0,0 +1,132 @@
+package uk.gov.hmcts.reform.amlib.states;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.FilterPlan;
+import uk.gov.hmcts.reform.amlib.internal.FilterService;
+import uk.gov.hmcts.reform.amlib.internal.utils.SecurityClassifications;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PRIVATE;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+
+/**
+ * Resource and permissions for in memory filtering benchmarks. Resource is made of copies of a fixture so that
+ * document size can be scaled, permissions are defined either for root only, for top level attributes or for every
+ * attribute of the resource.
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD.UseConcurrentHashMap") // Maps are built once in setup
+public class FilterState {
+
+    private static final int ORIGINAL_DOCUMENT = 1;
+
+    @Param({"cmc-jmhtest", "fpl-jmhtest"})
+    public String serviceName;
+
+    @Param({"1", "10", "100"})
+    public int documentCopies;
+
+    @Param({"ROOT", "TOP_LEVEL", "ALL"})
+    public String permissionsGranularity;
+
+    public final FilterService filterService = new FilterService();
+
+    public JsonNode resource;
+    public Map<JsonPointer, Set<Permission>> attributePermissions;
+    public Map<JsonPointer, SecurityClassification> attributeSecurityClassifications;
+    public Set<SecurityClassification> userSecurityClassifications;
+    public FilterPlan filterPlan;
+
+    @Setup
+    public void createResource(DataState data) {
+        JsonNode fixture = data.resourceDataFor(serviceName);
+        Map<JsonPointer, SecurityClassification> fixtureSecurityClassifications =
+            data.getSecurityClassifications(serviceName);
+
+        attributeSecurityClassifications = new HashMap<>();
+        attributeSecurityClassifications.put(JsonPointer.valueOf(""), PUBLIC);
+
+        if (documentCopies == ORIGINAL_DOCUMENT) {
+            resource = fixture;
+            attributeSecurityClassifications.putAll(fixtureSecurityClassifications);
+        } else {
+            ObjectNode copies = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < documentCopies; i++) {
+                String prefix = "/copy" + i;
+                copies.set("copy" + i, fixture.deepCopy());
+                fixtureSecurityClassifications.forEach((attribute, securityClassification) ->
+                    attributeSecurityClassifications.put(JsonPointer.valueOf(prefix + attribute),
+                        securityClassification));
+            }
+            resource = copies;
+        }
+
+        attributePermissions = createAttributePermissions();
+        userSecurityClassifications = SecurityClassifications.getVisibleSecurityClassifications(PRIVATE.getHierarchy());
+        filterPlan = filterService.compileFilterPlan(
+            attributePermissions, attributeSecurityClassifications, userSecurityClassifications);
+    }
+
+    private Map<JsonPointer, Set<Permission>> createAttributePermissions() {
+        Map<JsonPointer, Set<Permission>> permissions = new HashMap<>();
+        switch (permissionsGranularity) {
+            case "ROOT":
+                permissions.put(JsonPointer.valueOf(""), EnumSet.of(READ));
+                break;
+            case "TOP_LEVEL":
+                permissions.put(JsonPointer.valueOf(""), EnumSet.of(CREATE));
+                List<String> fieldNames = new ArrayList<>();
+                resource.fieldNames().forEachRemaining(fieldNames::add);
+                for (int i = 0; i < fieldNames.size(); i++) {
+                    permissions.put(JsonPointer.valueOf("/" + fieldNames.get(i)),
+                        i % 3 == 0 ? EnumSet.of(CREATE) : EnumSet.of(READ));
+                }
+                break;
+            case "ALL":
+                List<JsonPointer> attributes = collectAttributes(resource);
+                for (int i = 0; i < attributes.size(); i++) {
+                    permissions.put(attributes.get(i), i % 5 == 4 ? EnumSet.of(CREATE) : EnumSet.of(READ));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported permissions granularity: " + permissionsGranularity);
+        }
+        return Collections.unmodifiableMap(permissions);
+    }
+
+    /**
+     * Returns pointers to all attributes of resource, including root, in depth first order.
+     *
+     * @param resource resource JSON
+     * @return list of attributes
+     */
+    public static List<JsonPointer> collectAttributes(JsonNode resource) {
+        List<JsonPointer> attributes = new ArrayList<>();
+        collectAttributes(resource, "", attributes);
+        return attributes;
+    }
+
+    private static void collectAttributes(JsonNode node, String path, List<JsonPointer> attributes) {
+        attributes.add(JsonPointer.valueOf(path));
+        node.fields().forEachRemaining(field ->
+            collectAttributes(field.getValue(), path + "/" + field.getKey(), attributes));
+    }
+}
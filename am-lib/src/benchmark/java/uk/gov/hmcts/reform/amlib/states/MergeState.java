@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.amlib.states;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.internal.PermissionsService;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Permission maps of several roles for a synthetic resource where every attribute has three children down to given
+ * depth. Each role defines permissions for roughly a third of attributes. Maps are generated with fixed seed so that
+ * every run merges the same data.
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings({
+    "PMD.UseConcurrentHashMap", // Maps are built once in setup
+    "PMD.AvoidInstantiatingObjectsInLoops" // Maps are built once in setup
+})
+public class MergeState {
+
+    private static final int CHILDREN_PER_ATTRIBUTE = 3;
+
+    @Param({"1", "5", "20"})
+    public int roles;
+
+    @Param({"2", "4", "7"})
+    public int depth;
+
+    public final PermissionsService permissionsService = new PermissionsService();
+
+    public List<Map<JsonPointer, Set<Permission>>> permissions;
+
+    @Setup
+    public void createPermissions() {
+        List<JsonPointer> attributes = new ArrayList<>();
+        collectAttributes("", 0, attributes);
+
+        Random random = new Random(roles * 31L + depth);
+        permissions = new ArrayList<>();
+        for (int i = 0; i < roles; i++) {
+            Map<JsonPointer, Set<Permission>> rolePermissions = new HashMap<>();
+            rolePermissions.put(JsonPointer.valueOf(""), Permissions.fromSumOf(1 + random.nextInt(15)));
+            attributes.stream()
+                .filter(attribute -> random.nextInt(3) == 0)
+                .forEach(attribute -> rolePermissions.put(attribute, Permissions.fromSumOf(1 + random.nextInt(15))));
+            permissions.add(rolePermissions);
+        }
+    }
+
+    private void collectAttributes(String path, int level, List<JsonPointer> attributes) {
+        if (level == depth) {
+            return;
+        }
+        for (int i = 0; i < CHILDREN_PER_ATTRIBUTE; i++) {
+            String childPath = path + "/attribute" + i;
+            attributes.add(JsonPointer.valueOf(childPath));
+            collectAttributes(childPath, level + 1, attributes);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package uk.gov.hmcts.reform.amlib.states;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cycles through all valid inputs of permission and security classification utilities so that benchmarks do not
+ * measure single constant-folded value.
+ */
+@State(Scope.Thread)
+public class UtilityState {
+
+    private static final int MAX_PERMISSIONS_VALUE = 15;
+
+    private final Set<Permission>[] permissionSets = createPermissionSets();
+    private int permissionsValue;
+    private int hierarchy;
+
+    public int nextPermissionsValue() {
+        permissionsValue = permissionsValue % MAX_PERMISSIONS_VALUE + 1;
+        return permissionsValue;
+    }
+
+    public Set<Permission> nextPermissionSet() {
+        return permissionSets[nextPermissionsValue() - 1];
+    }
+
+    public int nextHierarchy() {
+        hierarchy = (hierarchy + 1) % SecurityClassification.values().length;
+        return hierarchy;
+    }
+
+    @SuppressWarnings({"unchecked", "PMD.AvoidInstantiatingObjectsInLoops"}) // Sets are created once
+    private static Set<Permission>[] createPermissionSets() {
+        Set<Permission>[] sets = new Set[MAX_PERMISSIONS_VALUE];
+        for (int i = 0; i < MAX_PERMISSIONS_VALUE; i++) {
+            // Mutable sets as passed in by library users rather than shared sets returned by Permissions.fromSumOf
+            sets[i] = new HashSet<>(EnumSet.copyOf(Permissions.fromSumOf(i + 1)));
+        }
+        return sets;
+    }
+}
@@ -2,18 +2,22 @@ package uk.gov.hmcts.reform.amlib;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import uk.gov.hmcts.reform.amlib.enums.AccessType;
 import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
 import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
+import uk.gov.hmcts.reform.amlib.internal.AsyncAuditWriter;
+import uk.gov.hmcts.reform.amlib.internal.RoleCache;
 import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ValidationAspect;
 import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
 import uk.gov.hmcts.reform.amlib.internal.models.Role;
 import uk.gov.hmcts.reform.amlib.internal.models.query.AttributeData;
 import uk.gov.hmcts.reform.amlib.internal.repositories.AccessManagementRepository;
-import uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
 import uk.gov.hmcts.reform.amlib.internal.utils.SecurityClassifications;
+import uk.gov.hmcts.reform.amlib.models.AuditQueueMetrics;
 import uk.gov.hmcts.reform.amlib.models.ExplicitAccessGrant;
 import uk.gov.hmcts.reform.amlib.models.ExplicitAccessMetadata;
 import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
@@ -22,51 +26,115 @@ import uk.gov.hmcts.reform.amlib.models.UserCaseRolesEnvelope;
 import uk.gov.hmcts.reform.amlib.models.UserCasesEnvelope;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import javax.sql.DataSource;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 
-import static java.lang.Boolean.TRUE;
 import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static uk.gov.hmcts.reform.amlib.enums.AccessType.EXPLICIT;
 import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
-import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_REQUIRED;
 
 @SuppressWarnings("PMD.ExcessiveImports")
-public class AccessManagementService {
+public class AccessManagementService implements ConfiguredService, AutoCloseable {
 
     private final Jdbi jdbi;
-
+    private final AccessManagementRepository repository;
+    private final RoleCache roleCache;
+    private final AmLibConfig config;
+    private final AsyncAuditWriter auditWriter;
+    private final AmLibContext context;
+    private final boolean ownsContext;
 
     /**
-     * This constructor has issues with performance due to requiring a new connection for every query.
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
      *
      * @param url      the url for the database
      * @param username the username for the database
      * @param password the password for the database
      */
     public AccessManagementService(String url, String username, String password) {
-        this.jdbi = Jdbi.create(url, username, password)
-            .installPlugin(new SqlObjectPlugin());
+        this(url, username, password, AmLibConfig.fromProperties());
+    }
+
+    /**
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   the library configuration
+     */
+    public AccessManagementService(String url, String username, String password, AmLibConfig config) {
+        this(AmLibContext.create(url, username, password, config), true);
     }
 
     /**
-     * This constructor is recommended to be used over the above.
+     * Creates service using given data source, with configuration read from library properties. Service shares its
+     * context with other services created with the same data source and no configuration; context is closed when
+     * the last of them is closed.
      *
      * @param dataSource the datasource for the database
      */
     public AccessManagementService(DataSource dataSource) {
-        this.jdbi = Jdbi.create(dataSource)
-            .installPlugin(new SqlObjectPlugin());
+        this(AmLibContext.acquire(dataSource), true);
+    }
+
+    /**
+     * Creates service using given data source and configuration. Service shares its context with other services
+     * created with the same data source and configuration instance; context is closed when the last of them is
+     * closed.
+     *
+     * @param dataSource the datasource for the database
+     * @param config     the library configuration
+     */
+    public AccessManagementService(DataSource dataSource, AmLibConfig config) {
+        this(AmLibContext.acquire(dataSource, config), true);
+    }
+
+    /**
+     * Creates service sharing database access and configuration with other services built from the same context.
+     * Context is not closed when service is closed.
+     *
+     * <p>This constructor is recommended to be used over the others.
+     *
+     * @param context the context shared by services built from it
+     */
+    public AccessManagementService(AmLibContext context) {
+        this(context, false);
+    }
+
+    private AccessManagementService(AmLibContext context, boolean ownsContext) {
+        this.jdbi = context.getJdbi();
+        this.repository = context.getRepository(AccessManagementRepository.class);
+        this.roleCache = context.getRoleCache();
+        this.config = context.getConfig();
+        this.auditWriter = startAuditWriter(context.getDatabase(), context.getBackgroundJdbi(), config);
+        this.context = context;
+        this.ownsContext = ownsContext;
+        context.startCacheInvalidationListener();
+    }
+
+    private static AsyncAuditWriter startAuditWriter(Object database, Jdbi jdbi, AmLibConfig config) {
+        if (config.isAsynchronousAudit()) {
+            return AsyncAuditWriter.startForDatabase(database, jdbi, config);
+        }
+        return null;
     }
 
     /**
@@ -74,6 +142,10 @@ public class AccessManagementService {
      * Access can be granted to a user or multiple users for a resource.
      *
      * <p>Operation is performed in a transaction so that if not all records can be created then whole grant will fail.
+     * Records for all accessors and attributes are written in a single batch, as are their audit records.
+     * When audit is asynchronous (see {@link AmLibConfig#isAsynchronousAudit()}) it is queued once transaction
+     * is committed, which is Spring transaction of the caller when service is built from
+     * {@code TransactionAwareDataSourceProxy} and such transaction is active.
      *
      * @param accessGrant an object that describes explicit access to resource
      * @throws PersistenceException if any persistence errors were encountered causing transaction rollback
@@ -83,30 +155,45 @@ public class AccessManagementService {
         + "{{accessGrant.resourceDefinition.resourceName}}' for accessors '{{accessGrant.accessorIds}}' "
         + "with relationship '{{accessGrant.relationship}}': {{accessGrant.attributePermissions}}")
     public void grantExplicitResourceAccess(@NotNull @Valid ExplicitAccessGrant accessGrant) {
-        jdbi.useTransaction(handle -> {
+        List<ExplicitAccessRecord> explicitAccessRecords = accessGrant.getAccessorIds().stream()
+            .flatMap(accessorId -> accessGrant.getAttributePermissions().entrySet().stream()
+                .map(attributePermission -> buildExplicitAccess(accessGrant, accessorId, attributePermission)))
+            .collect(toList());
+
+        boolean auditRequired = config.isAuditRequired();
+        long[] accessManagementIds = jdbi.inTransaction(handle -> {
             AccessManagementRepository dao = handle.attach(AccessManagementRepository.class);
 
-            accessGrant.getAccessorIds().forEach(accessorIds ->
-                accessGrant.getAttributePermissions().entrySet().stream().forEach(attributePermission -> {
-                    long accessManagementId;
-                    if (nonNull(accessGrant.getRelationship())) {
-                        accessManagementId = dao.grantAccessManagementWithNotNullRelationship(buildExplicitAccess(
-                            accessGrant, accessorIds, attributePermission));
-
-                    } else {
-                        //Avoid duplicate insertion on Null relationship
-                        accessManagementId = dao.grantAccessManagementWithNullRelationship(buildExplicitAccess(
-                            accessGrant, accessorIds, attributePermission));
-                    }
-
-                    //check if Audit flag enabled & Inserts Audit
-                    if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
-                        dao.grantAccessManagementForAudit(accessManagementId, buildExplicitAccess(
-                            accessGrant, accessorIds, attributePermission), accessGrant.getCallingServiceName(),
-                            accessGrant.getChangedBy());
-                    }
-                }));
+            long[] ids;
+            if (nonNull(accessGrant.getRelationship())) {
+                ids = dao.grantAccessManagementWithNotNullRelationship(explicitAccessRecords);
+            } else {
+                //Avoid duplicate insertion on Null relationship
+                ids = dao.grantAccessManagementWithNullRelationship(explicitAccessRecords);
+            }
+
+            //check if Audit flag enabled & Inserts Audit unless it is written asynchronously after commit
+            if (auditRequired && auditWriter == null) {
+                dao.grantAccessManagementForAudit(ids, explicitAccessRecords,
+                    accessGrant.getCallingServiceName(), accessGrant.getChangedBy());
+            }
+            return ids;
         });
+
+        if (auditRequired && auditWriter != null) {
+            auditWriter.write(accessManagementIds, explicitAccessRecords,
+                accessGrant.getCallingServiceName(), accessGrant.getChangedBy());
+        }
+    }
+
+    /**
+     * Returns state of asynchronous audit queue, see {@link AmLibConfig#isAsynchronousAudit()}. Queue is shared by
+     * services connected to the same database.
+     *
+     * @return audit queue metrics, or empty if audit is written synchronously
+     */
+    public Optional<AuditQueueMetrics> getAuditQueueMetrics() {
+        return Optional.ofNullable(auditWriter).map(AsyncAuditWriter::getMetrics);
     }
 
     /**
@@ -152,22 +239,26 @@ public class AccessManagementService {
     public void revokeResourceAccess(@NotNull @Valid ExplicitAccessMetadata accessMetadata) {
         jdbi.useTransaction(handle -> {
             AccessManagementRepository dao = handle.attach(AccessManagementRepository.class);
-            //check if Audit flag enabled & Audit Records For Revoke
-            if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
-                dao.revokeAccessManagementForAudit(accessMetadata);
+            //check if Audit flag enabled & delete records together with Audit Records For Revoke
+            if (config.isAuditRequired()) {
+                dao.removeAccessManagementRecordWithAudit(accessMetadata);
+            } else {
+                dao.removeAccessManagementRecord(accessMetadata);
             }
-            //delete records
-            dao.removeAccessManagementRecord(accessMetadata);
         });
     }
 
 
     private Integer getMaxSecurityClassificationHierarchyForRoles(@NotEmpty Set<String> userRoles) {
-        return jdbi.withExtension(AccessManagementRepository.class, dao ->
-            dao.getRoles(userRoles, Stream.of(EXPLICIT, ROLE_BASED).collect(toSet())).stream()
-                .mapToInt(role -> role.getSecurityClassification().getHierarchy())
-                .max()
-                .orElseThrow(NoSuchElementException::new));
+        return getRoles(userRoles).stream()
+            .mapToInt(role -> role.getSecurityClassification().getHierarchy())
+            .max()
+            .orElseThrow(NoSuchElementException::new);
+    }
+
+    private Set<Role> getRoles(Set<String> userRoles) {
+        return roleCache.getRoles(userRoles, Stream.of(EXPLICIT, ROLE_BASED).collect(toSet()), roleNames ->
+            repository.getRoles(roleNames, EnumSet.allOf(AccessType.class)));
     }
 
 
@@ -186,8 +277,12 @@ public class AccessManagementService {
         + "'{{result.roleSecurityClassification}}'")
     public RolePermissions getRolePermissions(@NotNull @Valid ResourceDefinition resourceDefinition,
                                               @NotBlank String roleName) {
-        Map<AccessType, SecurityClassification> roleData = jdbi.withExtension(AccessManagementRepository.class, dao ->
-            dao.getRoles(Collections.singleton(roleName), Stream.of(EXPLICIT, ROLE_BASED).collect(toSet()))).stream()
+        // role and its permissions are looked up on a single handle
+        return jdbi.withHandle(handle -> getRolePermissionsForRole(resourceDefinition, roleName));
+    }
+
+    private RolePermissions getRolePermissionsForRole(ResourceDefinition resourceDefinition, String roleName) {
+        Map<AccessType, SecurityClassification> roleData = getRoles(Collections.singleton(roleName)).stream()
             .collect(toMap(Role::getAccessType, Role::getSecurityClassification));
 
         if (roleData.isEmpty()) {
@@ -196,17 +291,16 @@ public class AccessManagementService {
 
         SecurityClassification roleSecurityClassification = roleData.entrySet().iterator().next().getValue();
 
-        List<AttributeData> attributeData = jdbi.withExtension(AccessManagementRepository.class, dao ->
-            dao.getAttributeDataForResource(resourceDefinition, roleName,
-                SecurityClassifications.getVisibleSecurityClassifications(roleSecurityClassification.getHierarchy())));
+        List<AttributeData> attributeData = repository.getAttributeDataForResource(resourceDefinition, roleName,
+            SecurityClassifications.getVisibleSecurityClassifications(roleSecurityClassification.getHierarchy()));
 
         if (attributeData.isEmpty()) {
             return null;
         }
 
         return RolePermissions.builder()
-            .permissions(attributeData.stream()
-                .collect(toMap(AttributeData::getAttribute, AttributeData::getPermissions)))
+            .permissions(Permissions.copyOf(attributeData.stream()
+                .collect(toMap(AttributeData::getAttribute, AttributeData::getPermissions))))
             .securityClassifications(attributeData.stream()
                 .collect(toMap(AttributeData::getAttribute, AttributeData::getDefaultSecurityClassification)))
             .roleSecurityClassification(roleSecurityClassification)
@@ -223,11 +317,10 @@ public class AccessManagementService {
     @SuppressWarnings("LineLength")
     @AuditLog("returned resources that user with roles '{{userRoles}}' has create permission to: {{result}}")
     public Set<ResourceDefinition> getResourceDefinitionsWithRootCreatePermission(@NotEmpty Set<@NotBlank String> userRoles) {
-        Integer maxSecurityClassificationForRole = getMaxSecurityClassificationHierarchyForRoles(userRoles);
-
-        return jdbi.withExtension(AccessManagementRepository.class, dao ->
-            dao.getResourceDefinitionsWithRootCreatePermission(
-                userRoles, SecurityClassifications.getVisibleSecurityClassifications(maxSecurityClassificationForRole)));
+        // roles and resource definitions are looked up on a single handle
+        return jdbi.withHandle(handle -> repository.getResourceDefinitionsWithRootCreatePermission(userRoles,
+            SecurityClassifications.getVisibleSecurityClassifications(
+                getMaxSecurityClassificationHierarchyForRoles(userRoles))));
     }
 
     /**
@@ -239,8 +332,7 @@ public class AccessManagementService {
      */
     @AuditLog("returned roles that user '{{userId}}' has within case '{{caseId}}': {{result}}")
     public UserCaseRolesEnvelope returnUserCaseRoles(@NotBlank String caseId, @NotBlank String userId) {
-        List<String> roles = jdbi.withExtension(AccessManagementRepository.class,
-            dao -> dao.getUserCaseRoles(caseId, userId));
+        List<String> roles = repository.getUserCaseRoles(caseId, userId);
         return UserCaseRolesEnvelope.builder()
             .caseId(caseId)
             .userId(userId)
@@ -256,12 +348,63 @@ public class AccessManagementService {
      */
     @AuditLog("returned case ids that user with id '{{userId}}' has read permissions to: {{result}}")
     public UserCasesEnvelope returnUserCases(@NotBlank String userId) {
-        List<String> cases = jdbi.withExtension(AccessManagementRepository.class, dao -> dao.getUserCases(userId));
+        List<String> cases = repository.getUserCases(userId);
+        return UserCasesEnvelope.builder()
+            .userId(userId)
+            .cases(cases)
+            .build();
+    }
+
+    /**
+     * Returns a page of case ids that a given user has root level read permissions for. Case ids are ordered, so
+     * the last case id of a page can be passed to retrieve the next page.
+     *
+     * @param userId      a user id
+     * @param afterCaseId case id after which the page starts, or null for the first page
+     * @param limit       maximum number of case ids in the page
+     * @return a page of case ids that the user has access to
+     */
+    @AuditLog("returned case ids after '{{afterCaseId}}' that user with id '{{userId}}' has read permissions to: "
+        + "{{result}}")
+    public UserCasesEnvelope returnUserCases(@NotBlank String userId, String afterCaseId, @Positive int limit) {
+        List<String> cases = repository.getUserCasesPage(userId, afterCaseId, limit);
         return UserCasesEnvelope.builder()
             .userId(userId)
             .cases(cases)
             .build();
     }
 
+    /**
+     * Passes case ids that a given user has root level read permissions for to a consumer one by one, in order.
+     * Case ids are read from database in chunks so that all of them do not have to be held in memory.
+     *
+     * @param userId   a user id
+     * @param consumer a consumer of case ids that the user has access to
+     */
+    @AuditLog("streamed case ids that user with id '{{userId}}' has read permissions to")
+    public void streamUserCases(@NotBlank String userId, @NotNull Consumer<String> consumer) {
+        // fetch size is respected only within a transaction
+        jdbi.useTransaction(handle -> {
+            try (Stream<String> cases = handle.attach(AccessManagementRepository.class).streamUserCases(userId)) {
+                cases.forEachOrdered(ValidationAspect.outsideServiceCall(consumer));
+            }
+        });
+    }
+
+    @Override
+    public AmLibConfig getConfig() {
+        return config;
+    }
 
+    /**
+     * Closes pool of connections created by constructors taking database URL. Context shared by services created with
+     * data source is closed once all of them are closed. Data source or context passed to constructors belongs to the
+     * caller and is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsContext) {
+            context.release();
+        }
+    }
 }
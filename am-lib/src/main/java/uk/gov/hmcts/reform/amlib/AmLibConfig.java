@@ -0,0 +1,253 @@
+package uk.gov.hmcts.reform.amlib;
+
+import lombok.Builder;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
+import uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader;
+import uk.gov.hmcts.reform.amlib.validation.ValidationMode;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_ASYNCHRONOUS;
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_COLLECTION_LIMIT;
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_REQUIRED;
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.CACHE_INVALIDATION_LISTENER;
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.VALIDATION_MODE;
+
+/**
+ * Library configuration resolved once and shared by services it is passed to.
+ *
+ * <p>Settings can be changed at runtime and services see the new value on their next operation, so configuration
+ * can be reloaded without recreating services.
+ */
+@Builder
+public final class AmLibConfig {
+
+    public static final int DEFAULT_AUDIT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_AUDIT_BATCH_SIZE = 500;
+    public static final Duration DEFAULT_AUDIT_FLUSH_INTERVAL = Duration.ofMillis(200);
+    public static final int DEFAULT_AUDIT_COLLECTION_LIMIT = 100;
+    public static final int DEFAULT_CONNECTION_POOL_SIZE = 10;
+    public static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_PREPARE_THRESHOLD = 5;
+    public static final int DEFAULT_PREPARED_STATEMENT_CACHE_QUERIES = 256;
+
+    @Builder.Default
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // Value can be changed at runtime by another thread
+    private volatile boolean auditRequired = true;
+
+    private final boolean asynchronousAudit;
+
+    @Builder.Default
+    private final int auditQueueCapacity = DEFAULT_AUDIT_QUEUE_CAPACITY;
+
+    @Builder.Default
+    private final int auditBatchSize = DEFAULT_AUDIT_BATCH_SIZE;
+
+    @Builder.Default
+    private final Duration auditFlushInterval = DEFAULT_AUDIT_FLUSH_INTERVAL;
+
+    @Builder.Default
+    private final int auditCollectionLimit = DEFAULT_AUDIT_COLLECTION_LIMIT;
+
+    @Builder.Default
+    private final ValidationMode validationMode = ValidationMode.BOUNDARY;
+
+    @Builder.Default
+    private final CacheInvalidationListenerMode cacheInvalidationListenerMode =
+        CacheInvalidationListenerMode.DEDICATED_CONNECTION;
+
+    @Builder.Default
+    private final int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+    @Builder.Default
+    private final Duration connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+
+    @Builder.Default
+    private final int prepareThreshold = DEFAULT_PREPARE_THRESHOLD;
+
+    @Builder.Default
+    private final int preparedStatementCacheQueries = DEFAULT_PREPARED_STATEMENT_CACHE_QUERIES;
+
+    @Builder.Default
+    private final Executor bulkOperationExecutor = ForkJoinPool.commonPool();
+
+    @Builder.Default
+    private final int bulkOperationParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates configuration from library <code>application.properties</code>. Properties are read only once, when
+     * this method is called.
+     *
+     * @return configuration with values read from properties
+     */
+    public static AmLibConfig fromProperties() {
+        return AmLibConfig.builder()
+            .auditRequired(Boolean.parseBoolean(PropertyReader.getPropertyValue(AUDIT_REQUIRED)))
+            .asynchronousAudit(Boolean.parseBoolean(PropertyReader.getPropertyValue(AUDIT_ASYNCHRONOUS)))
+            .auditCollectionLimit(Integer.parseInt(PropertyReader.getPropertyValue(AUDIT_COLLECTION_LIMIT)))
+            .validationMode(ValidationMode.valueOf(
+                PropertyReader.getPropertyValue(VALIDATION_MODE).toUpperCase(Locale.ROOT)))
+            .cacheInvalidationListenerMode(CacheInvalidationListenerMode.valueOf(
+                PropertyReader.getPropertyValue(CACHE_INVALIDATION_LISTENER).toUpperCase(Locale.ROOT)))
+            .build();
+    }
+
+    /**
+     * Whether audit records should be created alongside access records.
+     *
+     * @return true if audit is required
+     */
+    public boolean isAuditRequired() {
+        return auditRequired;
+    }
+
+    /**
+     * Enables or disables creation of audit records for all services using this configuration.
+     *
+     * @param auditRequired true if audit records should be created
+     */
+    public void setAuditRequired(boolean auditRequired) {
+        this.auditRequired = auditRequired;
+    }
+
+    /**
+     * Whether audit of explicit access grants is written in batches by a background thread after grant is committed,
+     * instead of within grant transaction. Audit of revoked access is always written by the revoking statement.
+     *
+     * <p>Audit queued in memory is lost if JVM terminates abnormally, so deployments that cannot tolerate missing
+     * audit should keep synchronous audit, which is the default. Setting is read when service is created.
+     *
+     * <p>Queue is shared by all services connected to the same database, so their queue capacity, batch size and
+     * flush interval must be the same; service configured with different queue settings cannot be created.
+     *
+     * @return true if audit is written asynchronously
+     */
+    public boolean isAsynchronousAudit() {
+        return asynchronousAudit;
+    }
+
+    /**
+     * Maximum number of audit records waiting to be written asynchronously. When the queue is full audit is written
+     * synchronously by the granting thread.
+     *
+     * @return capacity of asynchronous audit queue
+     */
+    public int getAuditQueueCapacity() {
+        return auditQueueCapacity;
+    }
+
+    /**
+     * Maximum number of audit records written asynchronously in a single batch.
+     *
+     * @return size of asynchronous audit batch
+     */
+    public int getAuditBatchSize() {
+        return auditBatchSize;
+    }
+
+    /**
+     * Maximum time asynchronous audit writer waits for audit records before checking whether it should stop.
+     *
+     * @return asynchronous audit flush interval
+     */
+    public Duration getAuditFlushInterval() {
+        return auditFlushInterval;
+    }
+
+    /**
+     * Maximum number of elements of collections and maps carried by audit events of calls to services using this
+     * configuration. Larger collections are truncated, so that audit of bulk operations stays bounded.
+     *
+     * @return maximum number of audited collection elements
+     */
+    public int getAuditCollectionLimit() {
+        return auditCollectionLimit;
+    }
+
+    /**
+     * Selects calls to services using this configuration whose arguments are validated. Only calls entering the
+     * library are validated by default.
+     *
+     * @return validation mode
+     */
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    /**
+     * Selects contexts which listen to cache invalidation notifications of PostgreSQL database in a background thread.
+     * By default only contexts created with database URL listen, as they can open a dedicated connection for it.
+     * Contexts created with data source listen only when {@link CacheInvalidationListenerMode#ALL_CONTEXTS} is set,
+     * either on the builder or with <code>cache.invalidation.listener</code> property.
+     *
+     * @return cache invalidation listener mode
+     */
+    public CacheInvalidationListenerMode getCacheInvalidationListenerMode() {
+        return cacheInvalidationListenerMode;
+    }
+
+    /**
+     * Maximum number of connections opened by services created with database URL, per service. Services created
+     * with data source use connections of that data source.
+     *
+     * @return connection pool size
+     */
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    /**
+     * Maximum time services created with database URL wait for a connection when all pooled connections are in use.
+     *
+     * @return connection timeout
+     */
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    /**
+     * Number of executions of a statement after which PostgreSQL driver switches to server-side prepared statement,
+     * for connections pooled by services created with database URL.
+     *
+     * @return prepare threshold passed to PostgreSQL driver
+     */
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    /**
+     * Number of prepared statements cached by PostgreSQL driver for each connection pooled by services created with
+     * database URL.
+     *
+     * @return size of prepared statement cache passed to PostgreSQL driver
+     */
+    public int getPreparedStatementCacheQueries() {
+        return preparedStatementCacheQueries;
+    }
+
+    /**
+     * Executor per-resource work of bulk operations, such as filtering of resources by
+     * {@link FilterResourceService#filterResources}, is fanned out to. Records of all resources are loaded before work
+     * is fanned out, so tasks do not use database connections. Common fork join pool is used by default; executor
+     * creating a thread per task can be used on JDKs with lightweight threads.
+     *
+     * @return executor of bulk operations
+     */
+    public Executor getBulkOperationExecutor() {
+        return bulkOperationExecutor;
+    }
+
+    /**
+     * Maximum number of chunks of a single bulk operation processed concurrently, one of them by the calling thread.
+     * Results are returned in order of input regardless of parallelism. Defaults to number of available processors;
+     * 1 processes bulk operations sequentially on the calling thread.
+     *
+     * @return parallelism of bulk operations
+     */
+    public int getBulkOperationParallelism() {
+        return bulkOperationParallelism;
+    }
+}
@@ -0,0 +1,302 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
+import uk.gov.hmcts.reform.amlib.internal.CacheInvalidationListener;
+import uk.gov.hmcts.reform.amlib.internal.ConnectionPool;
+import uk.gov.hmcts.reform.amlib.internal.DefaultPermissionsCache;
+import uk.gov.hmcts.reform.amlib.internal.RoleCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * Database access shared by services built from it, so that they use a single {@link Jdbi} instance, the same
+ * prepared repository proxies, the same caches of roles and default permissions and, when created with database URL,
+ * the same bounded pool of connections.
+ *
+ * <p>Context is meant to be created once per database and passed to every service, for example:
+ * <pre>
+ * AmLibContext context = AmLibContext.create(dataSource);
+ * AccessManagementService accessManagementService = new AccessManagementService(context);
+ * FilterResourceService filterResourceService = new FilterResourceService(context);
+ * </pre>
+ * Services built from context do not close it when they are closed. Context should be closed once none of its
+ * services is used anymore.
+ *
+ * <p>Services created with data source share context with other services created with the same data source and
+ * configuration, which is closed when the last of them is closed. Services created with database URL have their own
+ * context.
+ */
+public final class AmLibContext implements AutoCloseable {
+
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Access is synchronized, as reference counts are updated with map
+    private static final Map<SharedContextKey, AmLibContext> SHARED_CONTEXTS = new HashMap<>();
+
+    private final Jdbi jdbi;
+    private final Jdbi backgroundJdbi;
+    private final Object database;
+    private final AmLibConfig config;
+    private final ConnectionPool connectionPool;
+    private final RoleCache roleCache = new RoleCache();
+    private final DefaultPermissionsCache defaultPermissionsCache = new DefaultPermissionsCache();
+    private final Object cacheInvalidationListenerLock = new Object();
+    private CacheInvalidationListener cacheInvalidationListener;
+    private boolean closed;
+    private SharedContextKey sharedContextKey;
+    private int sharedReferences;
+    private final ClassValue<Object> repositories = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            return jdbi.onDemand(type);
+        }
+    };
+
+    private AmLibContext(DataSource dataSource, Object database, Jdbi backgroundJdbi, AmLibConfig config,
+                         ConnectionPool connectionPool) {
+        this.jdbi = Jdbi.create(dataSource)
+            .installPlugin(new SqlObjectPlugin());
+        this.backgroundJdbi = backgroundJdbi == null ? jdbi : backgroundJdbi;
+        this.database = database;
+        this.config = config;
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Creates context using given data source, with configuration read from library properties.
+     *
+     * @param dataSource the datasource for the database
+     * @return context shared by services built from it
+     */
+    public static AmLibContext create(DataSource dataSource) {
+        return create(dataSource, AmLibConfig.fromProperties());
+    }
+
+    /**
+     * Creates context using given data source. Operations of services built from {@link TransactionAwareDataSourceProxy}
+     * join Spring transaction of the caller, if there is one.
+     *
+     * @param dataSource the datasource for the database
+     * @param config     the library configuration
+     * @return context shared by services built from it
+     */
+    public static AmLibContext create(DataSource dataSource, AmLibConfig config) {
+        if (dataSource instanceof TransactionAwareDataSourceProxy
+            && ((TransactionAwareDataSourceProxy) dataSource).getTargetDataSource() != null) {
+            return create(dataSource, ((TransactionAwareDataSourceProxy) dataSource).getTargetDataSource(), config);
+        }
+        return create(dataSource, dataSource, config);
+    }
+
+    /**
+     * Creates context using data source which is a proxy of the data source given as database, such as data source
+     * taking part in transactions of the calling service. Background threads use the proxied data source, so that
+     * their work does not take part in transactions of the thread that started them.
+     */
+    static AmLibContext create(DataSource dataSource, DataSource database, AmLibConfig config) {
+        Jdbi backgroundJdbi = dataSource.equals(database) ? null : Jdbi.create(database)
+            .installPlugin(new SqlObjectPlugin());
+        return new AmLibContext(dataSource, database, backgroundJdbi, config, null);
+    }
+
+    /**
+     * Returns context shared by services created with given data source and no configuration, creating it with
+     * configuration read from library properties if there is no such context yet. Context must be released by each
+     * service that acquired it.
+     */
+    static AmLibContext acquire(DataSource dataSource) {
+        return acquire(dataSource, null);
+    }
+
+    /**
+     * Returns context shared by services created with given data source and configuration, creating it if there is
+     * no such context yet. Context must be released by each service that acquired it.
+     */
+    static AmLibContext acquire(DataSource dataSource, AmLibConfig config) {
+        SharedContextKey key = new SharedContextKey(dataSource, config);
+        synchronized (SHARED_CONTEXTS) {
+            AmLibContext context = SHARED_CONTEXTS.computeIfAbsent(key, missingKey ->
+                create(dataSource, config == null ? AmLibConfig.fromProperties() : config));
+            context.sharedContextKey = key;
+            context.sharedReferences++;
+            return context;
+        }
+    }
+
+    /**
+     * Releases context owned by service which is closed. Context shared by services created with data source is
+     * closed once all of them released it; any other context is closed immediately.
+     */
+    void release() {
+        synchronized (SHARED_CONTEXTS) {
+            if (sharedContextKey != null) {
+                sharedReferences--;
+                if (sharedReferences > 0) {
+                    return;
+                }
+                SHARED_CONTEXTS.remove(sharedContextKey);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Creates context with its own bounded pool of connections to the database, which is closed when context is
+     * closed. Configuration is read from library properties.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @return context shared by services built from it
+     */
+    public static AmLibContext create(String url, String username, String password) {
+        return create(url, username, password, AmLibConfig.fromProperties());
+    }
+
+    /**
+     * Creates context with its own bounded pool of connections to the database, which is closed when context is
+     * closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   the library configuration
+     * @return context shared by services built from it
+     */
+    public static AmLibContext create(String url, String username, String password, AmLibConfig config) {
+        // cache invalidation listener holds its connection until context is closed, so it is not taken from the pool
+        Jdbi backgroundJdbi = Jdbi.create(url, username, password)
+            .installPlugin(new SqlObjectPlugin());
+        ConnectionPool connectionPool = new ConnectionPool(url, username, password, config);
+        return new AmLibContext(connectionPool, url, backgroundJdbi, config, connectionPool);
+    }
+
+    /**
+     * Returns configuration services built from this context are using.
+     *
+     * @return the library configuration
+     */
+    public AmLibConfig getConfig() {
+        return config;
+    }
+
+    Jdbi getJdbi() {
+        return jdbi;
+    }
+
+    /**
+     * Returns {@link Jdbi} for background threads of this context, such as cache invalidation listener, which hold
+     * connections for a long time and so must not take them from the bounded pool of services.
+     */
+    Jdbi getBackgroundJdbi() {
+        return backgroundJdbi;
+    }
+
+    /**
+     * Returns key identifying the database in state shared by services connected to the same database.
+     */
+    Object getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns cache of roles shared by services built from this context.
+     */
+    RoleCache getRoleCache() {
+        return roleCache;
+    }
+
+    /**
+     * Returns cache of default permissions shared by services built from this context.
+     */
+    DefaultPermissionsCache getDefaultPermissionsCache() {
+        return defaultPermissionsCache;
+    }
+
+    /**
+     * Returns true if cache invalidation listener of this context has been started and has not stopped yet.
+     */
+    boolean isCacheInvalidationListenerRunning() {
+        synchronized (cacheInvalidationListenerLock) {
+            return cacheInvalidationListener != null && cacheInvalidationListener.isRunning();
+        }
+    }
+
+    /**
+     * Starts listener evicting entries of caches of this context changed through other contexts or other nodes,
+     * unless it is already running, context is closed or listener is not enabled for this context by configuration.
+     * Context created with data source listens only in {@link CacheInvalidationListenerMode#ALL_CONTEXTS} mode, as
+     * listener would hold one connection of that data source until context is closed.
+     */
+    void startCacheInvalidationListener() {
+        CacheInvalidationListenerMode mode = config.getCacheInvalidationListenerMode();
+        if (mode == CacheInvalidationListenerMode.OFF
+            || mode == CacheInvalidationListenerMode.DEDICATED_CONNECTION && connectionPool == null) {
+            return;
+        }
+
+        synchronized (cacheInvalidationListenerLock) {
+            if (cacheInvalidationListener == null && !closed) {
+                cacheInvalidationListener = CacheInvalidationListener.start(backgroundJdbi, roleCache,
+                    defaultPermissionsCache);
+            }
+        }
+    }
+
+    /**
+     * Returns repository which borrows a handle for every call, or reuses the handle already borrowed by the current
+     * thread with {@link Jdbi#withHandle} so that all queries of a single operation run on one connection. Repository
+     * is created once per type and shared by all services built from this context.
+     */
+    <T> T getRepository(Class<T> type) {
+        return type.cast(repositories.get(type));
+    }
+
+    /**
+     * Stops cache invalidation listener, releasing its connection, and closes pool of connections if context was
+     * created with database URL. Data source given to context is not closed.
+     */
+    @Override
+    public void close() {
+        synchronized (cacheInvalidationListenerLock) {
+            closed = true;
+            if (cacheInvalidationListener != null) {
+                cacheInvalidationListener.stop();
+            }
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+
+    /**
+     * Identifies shared context by data source and configuration instances, as neither is expected to define
+     * equality.
+     */
+    private static final class SharedContextKey {
+        private final DataSource dataSource;
+        private final AmLibConfig config;
+
+        private SharedContextKey(DataSource dataSource, AmLibConfig config) {
+            this.dataSource = dataSource;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SharedContextKey)) {
+                return false;
+            }
+            SharedContextKey key = (SharedContextKey) other;
+            return dataSource == key.dataSource && config == key.config;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(dataSource) + System.identityHashCode(config);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.gov.hmcts.reform.amlib;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import org.slf4j.MDC;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ValidationAspect;
+import uk.gov.hmcts.reform.amlib.internal.validation.ValidAttributeSecurityClassification;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Non-blocking facade of {@link FilterResourceService}. Resources are filtered on given executor and results are
+ * returned as futures, so that threads serving requests are not held while waiting for the database.
+ *
+ * <p>Number of threads of the executor bounds number of filter operations in progress and should match size of the
+ * connection pool used by filter service, so that operations queue in the executor rather than wait for connections.
+ * Invalid arguments are rejected before operation is submitted to the executor, while persistence errors are reported
+ * by completing returned future exceptionally. MDC of calling thread is available to audit of filtered resources.
+ */
+public class AsyncFilterResourceService implements ConfiguredService {
+
+    private final FilterResourceService filterResourceService;
+    private final Executor executor;
+
+    /**
+     * Creates facade filtering resources with given service on given executor. Executor is not shut down by facade.
+     *
+     * @param filterResourceService the service resources are filtered with
+     * @param executor              the executor resources are filtered on
+     */
+    public AsyncFilterResourceService(FilterResourceService filterResourceService, Executor executor) {
+        this.filterResourceService = filterResourceService;
+        this.executor = executor;
+    }
+
+    /**
+     * Filters resource asynchronously, see
+     * {@link FilterResourceService#filterResource(String, Set, Resource, Map)}.
+     *
+     * @param userId                           accessor ID
+     * @param userRoles                        accessor roles
+     * @param resource                         envelope {@link Resource} and corresponding metadata
+     * @param attributeSecurityClassifications input security classification map from CCD
+     * @return future completed with envelope {@link FilteredResourceEnvelope}, or null if access to resource is not
+     *     configured
+     */
+    public CompletableFuture<FilteredResourceEnvelope> filterResource(
+        @NotBlank String userId,
+        @NotEmpty Set<@NotBlank String> userRoles,
+        @NotNull @Valid Resource resource,
+        @ValidAttributeSecurityClassification Map<@NotNull JsonPointer, SecurityClassification>
+            attributeSecurityClassifications) {
+        return supplyAsync(() -> filterResourceService.filterResource(userId, userRoles, resource,
+            attributeSecurityClassifications));
+    }
+
+    /**
+     * Filters list of resources asynchronously, see
+     * {@link FilterResourceService#filterResources(String, Set, List, Map)}.
+     *
+     * @param userId                           accessor ID
+     * @param userRoles                        accessor roles
+     * @param resources                        envelope {@link Resource} and corresponding metadata
+     * @param attributeSecurityClassifications input security classification map from CCD
+     * @return future completed with list of {@link FilteredResourceEnvelope} in order of resources
+     */
+    public CompletableFuture<List<FilteredResourceEnvelope>> filterResources(
+        @NotBlank String userId,
+        @NotEmpty Set<@NotBlank String> userRoles,
+        @NotNull List<@NotNull @Valid Resource> resources,
+        @ValidAttributeSecurityClassification Map<@NotNull JsonPointer, SecurityClassification>
+            attributeSecurityClassifications) {
+        return supplyAsync(() -> filterResourceService.filterResources(userId, userRoles, resources,
+            attributeSecurityClassifications));
+    }
+
+    /**
+     * Returns configuration of the service resources are filtered with.
+     *
+     * @return library configuration of filter service
+     */
+    @Override
+    public AmLibConfig getConfig() {
+        return filterResourceService.getConfig();
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> operation) {
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        // arguments have been validated by this call, so filter service does not validate them again
+        return CompletableFuture.supplyAsync(ValidationAspect.withinCurrentServiceCall(() -> {
+            Map<String, String> executorContext = MDC.getCopyOfContextMap();
+            setContextMap(callerContext);
+            try {
+                return operation.get();
+            } finally {
+                setContextMap(executorContext);
+            }
+        }), executor);
+    }
+
+    private static void setContextMap(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
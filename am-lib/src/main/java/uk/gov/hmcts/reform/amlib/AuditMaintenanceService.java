@@ -0,0 +1,139 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.jdbi.v3.core.Jdbi;
+import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService;
+import uk.gov.hmcts.reform.amlib.internal.repositories.AuditPartitionRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import javax.sql.DataSource;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * Maintains audit of explicit access which is partitioned by month of audit timestamp (UTC).
+ *
+ * <p>Audit written after the last monthly partition is kept in an open-ended partition until partitions are created
+ * for it, so {@link #createAuditPartitions(int)} should be scheduled to run ahead of time, e.g. once a month.
+ * Old audit is removed by detaching or dropping whole partitions, which does not leave dead rows behind.
+ */
+public class AuditMaintenanceService implements ConfiguredService, AutoCloseable {
+
+    private final Jdbi jdbi;
+    private final AmLibContext context;
+    private final boolean ownsContext;
+
+    /**
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     */
+    public AuditMaintenanceService(String url, String username, String password) {
+        this(url, username, password, AmLibConfig.fromProperties());
+    }
+
+    /**
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   the library configuration
+     */
+    public AuditMaintenanceService(String url, String username, String password, AmLibConfig config) {
+        this(AmLibContext.create(url, username, password, config), true);
+    }
+
+    /**
+     * Creates service using given data source, with configuration read from library properties. Service shares its
+     * context with other services created with the same data source and no configuration; context is closed when
+     * the last of them is closed.
+     *
+     * @param dataSource the datasource for the database
+     */
+    public AuditMaintenanceService(DataSource dataSource) {
+        this(AmLibContext.acquire(dataSource), true);
+    }
+
+    /**
+     * Creates service sharing database access with other services built from the same context. Context is not
+     * closed when service is closed.
+     *
+     * <p>This constructor is recommended to be used over the others.
+     *
+     * @param context the context shared by services built from it
+     */
+    public AuditMaintenanceService(AmLibContext context) {
+        this(context, false);
+    }
+
+    private AuditMaintenanceService(AmLibContext context, boolean ownsContext) {
+        this.jdbi = context.getJdbi();
+        this.context = context;
+        this.ownsContext = ownsContext;
+    }
+
+    /**
+     * Creates monthly audit partitions up to given number of months after the current month. Audit already written
+     * to those months is moved to created partitions.
+     *
+     * @param monthsAhead number of months after the current month that should have partitions
+     * @return names of created partitions, empty if all partitions already exist
+     * @throws PersistenceException if any persistence errors were encountered
+     */
+    @AuditLog("audit partitions created by '{{mdc:caller}}' for {{monthsAhead}} months ahead: {{result}}")
+    public List<String> createAuditPartitions(@PositiveOrZero int monthsAhead) {
+        return jdbi.withExtension(AuditPartitionRepository.class,
+            dao -> dao.createAccessManagementAuditPartitions(monthsAhead));
+    }
+
+    /**
+     * Detaches audit partitions holding only audit older than given date. Detached partitions are left as standalone
+     * tables so that they can be archived and dropped afterwards.
+     *
+     * @param olderThan date (UTC) before which audit should be detached
+     * @return names of detached partitions
+     * @throws PersistenceException if any persistence errors were encountered
+     */
+    @AuditLog("audit partitions older than '{{olderThan}}' detached by '{{mdc:caller}}': {{result}}")
+    public List<String> detachAuditPartitionsOlderThan(@NotNull LocalDate olderThan) {
+        return jdbi.withExtension(AuditPartitionRepository.class,
+            dao -> dao.detachAccessManagementAuditPartitions(olderThan));
+    }
+
+    /**
+     * Drops audit partitions holding only audit older than given date.
+     *
+     * @param olderThan date (UTC) before which audit should be dropped
+     * @return names of dropped partitions
+     * @throws PersistenceException if any persistence errors were encountered
+     */
+    @AuditLog("audit partitions older than '{{olderThan}}' dropped by '{{mdc:caller}}': {{result}}")
+    public List<String> dropAuditPartitionsOlderThan(@NotNull LocalDate olderThan) {
+        return jdbi.withExtension(AuditPartitionRepository.class,
+            dao -> dao.dropAccessManagementAuditPartitions(olderThan));
+    }
+
+    @Override
+    public AmLibConfig getConfig() {
+        return context.getConfig();
+    }
+
+    /**
+     * Closes pool of connections created by constructors taking database URL. Context shared by services created with
+     * data source is closed once all of them are closed. Data source or context passed to constructors belongs to the
+     * caller and is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsContext) {
+            context.release();
+        }
+    }
+}
@@ -2,18 +2,22 @@ package uk.gov.hmcts.reform.amlib;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 import uk.gov.hmcts.reform.amlib.enums.AccessType;
 import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.enums.RoleType;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
 import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
+import uk.gov.hmcts.reform.amlib.internal.CacheInvalidationListener;
+import uk.gov.hmcts.reform.amlib.internal.DefaultPermissionsCache;
+import uk.gov.hmcts.reform.amlib.internal.RoleCache;
 import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService;
+import uk.gov.hmcts.reform.amlib.internal.models.CacheInvalidation;
 import uk.gov.hmcts.reform.amlib.internal.models.ResourceAttribute;
 import uk.gov.hmcts.reform.amlib.internal.models.RoleBasedAccessRecord;
 import uk.gov.hmcts.reform.amlib.internal.repositories.DefaultRoleSetupRepository;
-import uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader;
+import uk.gov.hmcts.reform.amlib.internal.utils.CallerTransactions;
 import uk.gov.hmcts.reform.amlib.models.DefaultPermissionGrant;
 import uk.gov.hmcts.reform.amlib.models.DefaultRolePermissions;
 import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
@@ -31,34 +35,65 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
-import static java.lang.Boolean.TRUE;
 import static java.util.Objects.nonNull;
 import static uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog.Severity.DEBUG;
-import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_REQUIRED;
 
-public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImportService {
+public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImportService, ConfiguredService,
+    AutoCloseable {
     private final Jdbi jdbi;
+    private final RoleCache roleCache;
+    private final DefaultPermissionsCache defaultPermissionsCache;
+    private final AmLibConfig config;
+    private final AmLibContext context;
+    private final Object database;
+    private final boolean ownsContext;
 
     /**
-     * This constructor has issues with performance due to requiring a new connection for every query.
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
      *
      * @param url      the url for the database
      * @param username the username for the database
      * @param password the password for the database
      */
     public DefaultRoleSetupImportServiceImpl(String url, String username, String password) {
-        this.jdbi = Jdbi.create(url, username, password)
-            .installPlugin(new SqlObjectPlugin());
+        this(url, username, password, AmLibConfig.fromProperties());
     }
 
     /**
-     * This constructor is recommended to be used over the above.
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   the library configuration
+     */
+    public DefaultRoleSetupImportServiceImpl(String url, String username, String password, AmLibConfig config) {
+        this(AmLibContext.create(url, username, password, config), true);
+    }
+
+    /**
+     * Creates service using given data source, with configuration read from library properties. Service shares its
+     * context with other services created with the same data source and no configuration; context is closed when
+     * the last of them is closed.
      *
      * @param dataSource the datasource for the database
      */
     public DefaultRoleSetupImportServiceImpl(DataSource dataSource) {
-        this.jdbi = Jdbi.create(dataSource)
-            .installPlugin(new SqlObjectPlugin());
+        this(AmLibContext.acquire(dataSource), true);
+    }
+
+    /**
+     * Creates service using given data source and configuration. Service shares its context with other services
+     * created with the same data source and configuration instance; context is closed when the last of them is
+     * closed.
+     *
+     * @param dataSource the datasource for the database
+     * @param config     the library configuration
+     */
+    public DefaultRoleSetupImportServiceImpl(DataSource dataSource, AmLibConfig config) {
+        this(AmLibContext.acquire(dataSource, config), true);
     }
 
     /**
@@ -68,8 +103,40 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
      * @param transactionAwareDataSourceProxy TransactionAwareDataSourceProxy
      */
     public DefaultRoleSetupImportServiceImpl(TransactionAwareDataSourceProxy transactionAwareDataSourceProxy) {
-        this.jdbi = Jdbi.create(transactionAwareDataSourceProxy)
-            .installPlugin(new SqlObjectPlugin());
+        this(AmLibContext.acquire(transactionAwareDataSourceProxy), true);
+    }
+
+    /**
+     * Creates service taking part in existing transaction of the calling service, with given configuration.
+     *
+     * @param transactionAwareDataSourceProxy TransactionAwareDataSourceProxy
+     * @param config                          the library configuration
+     */
+    public DefaultRoleSetupImportServiceImpl(TransactionAwareDataSourceProxy transactionAwareDataSourceProxy,
+                                             AmLibConfig config) {
+        this(AmLibContext.acquire(transactionAwareDataSourceProxy, config), true);
+    }
+
+    /**
+     * Creates service sharing database access and configuration with other services built from the same context.
+     * Context is not closed when service is closed.
+     *
+     * <p>This constructor is recommended to be used over the others.
+     *
+     * @param context the context shared by services built from it
+     */
+    public DefaultRoleSetupImportServiceImpl(AmLibContext context) {
+        this(context, false);
+    }
+
+    private DefaultRoleSetupImportServiceImpl(AmLibContext context, boolean ownsContext) {
+        this.jdbi = context.getJdbi();
+        this.roleCache = context.getRoleCache();
+        this.defaultPermissionsCache = context.getDefaultPermissionsCache();
+        this.config = context.getConfig();
+        this.context = context;
+        this.database = context.getDatabase();
+        this.ownsContext = ownsContext;
     }
 
     /**
@@ -109,8 +176,12 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
                         @NotNull RoleType roleType,
                         @NotNull SecurityClassification securityClassification,
                         @NotNull AccessType accessType) {
-        jdbi.useExtension(DefaultRoleSetupRepository.class,
-            dao -> dao.addRole(roleName, roleType, securityClassification, accessType));
+        jdbi.useTransaction(handle -> {
+            DefaultRoleSetupRepository dao = handle.attach(DefaultRoleSetupRepository.class);
+            dao.addRole(roleName, roleType, securityClassification, accessType);
+            notifyCacheInvalidation(dao, CacheInvalidation.builder().roleName(roleName).build());
+        });
+        invalidateCaches(() -> roleCache.invalidate(roleName));
     }
 
     /**
@@ -149,14 +220,17 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
                 dao.grantDefaultPermission(getRoleAccess(accessGrant, attribute, permissionAndClassification));
 
                 //check if Audit flag enabled & create Audit of attribute and permissions
-                if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
+                if (config.isAuditRequired()) {
                     dao.createResourceAttributeForAudit(getResourceAttribute(accessGrant, attribute,
                         permissionAndClassification), accessGrant.getCallingServiceName(), accessGrant.getChangedBy());
                     dao.grantDefaultPermissionAudit(getRoleAccess(accessGrant, attribute,
                         permissionAndClassification), accessGrant.getCallingServiceName(), accessGrant.getChangedBy());
                 }
             });
+
+            notifyCacheInvalidation(dao, createCacheInvalidation(accessGrant.getResourceDefinition()));
         });
+        invalidateCaches(() -> defaultPermissionsCache.invalidate(accessGrant.getResourceDefinition()));
     }
 
     private RoleBasedAccessRecord getRoleAccess(
@@ -214,17 +288,22 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
 
             DefaultRoleSetupRepository dao = handle.attach(DefaultRoleSetupRepository.class);
 
-            //check if Audit flag enabled & Inserts Audit attribute permissions and resource attributes
-            if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
-                dao.revokeDefaultPermissionAudit(serviceName, resourceType, callingServiceName, changedBy);
-                dao.revokeResourceAttributeAudit(serviceName, resourceType, callingServiceName, changedBy);
+            //check if Audit flag enabled & Truncate with audit of deleted attribute permissions and resource attributes
+            if (config.isAuditRequired()) {
+                dao.deleteDefaultPermissionsForRolesWithAudit(serviceName, resourceType, callingServiceName, changedBy);
+                dao.deleteResourceAttributesWithAudit(serviceName, resourceType, callingServiceName, changedBy);
+            } else {
+                dao.deleteDefaultPermissionsForRoles(serviceName, resourceType);
+                dao.deleteResourceAttributes(serviceName, resourceType);
             }
-            //Truncate
-            dao.deleteDefaultPermissionsForRoles(serviceName, resourceType);
-            dao.deleteResourceAttributes(serviceName, resourceType);
 
+            notifyCacheInvalidation(dao, CacheInvalidation.builder()
+                .serviceName(serviceName)
+                .resourceType(resourceType)
+                .build());
 
         });
+        invalidateCaches(() -> defaultPermissionsCache.invalidate(serviceName, resourceType));
     }
 
     /**
@@ -246,15 +325,18 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
         jdbi.useTransaction(handle -> {
             DefaultRoleSetupRepository dao = handle.attach(DefaultRoleSetupRepository.class);
 
-            //check if Audit flag enabled & Inserts Audit attribute permissions and resource attributes
-            if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
-                dao.revokeDefaultPermissionAudit(resourceDefinition, callingServiceName, changedBy);
-                dao.revokeResourceAttributeAudit(resourceDefinition, callingServiceName, changedBy);
+            //check if Audit flag enabled & Truncate with audit of deleted attribute permissions and resource attributes
+            if (config.isAuditRequired()) {
+                dao.deleteDefaultPermissionsForRolesWithAudit(resourceDefinition, callingServiceName, changedBy);
+                dao.deleteResourceAttributesWithAudit(resourceDefinition, callingServiceName, changedBy);
+            } else {
+                dao.deleteDefaultPermissionsForRoles(resourceDefinition);
+                dao.deleteResourceAttributes(resourceDefinition);
             }
 
-            dao.deleteDefaultPermissionsForRoles(resourceDefinition);
-            dao.deleteResourceAttributes(resourceDefinition);
+            notifyCacheInvalidation(dao, createCacheInvalidation(resourceDefinition));
         });
+        invalidateCaches(() -> defaultPermissionsCache.invalidate(resourceDefinition));
     }
 
     /**
@@ -278,7 +360,12 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
      */
     @AuditLog(value = "deleted role '{{roleName}}'", severity = DEBUG)
     public void deleteRole(@NotBlank String roleName) {
-        jdbi.useExtension(DefaultRoleSetupRepository.class, dao -> dao.deleteRole(roleName));
+        jdbi.useTransaction(handle -> {
+            DefaultRoleSetupRepository dao = handle.attach(DefaultRoleSetupRepository.class);
+            dao.deleteRole(roleName);
+            notifyCacheInvalidation(dao, CacheInvalidation.builder().roleName(roleName).build());
+        });
+        invalidateCaches(() -> roleCache.invalidate(roleName));
     }
 
     /**
@@ -339,28 +426,57 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
 
             DefaultRoleSetupRepository dao = handle.attach(DefaultRoleSetupRepository.class);
 
-            //check if Audit flag enabled & batch audit with revoke for deleted records
-            if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
-                dao.defaultPermissionAuditBatchRevoke(resourceDefinitions, callingServiceName, changedBy);
-
-                dao.resourceAttributeAuditBatchRevoke(resourceDefinitions, callingServiceName, changedBy);
+            //check if Audit flag enabled & batch delete with revoke audit for deleted records
+            if (config.isAuditRequired()) {
+                dao.deleteBatchDefaultPermissionsWithAudit(resourceDefinitions, callingServiceName, changedBy);
+                dao.deleteBatchResourceAttributesWithAudit(resourceDefinitions, callingServiceName, changedBy);
+            } else {
+                dao.deleteBatchDefaultPermissions(resourceDefinitions);
+                dao.deleteBatchResourceAttributes(resourceAttributes);
             }
 
-            //Actual batch delete
-            dao.deleteBatchDefaultPermissions(resourceDefinitions);
-            dao.deleteBatchResourceAttributes(resourceAttributes);
-
             //Insert new batch records
             dao.createResourceAttributeBatch(resourceAttributes);
             dao.grantDefaultPermissionBatch(roleBasedAccessRecords);
 
             //Audit for newly inserted batch
-            if (TRUE.toString().equalsIgnoreCase(PropertyReader.getPropertyValue(AUDIT_REQUIRED))) {
+            if (config.isAuditRequired()) {
                 dao.createResourceAttributeForAuditBatch(resourceAttributes, callingServiceName, changedBy);
                 dao.grantDefaultPermissionAuditBatch(roleBasedAccessRecords, callingServiceName, changedBy);
             }
 
+            resourceDefinitions.forEach(resourceDefinition ->
+                notifyCacheInvalidation(dao, createCacheInvalidation(resourceDefinition)));
         });
+        invalidateCaches(() -> resourceDefinitions.forEach(defaultPermissionsCache::invalidate));
+    }
+
+    /**
+     * Notifies services on all nodes that cached data has changed. Notification is delivered only once transaction
+     * commits.
+     */
+    /**
+     * Evicts changed entries from caches of this context. When service takes part in Spring transaction of the caller,
+     * entries are evicted again once that transaction completes, as other threads could have cached rows read before
+     * changes were committed, or rows changed by this transaction if it is rolled back.
+     */
+    private void invalidateCaches(Runnable invalidation) {
+        invalidation.run();
+        if (CallerTransactions.isActive(database)) {
+            CallerTransactions.runAfterCompletion(invalidation);
+        }
+    }
+
+    private void notifyCacheInvalidation(DefaultRoleSetupRepository dao, CacheInvalidation cacheInvalidation) {
+        dao.notifyCacheInvalidation(CacheInvalidationListener.toPayload(cacheInvalidation));
+    }
+
+    private CacheInvalidation createCacheInvalidation(ResourceDefinition resourceDefinition) {
+        return CacheInvalidation.builder()
+            .serviceName(resourceDefinition.getServiceName())
+            .resourceType(resourceDefinition.getResourceType())
+            .resourceName(resourceDefinition.getResourceName())
+            .build();
     }
 
     /**
@@ -391,4 +507,21 @@ public class DefaultRoleSetupImportServiceImpl implements DefaultRoleSetupImport
             .defaultRolePermissions(defaultRolePermissions)
             .build();
     }
+
+    @Override
+    public AmLibConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes pool of connections created by constructors taking database URL. Context shared by services created with
+     * data source is closed once all of them are closed. Data source or context passed to constructors belongs to the
+     * caller and is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsContext) {
+            context.release();
+        }
+    }
 }
@@ -1,19 +1,38 @@
 package uk.gov.hmcts.reform.amlib;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
+import org.aspectj.lang.Aspects;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 import uk.gov.hmcts.reform.amlib.enums.AccessType;
 import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
 import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
+import uk.gov.hmcts.reform.amlib.exceptions.ResourceFilteringException;
+import uk.gov.hmcts.reform.amlib.internal.DefaultPermissionsCache;
+import uk.gov.hmcts.reform.amlib.internal.EffectiveSecurityClassifications;
+import uk.gov.hmcts.reform.amlib.internal.EffectiveSecurityClassificationsCache;
+import uk.gov.hmcts.reform.amlib.internal.FilterPlan;
+import uk.gov.hmcts.reform.amlib.internal.FilterPlanCache;
 import uk.gov.hmcts.reform.amlib.internal.FilterService;
 import uk.gov.hmcts.reform.amlib.internal.PermissionsService;
+import uk.gov.hmcts.reform.amlib.internal.RoleCache;
 import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditingAspect;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService;
+import uk.gov.hmcts.reform.amlib.internal.aspects.ValidationAspect;
 import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.models.ResourceAccess;
 import uk.gov.hmcts.reform.amlib.internal.models.Role;
+import uk.gov.hmcts.reform.amlib.internal.models.RoleBasedAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.models.query.ResourceAccessRecords;
+import uk.gov.hmcts.reform.amlib.internal.models.query.ResourcesAccessRecords;
 import uk.gov.hmcts.reform.amlib.internal.repositories.AccessManagementRepository;
+import uk.gov.hmcts.reform.amlib.internal.utils.BulkOperations;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
 import uk.gov.hmcts.reform.amlib.internal.utils.SecurityClassifications;
 import uk.gov.hmcts.reform.amlib.internal.validation.ValidAttributeSecurityClassification;
 import uk.gov.hmcts.reform.amlib.models.AccessEnvelope;
@@ -24,14 +43,22 @@ import uk.gov.hmcts.reform.amlib.models.ResourceAccessor;
 import uk.gov.hmcts.reform.amlib.models.ResourceAccessorsEnvelope;
 import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
@@ -40,6 +67,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
@@ -49,33 +77,98 @@ import static uk.gov.hmcts.reform.amlib.enums.AccessType.EXPLICIT;
 import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
 import static uk.gov.hmcts.reform.amlib.enums.AccessorType.USER;
 
-@SuppressWarnings("PMD.ExcessiveImports")
-public class FilterResourceService {
+@SuppressWarnings({"PMD.ExcessiveImports", "PMD.TooManyMethods"})
+public class FilterResourceService implements ConfiguredService, AutoCloseable {
+
+    private static final String FILTERED_RESOURCE_AUDIT_TEMPLATE = "filtered access to resource '{{resource.id}}' "
+        + "defined as '{{resource.definition.serviceName}}|{{resource.definition.resourceType}}|"
+        + "{{resource.definition.resourceName}}' for accessor '{{userId}}' in roles '{{userRoles}}' and "
+        + "SecurityClassification {{attributeSecurityClassifications}} : {{result.access.accessType}} access with "
+        + "relationships {{result.relationships}} and permissions {{result.access.permissions}} and user security "
+        + "classification is {{result.userSecurityClassification}}";
+    private static final String FILTERED_RESOURCE_DATA_AUDIT_TEMPLATE = "filtered access to resource '{{resourceId}}' "
+        + "defined as '{{resourceDefinition.serviceName}}|{{resourceDefinition.resourceType}}|"
+        + "{{resourceDefinition.resourceName}}' for accessor '{{userId}}' in roles '{{userRoles}}' and "
+        + "SecurityClassification {{attributeSecurityClassifications}} : {{result.access.accessType}} access with "
+        + "relationships {{result.relationships}} and permissions {{result.access.permissions}} and user security "
+        + "classification is {{result.userSecurityClassification}}";
+    private static final Method FILTER_RESOURCE_METHOD = getFilterResourceMethod();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+        .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 
     private final FilterService filterService = new FilterService();
+    private final FilterPlanCache filterPlanCache = new FilterPlanCache(filterService);
+    private final EffectiveSecurityClassificationsCache securityClassificationsCache =
+        new EffectiveSecurityClassificationsCache();
+    private final AuditingAspect auditingAspect = Aspects.aspectOf(AuditingAspect.class);
     private final PermissionsService permissionsService = new PermissionsService();
     private final Jdbi jdbi;
+    private final AccessManagementRepository repository;
+    private final RoleCache roleCache;
+    private final DefaultPermissionsCache defaultPermissionsCache;
+    private final AmLibConfig config;
+    private final AmLibContext context;
+    private final boolean ownsContext;
 
     /**
-     * This constructor has issues with performance due to requiring a new connection for every query.
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
      *
      * @param url      the url for the database
      * @param username the username for the database
      * @param password the password for the database
      */
     public FilterResourceService(String url, String username, String password) {
-        this.jdbi = Jdbi.create(url, username, password)
-            .installPlugin(new SqlObjectPlugin());
+        this(url, username, password, AmLibConfig.fromProperties());
     }
 
     /**
-     * This constructor is recommended to be used over the above.
+     * Creates service with its own bounded pool of connections to the database, which is closed
+     * when service is closed.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   the library configuration
+     */
+    public FilterResourceService(String url, String username, String password, AmLibConfig config) {
+        this(AmLibContext.create(url, username, password, config), true);
+    }
+
+    /**
+     * Creates service using given data source, with configuration read from library properties. Service shares its
+     * context with other services created with the same data source and no configuration; context is closed when
+     * the last of them is closed.
      *
      * @param dataSource the datasource for the database
      */
     public FilterResourceService(DataSource dataSource) {
-        this.jdbi = Jdbi.create(dataSource)
-            .installPlugin(new SqlObjectPlugin());
+        this(AmLibContext.acquire(dataSource), true);
+    }
+
+    /**
+     * Creates service sharing database access with other services built from the same context. Context is not
+     * closed when service is closed.
+     *
+     * <p>This constructor is recommended to be used over the others.
+     *
+     * @param context the context shared by services built from it
+     */
+    public FilterResourceService(AmLibContext context) {
+        this(context, false);
+    }
+
+    private FilterResourceService(AmLibContext context, boolean ownsContext) {
+        this.jdbi = context.getJdbi();
+        this.repository = context.getRepository(AccessManagementRepository.class);
+        this.roleCache = context.getRoleCache();
+        this.defaultPermissionsCache = context.getDefaultPermissionsCache();
+        this.config = context.getConfig();
+        this.context = context;
+        this.ownsContext = ownsContext;
+        context.startCacheInvalidationListener();
     }
 
     /**
@@ -83,6 +176,11 @@ public class FilterResourceService {
      * insufficient security classification) and returns an envelope response consisting of id, filtered json
      * and permissions for attributes.
      *
+     * <p>Explicit access to all resources is looked up with a single query, user roles are resolved once and default
+     * role permissions are loaded once per distinct resource definition, all on a single database connection.
+     * Resources are then filtered in parallel on executor of bulk operations, see
+     * {@link AmLibConfig#getBulkOperationExecutor()}.
+     *
      * @param userId                           accessor ID
      * @param userRoles                        accessor roles
      * @param resources                        envelope {@link Resource} and corresponding metadata
@@ -94,11 +192,79 @@ public class FilterResourceService {
     public List<FilteredResourceEnvelope> filterResources(@NotBlank String userId,
                                                           @NotEmpty Set<@NotBlank String> userRoles,
                                                           @NotNull List<@NotNull @Valid Resource> resources,
-                                                          Map<JsonPointer, SecurityClassification>
+                                                          @ValidAttributeSecurityClassification
+                                                              Map<@NotNull JsonPointer, SecurityClassification>
                                                               attributeSecurityClassifications) {
-        return resources.stream()
-            .map(resource -> filterResource(userId, userRoles, resource, attributeSecurityClassifications))
-            .collect(toList());
+        if (resources.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // all queries of the operation run on a single handle, which is released before resources are filtered
+        ResourcesAccessRecords resourcesAccessRecords = jdbi.withHandle(handle ->
+            getResourcesAccessRecords(userId, userRoles, resources, attributeSecurityClassifications != null));
+        Map<String, Map<String, List<ExplicitAccessRecord>>> explicitAccessRecords =
+            resourcesAccessRecords.getExplicitAccessRecords();
+        Set<Role> roles = resourcesAccessRecords.getRoles();
+        Map<ResourceDefinition, Map<JsonPointer, Set<Permission>>> roleAttributePermissions =
+            resourcesAccessRecords.getRoleAttributePermissions();
+        EffectiveSecurityClassifications effectiveSecurityClassifications =
+            securityClassificationsCache.get(attributeSecurityClassifications);
+
+        List<FilteredResourceEnvelope> filteredResources = BulkOperations.mapInOrder(resources, resource -> {
+            ResourceAccess resourceAccess = createResourceAccess(
+                findExplicitAccessRecords(explicitAccessRecords, resource),
+                () -> roleAttributePermissions.get(resource.getDefinition()),
+                () -> getMaxSecurityClassificationHierarchy(roles),
+                effectiveSecurityClassifications);
+
+            if (resourceAccess == null) {
+                return null;
+            }
+
+            return createFilteredResourceEnvelope(resource.getId(), resource.getDefinition(),
+                filterService.filterJson(resource.getData(), resourceAccess.getFilterPlan()), resourceAccess);
+        }, config.getBulkOperationExecutor(), config.getBulkOperationParallelism());
+
+        for (int i = 0; i < resources.size(); i++) {
+            audit(userId, userRoles, resources.get(i), attributeSecurityClassifications, filteredResources.get(i));
+        }
+
+        return filteredResources;
+    }
+
+    /**
+     * Audits filtered resource with the same event as {@link #filterResource(String, Set, Resource, Map)} does.
+     */
+    private void audit(String userId,
+                       Set<String> userRoles,
+                       Resource resource,
+                       Map<JsonPointer, SecurityClassification> attributeSecurityClassifications,
+                       FilteredResourceEnvelope filteredResourceEnvelope) {
+        auditingAspect.audit(this, FILTER_RESOURCE_METHOD,
+            new Object[]{userId, userRoles, resource, attributeSecurityClassifications}, filteredResourceEnvelope);
+    }
+
+    private ResourcesAccessRecords getResourcesAccessRecords(String userId,
+                                                            Set<String> userRoles,
+                                                            List<Resource> resources,
+                                                            boolean securityClassificationRequired) {
+        Map<String, Map<String, List<ExplicitAccessRecord>>> explicitAccessRecords =
+            getExplicitAccessRecords(userId, userRoles, resources);
+
+        boolean roleBasedAccessRequired = resources.stream()
+            .anyMatch(resource -> findExplicitAccessRecords(explicitAccessRecords, resource).isEmpty());
+
+        Set<Role> roles = roleBasedAccessRequired || securityClassificationRequired
+            ? getRoles(userRoles) : Collections.emptySet();
+
+        return ResourcesAccessRecords.builder()
+            .explicitAccessRecords(explicitAccessRecords)
+            .roles(roles)
+            .roleAttributePermissions(getRoleAttributePermissions(roles, resources.stream()
+                .filter(resource -> findExplicitAccessRecords(explicitAccessRecords, resource).isEmpty())
+                .map(Resource::getDefinition)
+                .collect(toSet())))
+            .build();
     }
 
     /**
@@ -115,12 +281,7 @@ public class FilterResourceService {
      * @throws PersistenceException if any persistence errors were encountered,
      *                              or NoSuchElementException if root element missing
      */
-    @AuditLog("filtered access to resource '{{resource.id}}' defined as '{{resource.definition.serviceName}}|"
-        + "{{resource.definition.resourceType}}|{{resource.definition.resourceName}}' for accessor '{{userId}}' "
-        + "in roles '{{userRoles}}' and SecurityClassification {{attributeSecurityClassifications}} : "
-        + "{{result.access.accessType}} access with relationships {{result.relationships}} "
-        + "and permissions {{result.access.permissions}} and user security classification "
-        + "is {{result.userSecurityClassification}}")
+    @AuditLog(FILTERED_RESOURCE_AUDIT_TEMPLATE)
     public FilteredResourceEnvelope filterResource(@NotBlank String userId,
                                                    @NotEmpty Set<@NotBlank String> userRoles,
                                                    @NotNull @Valid Resource resource,
@@ -128,14 +289,256 @@ public class FilterResourceService {
                                                        Map<@NotNull JsonPointer, SecurityClassification>
                                                        attributeSecurityClassifications) {
 
-        List<ExplicitAccessRecord> explicitAccessRecords = getExplicitAccessRecords(userId, userRoles, resource);
+        ResourceAccess resourceAccess = getResourceAccess(userId, userRoles, resource.getId(),
+            resource.getDefinition(), attributeSecurityClassifications);
+
+        if (resourceAccess == null) {
+            return null;
+        }
+
+        JsonNode filteredJson = filterService.filterJson(resource.getData(), resourceAccess.getFilterPlan());
+
+        return createFilteredResourceEnvelope(resource.getId(), resource.getDefinition(), filteredJson,
+            resourceAccess);
+    }
+
+    /**
+     * Filters JSON read from input stream to remove fields that user has no access to (no READ permission or
+     * insufficient security classification) and writes result to output stream without building JSON tree in memory.
+     * If user has no access to any field JSON null is written. Streams are not closed.
+     *
+     * @param userId                           accessor ID
+     * @param userRoles                        accessor roles
+     * @param resourceId                       resource ID
+     * @param resourceDefinition               resource definition
+     * @param data                             resource JSON
+     * @param filteredData                     stream filtered resource JSON is written to
+     * @param attributeSecurityClassifications input security classification map from CCD
+     * @return envelope {@link FilteredResourceEnvelope} with resource ID and map of permissions if access to resource
+     * is configured, otherwise null. Filtered JSON is not included in the envelope.
+     * @throws PersistenceException        if any persistence errors were encountered
+     * @throws ResourceFilteringException  if resource JSON could not be read or written
+     */
+    @AuditLog(FILTERED_RESOURCE_DATA_AUDIT_TEMPLATE)
+    public FilteredResourceEnvelope filterResource(@NotBlank String userId,
+                                                   @NotEmpty Set<@NotBlank String> userRoles,
+                                                   @NotBlank String resourceId,
+                                                   @NotNull @Valid ResourceDefinition resourceDefinition,
+                                                   @NotNull InputStream data,
+                                                   @NotNull OutputStream filteredData,
+                                                   @ValidAttributeSecurityClassification
+                                                       Map<@NotNull JsonPointer, SecurityClassification>
+                                                       attributeSecurityClassifications) {
+
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            return filterResource(userId, userRoles, resourceId, resourceDefinition, parser, filteredData,
+                attributeSecurityClassifications);
+        } catch (IOException ex) {
+            throw new ResourceFilteringException(ex);
+        }
+    }
+
+    /**
+     * Filters raw JSON to remove fields that user has no access to (no READ permission or insufficient security
+     * classification) and writes result to output stream without building JSON tree in memory. If user has no access
+     * to any field JSON null is written. Stream is not closed.
+     *
+     * @param userId                           accessor ID
+     * @param userRoles                        accessor roles
+     * @param resourceId                       resource ID
+     * @param resourceDefinition               resource definition
+     * @param data                             resource JSON
+     * @param filteredData                     stream filtered resource JSON is written to
+     * @param attributeSecurityClassifications input security classification map from CCD
+     * @return envelope {@link FilteredResourceEnvelope} with resource ID and map of permissions if access to resource
+     * is configured, otherwise null. Filtered JSON is not included in the envelope.
+     * @throws PersistenceException        if any persistence errors were encountered
+     * @throws ResourceFilteringException  if resource JSON could not be read or written
+     */
+    @AuditLog(FILTERED_RESOURCE_DATA_AUDIT_TEMPLATE)
+    public FilteredResourceEnvelope filterResource(@NotBlank String userId,
+                                                   @NotEmpty Set<@NotBlank String> userRoles,
+                                                   @NotBlank String resourceId,
+                                                   @NotNull @Valid ResourceDefinition resourceDefinition,
+                                                   @NotNull byte[] data,
+                                                   @NotNull OutputStream filteredData,
+                                                   @ValidAttributeSecurityClassification
+                                                       Map<@NotNull JsonPointer, SecurityClassification>
+                                                       attributeSecurityClassifications) {
+
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            return filterResource(userId, userRoles, resourceId, resourceDefinition, parser, filteredData,
+                attributeSecurityClassifications);
+        } catch (IOException ex) {
+            throw new ResourceFilteringException(ex);
+        }
+    }
+
+    /**
+     * returns Access rights for given resource.
+     *
+     * @param resourceId   resourceId
+     * @param resourceName resourceName
+     * @param resourceType resourceType
+     * @return ResourceAccessorsEnvelope resourceAccessorsEnvelope
+     */
+    @AuditLog("returns access rights for given resource with resource id '{{resourceId}}' "
+        + "  resource name '{{resourceName}} and resource type '{{resourceType}}' : with result resource id "
+        + " {{result.resourceId}} and data {{result.explicitAccessors}}")
+    public ResourceAccessorsEnvelope returnResourceAccessors(@NotBlank String resourceId,
+                                                             @NotBlank String resourceName,
+                                                             @NotBlank String resourceType) {
+
+        List<ExplicitAccessRecord> explicitAccessRecords =
+            repository.getExplicitAccessForResource(resourceId, resourceName, resourceType, USER);
+
+        return ResourceAccessorsEnvelope.builder()
+            .explicitAccessors(getResourceAccessors(explicitAccessRecords))
+            .resourceId(resourceId)
+            .build();
+    }
+
+    /**
+     * Returns a page of access rights for given resource. Accessors are ordered by id, so the last accessor id of
+     * a page can be passed to retrieve the next page.
+     *
+     * @param resourceId      resourceId
+     * @param resourceName    resourceName
+     * @param resourceType    resourceType
+     * @param afterAccessorId accessor id after which the page starts, or null for the first page
+     * @param limit           maximum number of accessors in the page
+     * @return ResourceAccessorsEnvelope resourceAccessorsEnvelope
+     */
+    @AuditLog("returns access rights after accessor '{{afterAccessorId}}' for given resource with resource id "
+        + "'{{resourceId}}' resource name '{{resourceName}}' and resource type '{{resourceType}}' : with result "
+        + "resource id {{result.resourceId}} and data {{result.explicitAccessors}}")
+    @SuppressWarnings("PMD.UseObjectForClearerAPI") // Arguments mirror returnResourceAccessors without paging
+    public ResourceAccessorsEnvelope returnResourceAccessors(@NotBlank String resourceId,
+                                                             @NotBlank String resourceName,
+                                                             @NotBlank String resourceType,
+                                                             String afterAccessorId,
+                                                             @Positive int limit) {
+
+        List<ExplicitAccessRecord> explicitAccessRecords = repository.getExplicitAccessForResourcePage(
+            resourceId, resourceName, resourceType, USER, afterAccessorId, limit);
+
+        return ResourceAccessorsEnvelope.builder()
+            .explicitAccessors(getResourceAccessors(explicitAccessRecords))
+            .resourceId(resourceId)
+            .build();
+    }
+
+    /**
+     * Passes access rights for given resource to a consumer one accessor at a time, ordered by accessor id.
+     * Records are read from database in chunks so that access rights of all accessors do not have to be held in
+     * memory.
+     *
+     * @param resourceId   resourceId
+     * @param resourceName resourceName
+     * @param resourceType resourceType
+     * @param consumer     a consumer of access rights of a single accessor
+     */
+    @AuditLog("streamed access rights for given resource with resource id '{{resourceId}}' "
+        + "resource name '{{resourceName}}' and resource type '{{resourceType}}'")
+    public void streamResourceAccessors(@NotBlank String resourceId,
+                                        @NotBlank String resourceName,
+                                        @NotBlank String resourceType,
+                                        @NotNull Consumer<ResourceAccessor> consumer) {
+        Consumer<ResourceAccessor> callerConsumer = ValidationAspect.outsideServiceCall(consumer);
+        // fetch size is respected only within a transaction
+        jdbi.useTransaction(handle -> {
+            List<ExplicitAccessRecord> accessorRecords = new ArrayList<>();
+            try (Stream<ExplicitAccessRecord> records = handle.attach(AccessManagementRepository.class)
+                .streamExplicitAccessForResource(resourceId, resourceName, resourceType, USER)) {
+                records.forEachOrdered(record -> {
+                    if (!accessorRecords.isEmpty()
+                        && !accessorRecords.get(0).getAccessorId().equals(record.getAccessorId())) {
+                        callerConsumer.accept(
+                            getResourceAccessor(accessorRecords.get(0).getAccessorId(), accessorRecords));
+                        accessorRecords.clear();
+                    }
+                    accessorRecords.add(record);
+                });
+            }
+            if (!accessorRecords.isEmpty()) {
+                callerConsumer.accept(getResourceAccessor(accessorRecords.get(0).getAccessorId(), accessorRecords));
+            }
+        });
+    }
+
+    private List<ResourceAccessor> getResourceAccessors(List<ExplicitAccessRecord> explicitAccessRecords) {
+        Map<String, List<ExplicitAccessRecord>> explicitAccessRecordsByAccessorId = explicitAccessRecords.stream()
+            .collect(groupingBy(ExplicitAccessRecord::getAccessorId, LinkedHashMap::new, toList()));
+
+        List<ResourceAccessor> resourceAccessors = new ArrayList<>();
+        explicitAccessRecordsByAccessorId.forEach((accessorId, accessorExplicitAccessRecords) ->
+            resourceAccessors.add(getResourceAccessor(accessorId, accessorExplicitAccessRecords)));
+        return resourceAccessors;
+    }
+
+    private ResourceAccessor getResourceAccessor(String accessorId,
+                                                 List<ExplicitAccessRecord> accessorExplicitAccessRecords) {
+        return ResourceAccessor.builder()
+            .accessorId(accessorId)
+            .accessorType(USER)
+            .relationships(getRelationshipsFromExplicitAccessRecords(accessorExplicitAccessRecords))
+            .permissions(Permissions.copyOf(getExplicitAttributePermissions(accessorExplicitAccessRecords)))
+            .build();
+    }
+
+    /**
+     * Resolves access to single resource with one query returning explicit access records together with user roles
+     * which are not cached yet. Default permissions of role based roles are looked up only when there is no explicit
+     * access, and are queried only when their merge is not cached yet. All queries run on a single handle.
+     */
+    private ResourceAccess getResourceAccess(String userId,
+                                             Set<String> userRoles,
+                                             String resourceId,
+                                             ResourceDefinition resourceDefinition,
+                                             Map<JsonPointer, SecurityClassification>
+                                                 attributeSecurityClassifications) {
+
+        return jdbi.withHandle(handle -> {
+            List<ResourceAccessRecords> loadedRecords = new ArrayList<>(1);
+            Set<Role> roles = roleCache.getRoles(userRoles, Stream.of(EXPLICIT, ROLE_BASED).collect(toSet()),
+                roleNames -> {
+                    ResourceAccessRecords records = repository.getResourceAccessRecords(
+                        userId, userRoles, roleNames, resourceId, resourceDefinition);
+                    loadedRecords.add(records);
+                    return records.getRoles();
+                });
+
+            // explicit access is looked up on its own only when all roles were cached
+            List<ExplicitAccessRecord> explicitAccessRecords = loadedRecords.isEmpty()
+                ? repository.getResourceAccessRecords(userId, userRoles, Collections.emptySet(), resourceId,
+                    resourceDefinition).getExplicitAccessRecords()
+                : loadedRecords.get(0).getExplicitAccessRecords();
+
+            return createResourceAccess(
+                explicitAccessRecords,
+                () -> getRoleAttributePermissions(roles, Collections.singleton(resourceDefinition))
+                    .get(resourceDefinition),
+                () -> getMaxSecurityClassificationHierarchy(roles),
+                securityClassificationsCache.get(attributeSecurityClassifications));
+        });
+    }
+
+    /**
+     * Creates access to resource based on explicit access records if there are any, otherwise falls back to role based
+     * access. Role based permissions and role security classification are looked up only when needed.
+     */
+    private ResourceAccess createResourceAccess(List<ExplicitAccessRecord> explicitAccessRecords,
+                                                Supplier<Map<JsonPointer, Set<Permission>>> roleAttributePermissions,
+                                                Supplier<Integer> maxSecurityClassificationHierarchy,
+                                                EffectiveSecurityClassifications
+                                                    attributeSecurityClassifications) {
 
         Map<JsonPointer, Set<Permission>> attributePermissions;
         AccessType accessType;
         Set<String> relationships = Collections.emptySet();
 
         if (explicitAccessRecords.isEmpty()) {
-            attributePermissions = getRoleAttributePermissions(userRoles, resource);
+            attributePermissions = roleAttributePermissions.get();
             accessType = ROLE_BASED;
         } else {
             attributePermissions = getExplicitAttributePermissions(explicitAccessRecords);
@@ -147,108 +550,138 @@ public class FilterResourceService {
             return null;
         }
 
-        JsonNode filteredJson;
+        FilterPlan filterPlan;
         Map<JsonPointer, Set<Permission>> visibleAttributePermissions;
         SecurityClassification userSecurityClassification = null;
 
         if (attributeSecurityClassifications == null) {
-            filteredJson = filterService.filterJson(resource.getData(), attributePermissions);
+            filterPlan = filterPlanCache.getFilterPlan(attributePermissions, null, null);
             visibleAttributePermissions = attributePermissions;
 
         } else {
-            Integer maxSecurityClassificationHierarchy = getMaxSecurityClassificationHierarchyForRoles(userRoles);
+            Integer maxRoleSecurityClassificationHierarchy = maxSecurityClassificationHierarchy.get();
             Set<SecurityClassification> visibleSecurityClassificationsForUser = SecurityClassifications
-                .getVisibleSecurityClassifications(maxSecurityClassificationHierarchy);
+                .getVisibleSecurityClassifications(maxRoleSecurityClassificationHierarchy);
 
-            userSecurityClassification = SecurityClassification.fromHierarchy(maxSecurityClassificationHierarchy);
-            filteredJson = filterService.filterJson(resource.getData(), attributePermissions,
-                attributeSecurityClassifications, visibleSecurityClassificationsForUser);
+            userSecurityClassification = SecurityClassification.fromHierarchy(maxRoleSecurityClassificationHierarchy);
+            filterPlan = filterPlanCache.getFilterPlan(
+                attributePermissions, attributeSecurityClassifications, visibleSecurityClassificationsForUser);
             visibleAttributePermissions = filterAttributePermissionsBySecurityClassification(
                 attributePermissions, attributeSecurityClassifications, visibleSecurityClassificationsForUser);
         }
 
+        return ResourceAccess.builder()
+            .accessType(accessType)
+            .permissions(visibleAttributePermissions)
+            .relationships(relationships)
+            .userSecurityClassification(userSecurityClassification)
+            .filterPlan(filterPlan)
+            .build();
+    }
+
+    @SuppressWarnings("PMD.UseObjectForClearerAPI") // Arguments mirror public API
+    private FilteredResourceEnvelope filterResource(String userId,
+                                                    Set<String> userRoles,
+                                                    String resourceId,
+                                                    ResourceDefinition resourceDefinition,
+                                                    JsonParser parser,
+                                                    OutputStream filteredData,
+                                                    Map<JsonPointer, SecurityClassification>
+                                                        attributeSecurityClassifications) throws IOException {
+
+        ResourceAccess resourceAccess = getResourceAccess(userId, userRoles, resourceId, resourceDefinition,
+            attributeSecurityClassifications);
+
+        if (resourceAccess == null) {
+            return null;
+        }
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(filteredData)) {
+            filterService.filterJson(parser, generator, resourceAccess.getFilterPlan());
+        }
+
+        return createFilteredResourceEnvelope(resourceId, resourceDefinition, null, resourceAccess);
+    }
+
+    private FilteredResourceEnvelope createFilteredResourceEnvelope(String resourceId,
+                                                                    ResourceDefinition resourceDefinition,
+                                                                    JsonNode filteredJson,
+                                                                    ResourceAccess resourceAccess) {
         return FilteredResourceEnvelope.builder()
             .resource(Resource.builder()
-                .id(resource.getId())
-                .definition(resource.getDefinition())
+                .id(resourceId)
+                .definition(resourceDefinition)
                 .data(filteredJson)
                 .build())
-            .userSecurityClassification(userSecurityClassification)
+            .userSecurityClassification(resourceAccess.getUserSecurityClassification())
             .access(AccessEnvelope.builder()
-                .permissions(visibleAttributePermissions)
-                .accessType(accessType)
+                .permissions(Permissions.copyOf(resourceAccess.getPermissions()))
+                .accessType(resourceAccess.getAccessType())
                 .build())
-            .relationships(relationships)
+            .relationships(resourceAccess.getRelationships())
             .build();
     }
 
+    private Map<String, Map<String, List<ExplicitAccessRecord>>> getExplicitAccessRecords(String userId,
+                                                                                        Set<String> userRoles,
+                                                                                        List<Resource> resources) {
+        String[] resourceIds = resources.stream().map(Resource::getId).distinct().toArray(String[]::new);
+        String[] resourceTypes = resources.stream().map(resource -> resource.getDefinition().getResourceType())
+            .distinct().toArray(String[]::new);
 
-    /**
-     * returns Access rights for given resource.
-     *
-     * @param resourceId   resourceId
-     * @param resourceName resourceName
-     * @param resourceType resourceType
-     * @return ResourceAccessorsEnvelope resourceAccessorsEnvelope
-     */
-    @AuditLog("returns access rights for given resource with resource id '{{resourceId}}' "
-        + "  resource name '{{resourceName}} and resource type '{{resourceType}}' : with result resource id "
-        + " {{result.resourceId}} and data {{result.explicitAccessors}}")
-    public ResourceAccessorsEnvelope returnResourceAccessors(@NotBlank String resourceId,
-                                                             @NotBlank String resourceName,
-                                                             @NotBlank String resourceType) {
+        return repository.getExplicitAccessForResources(userId, userRoles, resourceIds, resourceTypes).stream()
+            .collect(groupingBy(ExplicitAccessRecord::getResourceType, groupingBy(ExplicitAccessRecord::getResourceId)));
+    }
 
-        List<ExplicitAccessRecord> explicitAccessRecords = jdbi.withExtension(AccessManagementRepository.class,
-            dao -> dao.getExplicitAccessForResource(resourceId, resourceName, resourceType, USER));
+    private List<ExplicitAccessRecord> findExplicitAccessRecords(
+        Map<String, Map<String, List<ExplicitAccessRecord>>> explicitAccessRecords, Resource resource) {
 
-        Map<String, List<ExplicitAccessRecord>> explicitAccessRecordsByAccessorId = explicitAccessRecords.stream()
-            .collect(groupingBy(ExplicitAccessRecord::getAccessorId));
-
-        List<ResourceAccessor> resourceAccessors = new ArrayList<>();
+        return explicitAccessRecords
+            .getOrDefault(resource.getDefinition().getResourceType(), Collections.emptyMap())
+            .getOrDefault(resource.getId(), Collections.emptyList());
+    }
 
-        explicitAccessRecordsByAccessorId.forEach((accessorId, accessorExplicitAccessRecords) -> {
-            Map<JsonPointer, Set<Permission>> permissions =
-                getExplicitAttributePermissions(accessorExplicitAccessRecords);
-            Set<String> relationships = getRelationshipsFromExplicitAccessRecords(accessorExplicitAccessRecords);
-            resourceAccessors.add(ResourceAccessor.builder()
-                .accessorId(accessorId)
-                .accessorType(USER)
-                .relationships(relationships)
-                .permissions(permissions)
-                .build());
-        });
+    private Set<Role> getRoles(Set<String> userRoles) {
+        return getRoles(userRoles, Stream.of(EXPLICIT, ROLE_BASED).collect(toSet()));
+    }
 
-        return ResourceAccessorsEnvelope.builder()
-            .explicitAccessors(resourceAccessors)
-            .resourceId(resourceId)
-            .build();
+    private Set<Role> getRoles(Set<String> userRoles, Set<AccessType> accessTypes) {
+        return roleCache.getRoles(userRoles, accessTypes, roleNames ->
+            repository.getRoles(roleNames, EnumSet.allOf(AccessType.class)));
     }
 
-    private Integer getMaxSecurityClassificationHierarchyForRoles(@NotEmpty Set<String> userRoles) {
-        return jdbi.withExtension(AccessManagementRepository.class, dao ->
-            dao.getRoles(userRoles, Stream.of(EXPLICIT, ROLE_BASED).collect(toSet())).stream()
-                .mapToInt(role -> role.getSecurityClassification().getHierarchy())
-                .max()
-                .orElseThrow(NoSuchElementException::new));
+    private Integer getMaxSecurityClassificationHierarchy(Set<Role> roles) {
+        return roles.stream()
+            .mapToInt(role -> role.getSecurityClassification().getHierarchy())
+            .max()
+            .orElseThrow(NoSuchElementException::new);
     }
 
+    /**
+     * Returns default permissions of all role based roles merged per resource definition.
+     */
+    private Map<ResourceDefinition, Map<JsonPointer, Set<Permission>>> getRoleAttributePermissions(
+        Set<Role> roles, Set<ResourceDefinition> resourceDefinitions) {
 
-    private List<ExplicitAccessRecord> getExplicitAccessRecords(String userId,
-                                                                @NotEmpty Set<String> userRoles,
-                                                                Resource resource) {
-        return jdbi.withExtension(AccessManagementRepository.class,
-            dao -> dao.getExplicitAccess(userId, userRoles, resource.getId(),
-                resource.getDefinition().getResourceType()));
-    }
+        Set<String> roleNames = roles.stream()
+            .filter(role -> role.getAccessType() == ROLE_BASED)
+            .map(Role::getRoleName)
+            .collect(toSet());
 
-    private Map<JsonPointer, Set<Permission>> getRoleAttributePermissions(Set<String> userRoles,
-                                                                          Resource resource) {
-        Set<String> filteredRoles = filterRolesWithExplicitAccessType(userRoles);
-        Map<JsonPointer, Set<Permission>> attributePermissions = null;
-        if (!filteredRoles.isEmpty()) {
-            attributePermissions = getPermissionsToResourceForRoles(resource.getDefinition(), filteredRoles);
+        Map<ResourceDefinition, Map<JsonPointer, Set<Permission>>> roleAttributePermissions = new ConcurrentHashMap<>();
+        if (roleNames.isEmpty() || resourceDefinitions.isEmpty()) {
+            return roleAttributePermissions;
         }
-        return attributePermissions;
+
+        resourceDefinitions.forEach(resourceDefinition -> {
+            Map<JsonPointer, Set<Permission>> attributePermissions =
+                getPermissionsToResourceForRoles(resourceDefinition, roleNames);
+            if (attributePermissions != null) {
+                roleAttributePermissions.put(resourceDefinition, attributePermissions);
+            }
+        });
+
+        return roleAttributePermissions;
     }
 
     private Map<JsonPointer, Set<Permission>> getExplicitAttributePermissions(
@@ -277,50 +710,41 @@ public class FilterResourceService {
             .collect(toSet());
     }
 
-    private Set<String> filterRolesWithExplicitAccessType(Set<String> userRoles) {
-        return jdbi.withExtension(AccessManagementRepository.class,
-            dao -> dao.getRoles(userRoles, Collections.singleton(ROLE_BASED)).stream()
-                .map(Role::getRoleName)
-                .collect(toSet()));
-    }
-
+    /**
+     * Returns default permissions of roles merged together. Merged permissions are cached until default permissions
+     * of resource definition change, otherwise permissions of all roles are loaded with a single query.
+     */
     private Map<JsonPointer, Set<Permission>> getPermissionsToResourceForRoles(ResourceDefinition resourceDefinition,
                                                                                Set<String> userRoles) {
-        List<Map<JsonPointer, Set<Permission>>> permissionsForRoles =
-            jdbi.withExtension(AccessManagementRepository.class, dao -> userRoles.stream()
-                .map(role -> dao.getRolePermissions(resourceDefinition, role))
-                .map(roleBasedAccessRecords -> roleBasedAccessRecords.stream()
-                    .collect(getMapCollector()))
-                .collect(toList()));
-
-        if (permissionsForRoles.stream().allMatch(Map::isEmpty)) {
+        return defaultPermissionsCache.getPermissions(resourceDefinition, userRoles, () ->
+            mergeRolePermissions(userRoles, repository.getRolePermissionsForRoles(resourceDefinition, userRoles)));
+    }
+
+    private Map<JsonPointer, Set<Permission>> mergeRolePermissions(Set<String> roleNames,
+                                                                   List<RoleBasedAccessRecord> roleBasedAccessRecords) {
+        if (roleNames.isEmpty() || roleBasedAccessRecords.isEmpty()) {
             return null;
         }
 
-        return permissionsService.merge(permissionsForRoles);
+        Map<String, List<RoleBasedAccessRecord>> recordsByRole = roleBasedAccessRecords.stream()
+            .collect(groupingBy(RoleBasedAccessRecord::getRoleName));
+
+        return permissionsService.merge(roleNames.stream()
+            .map(role -> recordsByRole.getOrDefault(role, Collections.emptyList()).stream()
+                .collect(getMapCollector()))
+            .collect(toList()));
     }
 
     private Map<JsonPointer, Set<Permission>> filterAttributePermissionsBySecurityClassification(
-        Map<JsonPointer, Set<Permission>> attributePermissions, Map<JsonPointer, SecurityClassification>
+        Map<JsonPointer, Set<Permission>> attributePermissions, EffectiveSecurityClassifications
         attributeSecurityClassifications, Set<SecurityClassification> userSecurityClassifications) {
 
         Map<JsonPointer, Set<Permission>> visibleAttributePermissions = new ConcurrentHashMap<>();
 
         attributePermissions.forEach((attribute, permissions) -> {
+            // security classification of attribute, inherited from parent if attribute has none
             SecurityClassification attributeSecurityClassification = attributeSecurityClassifications.get(attribute);
 
-            // if no security classification, inherit from parent
-            if (attributeSecurityClassification == null) {
-                JsonPointer parentAttribute = attribute.head();
-                while (attributeSecurityClassifications.get(parentAttribute) == null) {
-                    parentAttribute = parentAttribute.head();
-                    if (parentAttribute.toString().isEmpty()) {
-                        break;
-                    }
-                }
-                attributeSecurityClassification = attributeSecurityClassifications.get(parentAttribute);
-            }
-
             // if sufficient security classification, add to map of visible attributes
             if (userSecurityClassifications.contains(attributeSecurityClassification)) {
                 visibleAttributePermissions.put(attribute, permissions);
@@ -332,4 +756,30 @@ public class FilterResourceService {
     private Collector<AttributeAccessDefinition, ?, Map<JsonPointer, Set<Permission>>> getMapCollector() {
         return toMap(AttributeAccessDefinition::getAttribute, AttributeAccessDefinition::getPermissions);
     }
+
+    private static Method getFilterResourceMethod() {
+        try {
+            return FilterResourceService.class.getMethod("filterResource",
+                String.class, Set.class, Resource.class, Map.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Audited service method does not exist", e);
+        }
+    }
+
+    @Override
+    public AmLibConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes pool of connections created by constructors taking database URL. Context shared by services created with
+     * data source is closed once all of them are closed. Data source or context passed to constructors belongs to the
+     * caller and is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsContext) {
+            context.release();
+        }
+    }
 }
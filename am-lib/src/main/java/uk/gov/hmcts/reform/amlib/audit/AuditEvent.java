@@ -0,0 +1,46 @@
+package uk.gov.hmcts.reform.amlib.audit;
+
+import lombok.Builder;
+import lombok.Data;
+import org.slf4j.helpers.MessageFormatter;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+
+import java.util.List;
+
+/**
+ * Audit of a single call to audited method, carrying values extracted for its {@link AuditLog} template rather than
+ * rendered message, so that message is only rendered by sinks that need it.
+ *
+ * <p>Extracted collections and maps larger than configured limit are replaced by {@link TruncatedCollection}.
+ */
+@Data
+@Builder
+@SuppressWarnings("PMD.ArrayIsStoredDirectly") // Arrays are created for each event and not shared
+public final class AuditEvent {
+    /**
+     * Audited method, formatted as <code>Type.method(..)</code>.
+     */
+    private final String method;
+    private final AuditLog.Severity severity;
+    /**
+     * Message template with <code>{}</code> placeholders for extracted values, as accepted by SLF4J.
+     */
+    private final String messagePattern;
+    /**
+     * Template expressions, such as <code>resource.id</code> or <code>mdc:caller</code>, in the order of values.
+     */
+    private final List<String> expressions;
+    private final Object[] values;
+    private final List<String> parameterNames;
+    private final Object[] arguments;
+    private final Object result;
+
+    /**
+     * Renders message by replacing placeholders in message pattern with extracted values.
+     *
+     * @return audit message
+     */
+    public String render() {
+        return MessageFormatter.arrayFormat(messagePattern, values).getMessage();
+    }
+}
@@ -0,0 +1,32 @@
+package uk.gov.hmcts.reform.amlib.audit;
+
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+
+/**
+ * Destination of audit events created for audited library methods.
+ *
+ * <p>Sinks are discovered with {@link java.util.ServiceLoader}, by listing implementation class names in
+ * <code>META-INF/services/uk.gov.hmcts.reform.amlib.audit.AuditSink</code>. Every discovered sink receives every
+ * event it is enabled for. When no sink is registered audit is logged by {@link Slf4jAuditSink}.
+ *
+ * <p>Events are written by the thread calling audited method, so sinks sending audit to remote stores should hand
+ * events over to their own threads.
+ */
+public interface AuditSink {
+
+    /**
+     * Whether events of given severity should be created and written to this sink. Events are not created at all
+     * when no sink is enabled.
+     *
+     * @param severity severity of audited method
+     * @return true if events of given severity are written
+     */
+    boolean isEnabled(AuditLog.Severity severity);
+
+    /**
+     * Writes audit event. Event is shared by all sinks and must not be modified.
+     *
+     * @param event audit event
+     */
+    void write(AuditEvent event);
+}
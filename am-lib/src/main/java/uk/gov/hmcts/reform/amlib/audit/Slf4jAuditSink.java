@@ -0,0 +1,49 @@
+package uk.gov.hmcts.reform.amlib.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import uk.gov.hmcts.reform.amlib.internal.aspects.AuditLog;
+
+/**
+ * Logs audit events with parameterised messages, so that messages are only rendered by appenders that write them.
+ * Audited method is available to log layouts under {@value #METHOD_MDC_KEY} MDC key while event is logged.
+ *
+ * <p>Events are logged with the same logger name and message as before audit sinks were introduced, so existing
+ * logging configuration still applies.
+ */
+@Slf4j(topic = "uk.gov.hmcts.reform.amlib.internal.aspects.AuditingAspect")
+public class Slf4jAuditSink implements AuditSink {
+
+    public static final String METHOD_MDC_KEY = "auditMethod";
+
+    @Override
+    public boolean isEnabled(AuditLog.Severity severity) {
+        switch (severity) {
+            case DEBUG:
+                return log.isDebugEnabled();
+            case INFO:
+                return log.isInfoEnabled();
+            default:
+                throw new IllegalArgumentException("Unsupported severity: " + severity);
+        }
+    }
+
+    @Override
+    public void write(AuditEvent event) {
+        MDC.put(METHOD_MDC_KEY, event.getMethod());
+        try {
+            switch (event.getSeverity()) {
+                case DEBUG:
+                    log.debug(event.getMessagePattern(), event.getValues());
+                    break;
+                case INFO:
+                    log.info(event.getMessagePattern(), event.getValues());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported severity: " + event.getSeverity());
+            }
+        } finally {
+            MDC.remove(METHOD_MDC_KEY);
+        }
+    }
+}
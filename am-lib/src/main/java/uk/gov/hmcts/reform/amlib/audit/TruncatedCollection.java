@@ -0,0 +1,74 @@
+package uk.gov.hmcts.reform.amlib.audit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audited collection or map that has more elements than audit is allowed to carry. Elements past the limit are
+ * neither copied nor rendered, only counted.
+ */
+public final class TruncatedCollection {
+    private final Collection<?> elements;
+    private final int limit;
+    private final String opening;
+    private final String closing;
+
+    private TruncatedCollection(Collection<?> elements, int limit, String opening, String closing) {
+        this.elements = elements;
+        this.limit = limit;
+        this.opening = opening;
+        this.closing = closing;
+    }
+
+    /**
+     * Truncates value if it is a collection or a map with more elements than given limit.
+     *
+     * @param value any value
+     * @param limit maximum number of elements
+     * @return truncated collection, or value unchanged if it does not need truncating
+     */
+    public static Object truncate(Object value, int limit) {
+        if (value instanceof Collection && ((Collection<?>) value).size() > limit) {
+            return new TruncatedCollection((Collection<?>) value, limit, "[", "]");
+        }
+        if (value instanceof Map && ((Map<?, ?>) value).size() > limit) {
+            return new TruncatedCollection(((Map<?, ?>) value).entrySet(), limit, "{", "}");
+        }
+        return value;
+    }
+
+    /**
+     * Returns elements up to the limit, with map entries for maps.
+     *
+     * @return first elements of collection
+     */
+    public List<Object> getElements() {
+        List<Object> firstElements = new ArrayList<>(limit);
+        Iterator<?> iterator = elements.iterator();
+        while (iterator.hasNext() && firstElements.size() < limit) {
+            firstElements.add(iterator.next());
+        }
+        return firstElements;
+    }
+
+    /**
+     * Returns size of the whole collection.
+     *
+     * @return number of elements including those left out
+     */
+    public int getSize() {
+        return elements.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(opening);
+        for (Object element : getElements()) {
+            builder.append(element).append(", ");
+        }
+        return builder.append("... ").append(getSize() - limit).append(" more").append(closing).toString();
+    }
+}
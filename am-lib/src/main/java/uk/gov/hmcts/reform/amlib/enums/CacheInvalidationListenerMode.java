@@ -0,0 +1,24 @@
+package uk.gov.hmcts.reform.amlib.enums;
+
+/**
+ * Decides which contexts listen to cache invalidation notifications of PostgreSQL database in a background thread.
+ * Contexts that do not listen see roles and default permissions changed through other contexts or on other nodes
+ * once cached entries expire.
+ */
+public enum CacheInvalidationListenerMode {
+    /**
+     * Only contexts created with database URL listen, on a dedicated connection opened outside of their pool.
+     * Contexts created with data source do not take a connection of that data source for the listener.
+     */
+    DEDICATED_CONNECTION,
+    /**
+     * Contexts created with data source listen as well, holding one connection of that data source until context is
+     * closed. Data source should allow one long-lived connection per context on top of the connections used by
+     * services, or be a data source which is not pooled.
+     */
+    ALL_CONTEXTS,
+    /**
+     * No context listens.
+     */
+    OFF
+}
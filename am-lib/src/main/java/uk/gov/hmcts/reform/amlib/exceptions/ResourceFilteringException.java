@@ -0,0 +1,12 @@
+package uk.gov.hmcts.reform.amlib.exceptions;
+
+/**
+ * Exception thrown when resource data could not be read or written while being filtered.
+ */
+public class ResourceFilteringException extends AccessManagementException {
+    private static final long serialVersionUID = 1L;
+
+    public ResourceFilteringException(Throwable ex) {
+        super("Resource data could not be filtered. Cause: " + ex, ex);
+    }
+}
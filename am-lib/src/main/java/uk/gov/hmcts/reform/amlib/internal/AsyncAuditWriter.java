@@ -0,0 +1,252 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessAuditEvent;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.repositories.AccessManagementRepository;
+import uk.gov.hmcts.reform.amlib.internal.utils.CallerTransactions;
+import uk.gov.hmcts.reform.amlib.models.AuditQueueMetrics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writes audit of explicit access grants in batches from a daemon thread, so that grants do not wait for audit.
+ *
+ * <p>Audit is queued in a bounded queue once grant is committed. Grants that joined Spring transaction of the caller,
+ * through data source such as {@code TransactionAwareDataSourceProxy}, are queued after that transaction commits and
+ * not at all if it rolls back. When the queue is full audit is written synchronously by the granting thread instead,
+ * so audit is never dropped because of load. Batches that cannot be
+ * written are retried until they succeed, and audit left in the queue is written when JVM shuts down. Audit still
+ * queued when JVM terminates abnormally is lost, which is why synchronous audit remains the default.
+ */
+@Slf4j
+@SuppressWarnings("PMD.DoNotUseThreads") // Library has no container managed threads to write with
+public final class AsyncAuditWriter implements Runnable {
+
+    private static final Map<Object, AsyncAuditWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+    private static final long MAXIMUM_RETRY_DELAY_MILLIS = 10_000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final Jdbi jdbi;
+    private final Object database;
+    private final BlockingQueue<ExplicitAccessAuditEvent> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final long flushIntervalMillis;
+
+    private final AtomicLong flushedRecords = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong synchronousWrites = new AtomicLong();
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // Value is written by writer thread and read by other threads
+    private volatile long lastFlushLatencyNanos;
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // Value is written by shutdown hook and read by writer thread
+    private volatile boolean running = true;
+
+    AsyncAuditWriter(Jdbi jdbi, int queueCapacity, int batchSize, Duration flushInterval) {
+        this(jdbi, null, queueCapacity, batchSize, flushInterval);
+    }
+
+    AsyncAuditWriter(Jdbi jdbi, Object database, int queueCapacity, int batchSize, Duration flushInterval) {
+        this.jdbi = jdbi;
+        this.database = database;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.flushIntervalMillis = flushInterval.toMillis();
+    }
+
+    /**
+     * Starts writer for services connected to given database unless it is already running. Writer is shared by all
+     * services connected to the database, so they all have to use the same queue settings.
+     *
+     * @param database object identifying database such as JDBC URL or data source; data source transactions of the
+     *                 caller are bound to
+     * @param jdbi     instance used to write audit
+     * @param config   configuration with queue settings
+     * @return writer shared by services connected to the database
+     * @throws IllegalArgumentException if writer of the database is already running with different queue settings
+     */
+    public static AsyncAuditWriter startForDatabase(Object database, Jdbi jdbi, AmLibConfig config) {
+        AsyncAuditWriter startedWriter = WRITERS.computeIfAbsent(database, key -> {
+            AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, database, config.getAuditQueueCapacity(),
+                config.getAuditBatchSize(), config.getAuditFlushInterval());
+
+            Thread thread = new Thread(writer, "am-async-audit-writer");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writer.stop(thread), "am-async-audit-shutdown"));
+            return writer;
+        });
+
+        if (!startedWriter.hasSettingsOf(config)) {
+            throw new IllegalArgumentException(String.format("Asynchronous audit of the database is already written "
+                    + "with queue capacity %d, batch size %d and flush interval %s by another service; services "
+                    + "connected to the same database must use the same asynchronous audit settings",
+                startedWriter.queueCapacity, startedWriter.batchSize, startedWriter.flushInterval));
+        }
+        return startedWriter;
+    }
+
+    /**
+     * Queues audit of granted records, or writes it straight away if the queue is full. If grant joined Spring
+     * transaction of the caller, audit is queued only once that transaction commits.
+     *
+     * @param accessManagementIds   ids of granted records in the same order as records
+     * @param explicitAccessRecords granted records
+     * @param callingServiceName    name of service that granted access
+     * @param changedBy             user that granted access
+     */
+    public void write(long[] accessManagementIds, List<ExplicitAccessRecord> explicitAccessRecords,
+                      String callingServiceName, String changedBy) {
+        LocalDateTime auditTimestamp = LocalDateTime.now(ZoneOffset.UTC);
+        List<ExplicitAccessAuditEvent> events = new ArrayList<>(explicitAccessRecords.size());
+        for (int i = 0; i < explicitAccessRecords.size(); i++) {
+            events.add(ExplicitAccessAuditEvent.builder()
+                .accessManagementId(accessManagementIds[i])
+                .record(explicitAccessRecords.get(i))
+                .callingServiceName(callingServiceName)
+                .changedBy(changedBy)
+                .auditTimestamp(auditTimestamp)
+                .build());
+        }
+
+        if (CallerTransactions.isActive(database)) {
+            CallerTransactions.runAfterCommit(() -> enqueue(events));
+        } else {
+            enqueue(events);
+        }
+    }
+
+    private void enqueue(List<ExplicitAccessAuditEvent> events) {
+        List<ExplicitAccessAuditEvent> rejectedEvents = new ArrayList<>();
+        events.forEach(event -> {
+            if (!queue.offer(event)) {
+                rejectedEvents.add(event);
+            }
+        });
+
+        if (!rejectedEvents.isEmpty()) {
+            insert(rejectedEvents);
+            synchronousWrites.addAndGet(rejectedEvents.size());
+        }
+    }
+
+    private boolean hasSettingsOf(AmLibConfig config) {
+        return queueCapacity == config.getAuditQueueCapacity()
+            && batchSize == config.getAuditBatchSize()
+            && flushInterval.equals(config.getAuditFlushInterval());
+    }
+
+    /**
+     * Returns current state of the queue and writer.
+     *
+     * @return audit queue metrics
+     */
+    public AuditQueueMetrics getMetrics() {
+        return AuditQueueMetrics.builder()
+            .queueDepth(queue.size())
+            .queueCapacity(queueCapacity)
+            .flushedRecords(flushedRecords.get())
+            .failedFlushes(failedFlushes.get())
+            .synchronousWrites(synchronousWrites.get())
+            .lastFlushLatency(Duration.ofNanos(lastFlushLatencyNanos))
+            .build();
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // Writer thread must survive any failure
+    public void run() {
+        List<ExplicitAccessAuditEvent> batch = new ArrayList<>(batchSize);
+        long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty() && !poll(batch)) {
+                    continue;
+                }
+                flush(batch);
+                batch.clear();
+                retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+            } catch (RuntimeException e) {
+                failedFlushes.incrementAndGet();
+                if (!running) {
+                    log.error("Audit of {} records could not be written before shutdown: {}", batch.size(), batch, e);
+                    batch.clear();
+                    continue;
+                }
+                log.warn("Audit writer failed, retrying in {} ms: {}", retryDelay, e.toString());
+                retryDelay = sleep(retryDelay);
+            }
+        }
+    }
+
+    private boolean poll(List<ExplicitAccessAuditEvent> batch) {
+        try {
+            ExplicitAccessAuditEvent event = running
+                ? queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS) : queue.poll();
+            if (event == null) {
+                return false;
+            }
+            batch.add(event);
+            queue.drainTo(batch, batchSize - 1);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return false;
+        }
+    }
+
+    private void flush(List<ExplicitAccessAuditEvent> batch) {
+        long startTime = System.nanoTime();
+        insert(batch);
+        lastFlushLatencyNanos = System.nanoTime() - startTime;
+        flushedRecords.addAndGet(batch.size());
+    }
+
+    private void insert(List<ExplicitAccessAuditEvent> events) {
+        List<ExplicitAccessRecord> explicitAccessRecords = events.stream()
+            .map(ExplicitAccessAuditEvent::getRecord)
+            .collect(toList());
+        jdbi.useExtension(AccessManagementRepository.class,
+            dao -> dao.grantAccessManagementForAudit(explicitAccessRecords, events));
+    }
+
+    void stop(Thread thread) {
+        running = false;
+        try {
+            thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Audit of {} records could not be written before shutdown: {}", queue.size(), queue);
+        }
+    }
+
+    private long sleep(long retryDelay) {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(retryDelay * 2, MAXIMUM_RETRY_DELAY_MILLIS);
+    }
+}
@@ -0,0 +1,189 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, least recently used cache with entries optionally expiring after configured time to live. Null values
+ * are cached as well, so that lookups of missing data do not hit the database either.
+ *
+ * <p>Values are loaded outside of the lock. Values loaded while any entry is invalidated might be stale, so they are
+ * returned to the caller but not cached.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public final class BoundedCache<K, V> {
+
+    private final Map<K, CacheEntry<V>> entries;
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates cache which entries do not expire.
+     *
+     * @param maximumSize maximum number of entries
+     */
+    public BoundedCache(int maximumSize) {
+        this(maximumSize, null, () -> 0L);
+    }
+
+    /**
+     * Creates cache which entries expire after given time to live.
+     *
+     * @param maximumSize maximum number of entries
+     * @param timeToLive  time after which loaded entry expires, or null if entries do not expire
+     * @param ticker      source of current time in nanoseconds
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Access ordered map is needed; access is synchronized
+    public BoundedCache(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        this.timeToLiveNanos = timeToLive == null ? Long.MAX_VALUE : timeToLive.toNanos();
+        this.ticker = ticker;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > maximumSize;
+            }
+        });
+    }
+
+    /**
+     * Returns cached value or loads a new one if value does not exist yet or has expired.
+     *
+     * @param key    key to look up
+     * @param loader function loading value of key, possibly null
+     * @return cached or loaded value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, loader, (lookupKey, value) -> lookupKey);
+    }
+
+    /**
+     * Returns cached value or loads a new one if value does not exist yet or has expired. Loaded value is cached under
+     * key returned by given function, so that caches keyed by data owned by the caller do not keep references to it.
+     *
+     * @param key      key to look up
+     * @param loader   function loading value of key, possibly null
+     * @param keyToPut function returning key equal to looked up key which loaded value is cached under
+     * @return cached or loaded value
+     */
+    public V get(K key,
+                 Function<? super K, ? extends V> loader,
+                 BiFunction<? super K, ? super V, ? extends K> keyToPut) {
+        long now = ticker.getAsLong();
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < timeToLiveNanos) {
+            return entry.value;
+        }
+
+        long loadedGeneration = generation.get();
+        V value = loader.apply(key);
+
+        synchronized (entries) {
+            if (generation.get() == loadedGeneration) {
+                entries.put(keyToPut.apply(key, value), new CacheEntry<>(value, now));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns cached values of given keys. Keys which values do not exist yet or have expired are loaded with a
+     * single call to the loader; keys missing from loaded map are cached with null value.
+     *
+     * @param keys   keys to look up
+     * @param loader function loading values of given keys
+     * @return map of non null values per key
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Maps are local to the call
+    public Map<K, V> getAll(Set<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        long now = ticker.getAsLong();
+
+        Map<K, V> values = new HashMap<>();
+        Set<K> missingKeys = new HashSet<>();
+        keys.forEach(key -> {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry == null || now - entry.loadedAt >= timeToLiveNanos) {
+                missingKeys.add(key);
+            } else if (entry.value != null) {
+                values.put(key, entry.value);
+            }
+        });
+
+        if (!missingKeys.isEmpty()) {
+            long loadedGeneration = generation.get();
+            Map<K, V> loadedValues = loader.apply(missingKeys);
+            loadedValues.forEach((key, value) -> {
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+
+            synchronized (entries) {
+                if (generation.get() == loadedGeneration) {
+                    missingKeys.forEach(key -> entries.put(key, new CacheEntry<>(loadedValues.get(key), now)));
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Removes cached value so that it is loaded again on next lookup.
+     *
+     * @param key key which value has been changed
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes cached values of all keys matching given predicate.
+     *
+     * @param predicate predicate selecting keys which values have been changed
+     */
+    public void invalidateIf(Predicate<? super K> predicate) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.keySet().removeIf(predicate);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private CacheEntry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import uk.gov.hmcts.reform.amlib.internal.models.CacheInvalidation;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+
+/**
+ * Listens to cache invalidation notifications published by import service with PostgreSQL NOTIFY, possibly from
+ * other nodes or other contexts, and evicts matching entries from caches shared by services built from one context.
+ *
+ * <p>Listener runs in a daemon thread and holds one database connection until it is stopped, and stops listening on
+ * the connection before releasing it. Whenever connection is (re)established all cached data is invalidated, as
+ * notifications sent in the meantime are lost. Listener stops by itself if database is not PostgreSQL, leaving cached
+ * data to expire after its time to live.
+ */
+@Slf4j
+@SuppressWarnings("PMD.DoNotUseThreads") // Library has no container managed threads to listen with
+public final class CacheInvalidationListener implements Runnable {
+
+    public static final String CHANNEL = "am_cache_invalidation";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long STOP_TIMEOUT_MILLIS = 2L * POLL_TIMEOUT_MILLIS;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAXIMUM_RETRY_DELAY_MILLIS = 60_000;
+
+    private final Jdbi jdbi;
+    private final RoleCache roleCache;
+    private final DefaultPermissionsCache defaultPermissionsCache;
+    private Thread thread;
+
+    CacheInvalidationListener(Jdbi jdbi, RoleCache roleCache, DefaultPermissionsCache defaultPermissionsCache) {
+        this.jdbi = jdbi;
+        this.roleCache = roleCache;
+        this.defaultPermissionsCache = defaultPermissionsCache;
+    }
+
+    /**
+     * Starts listener evicting entries from given caches.
+     *
+     * @param jdbi                    instance used to open listening connection
+     * @param roleCache               cache of roles to evict entries from
+     * @param defaultPermissionsCache cache of default permissions to evict entries from
+     * @return running listener
+     */
+    public static CacheInvalidationListener start(Jdbi jdbi,
+                                                  RoleCache roleCache,
+                                                  DefaultPermissionsCache defaultPermissionsCache) {
+        CacheInvalidationListener listener = new CacheInvalidationListener(jdbi, roleCache, defaultPermissionsCache);
+
+        listener.thread = new Thread(listener, "am-cache-invalidation-listener");
+        listener.thread.setDaemon(true);
+        listener.thread.start();
+        return listener;
+    }
+
+    /**
+     * Interrupts listener and waits until it releases its database connection. Pending poll for notifications is
+     * completed first, so stopping takes at most about a second.
+     */
+    public void stop() {
+        thread.interrupt();
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Serializes cache invalidation into notification payload.
+     *
+     * @param cacheInvalidation cache invalidation to publish
+     * @return notification payload
+     */
+    public static String toPayload(CacheInvalidation cacheInvalidation) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(cacheInvalidation);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // Listener thread must survive any failure
+    public void run() {
+        long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Handle handle = jdbi.open()) {
+                if (!handle.getConnection().isWrapperFor(PGConnection.class)) {
+                    log.warn("Database is not PostgreSQL, cache invalidation notifications will not be received");
+                    return;
+                }
+
+                try {
+                    handle.execute("listen " + CHANNEL);
+                    PGConnection connection = handle.getConnection().unwrap(PGConnection.class);
+                    log.debug("Listening to cache invalidation notifications");
+
+                    invalidateAll();
+                    retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+
+                    listen(connection);
+                } finally {
+                    unlisten(handle);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Cache invalidation listener failed, retrying in {} ms: {}", retryDelay, e.toString());
+                invalidateAll();
+                retryDelay = sleep(retryDelay);
+            }
+        }
+    }
+
+    private void listen(PGConnection connection) throws SQLException {
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] notifications = connection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops listening before connection is released, so that connection returned to a pool does not keep receiving
+     * notifications. Failure is only logged, as connection that cannot execute statements is discarded anyway.
+     */
+    private static void unlisten(Handle handle) {
+        try {
+            handle.execute("unlisten *");
+        } catch (RuntimeException e) {
+            log.debug("Could not stop listening to cache invalidation notifications: {}", e.toString());
+        }
+    }
+
+    /**
+     * Evicts cache entries described by notification payload.
+     *
+     * @param payload notification payload created with {@link #toPayload(CacheInvalidation)}
+     */
+    void handle(String payload) {
+        CacheInvalidation cacheInvalidation;
+        try {
+            cacheInvalidation = OBJECT_MAPPER.readValue(payload, CacheInvalidation.class);
+        } catch (IOException e) {
+            log.warn("Unrecognised cache invalidation notification '{}', invalidating all cached data", payload, e);
+            invalidateAll();
+            return;
+        }
+
+        log.debug("Received cache invalidation notification: {}", cacheInvalidation);
+
+        if (cacheInvalidation.getRoleName() != null) {
+            roleCache.invalidate(cacheInvalidation.getRoleName());
+            return;
+        }
+
+        if (cacheInvalidation.getResourceName() != null) {
+            defaultPermissionsCache.invalidate(new ResourceDefinition(cacheInvalidation.getServiceName(),
+                cacheInvalidation.getResourceType(), cacheInvalidation.getResourceName()));
+            return;
+        }
+
+        if (cacheInvalidation.getResourceType() != null) {
+            defaultPermissionsCache.invalidate(cacheInvalidation.getServiceName(), cacheInvalidation.getResourceType());
+            return;
+        }
+
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        roleCache.invalidateAll();
+        defaultPermissionsCache.invalidateAll();
+    }
+
+    private long sleep(long retryDelay) {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Math.min(retryDelay * 2, MAXIMUM_RETRY_DELAY_MILLIS);
+    }
+}
@@ -0,0 +1,257 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of connections to database given by JDBC URL, used by services created with URL rather than data
+ * source so that queries do not open a new connection each.
+ *
+ * <p>Connections are opened when needed, up to configured pool size, and kept open once returned. Callers wait for
+ * a returned connection when all connections are in use, failing after configured timeout. Connection that has been
+ * idle for a while is validated before it is handed out again. Prepared statements are cached per connection by the
+ * PostgreSQL driver, which is what makes reusing connections worthwhile for repeated queries.
+ */
+@Slf4j
+public final class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final long VALIDATION_INTERVAL_MILLIS = 5000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final String url;
+    private final Properties properties = new Properties();
+    private final Semaphore permits;
+    private final long connectionTimeoutMillis;
+    private final Deque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // Value is written by closing thread and read by other threads
+    private volatile boolean closed;
+
+    /**
+     * Creates pool of connections to given database with pool settings taken from configuration. No connection is
+     * opened until one is requested.
+     *
+     * @param url      the url for the database
+     * @param username the username for the database
+     * @param password the password for the database
+     * @param config   configuration with pool settings
+     */
+    public ConnectionPool(String url, String username, String password, AmLibConfig config) {
+        this.url = url;
+        if (username != null) {
+            this.properties.setProperty("user", username);
+        }
+        if (password != null) {
+            this.properties.setProperty("password", password);
+        }
+        this.properties.setProperty("prepareThreshold", String.valueOf(config.getPrepareThreshold()));
+        this.properties.setProperty("preparedStatementCacheQueries",
+            String.valueOf(config.getPreparedStatementCacheQueries()));
+        this.permits = new Semaphore(config.getConnectionPoolSize(), true);
+        this.connectionTimeoutMillis = config.getConnectionTimeout().toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquirePermit();
+        try {
+            return wrap(takeConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + connectionTimeoutMillis + " ms waiting for connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        }
+    }
+
+    private Connection takeConnection() throws SQLException {
+        IdleConnection idleConnection = idleConnections.pollFirst();
+        while (idleConnection != null) {
+            if (System.currentTimeMillis() - idleConnection.idleSince < VALIDATION_INTERVAL_MILLIS
+                || idleConnection.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return idleConnection.connection;
+            }
+            closeQuietly(idleConnection.connection);
+            idleConnection = idleConnections.pollFirst();
+        }
+        return DriverManager.getConnection(url, properties);
+    }
+
+    @SuppressWarnings("PMD.UseProperClassLoader") // Connection interface is loaded by bootstrap class loader
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new PooledConnectionHandler(connection));
+    }
+
+    private void giveBack(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            connection.clearWarnings();
+            idleConnections.addFirst(new IdleConnection(connection));
+            if (closed) {
+                close();
+            }
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that could not be reset: {}", e.toString());
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections and prevents new connections from being handed out. Connections in use are closed
+     * when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection idleConnection = idleConnections.pollFirst();
+        while (idleConnection != null) {
+            closeQuietly(idleConnection.connection);
+            idleConnection = idleConnections.pollFirst();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close pooled connection", e);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connection pool uses credentials it was created with");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Pool logs with SLF4J
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // Pool waits for connections as long as configured connection timeout
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Pool logs with SLF4J");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new SQLException("Connection pool does not wrap " + type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) {
+        return type.isInstance(this);
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Returns connection to the pool when it is closed and rejects any use of it afterwards.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private boolean returned;
+
+        private PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.UseVarargs") // Signature is defined by InvocationHandler
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + connection;
+                default:
+                    return delegate(method, args);
+            }
+        }
+
+        @SuppressWarnings("PMD.UseVarargs") // Arguments are passed as array by InvocationHandler
+        private Object delegate(Method method, Object[] args) throws Throwable {
+            if (returned) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
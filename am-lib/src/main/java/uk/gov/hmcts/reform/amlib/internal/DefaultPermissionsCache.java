@@ -0,0 +1,109 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import lombok.EqualsAndHashCode;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Bounded, least recently used cache of default permissions merged across roles, keyed by resource definition and
+ * set of role names. Entries expire after configured time to live and are invalidated when default permissions of
+ * resource definition they belong to change.
+ *
+ * <p>Services built from the same context share a single cache.
+ */
+public class DefaultPermissionsCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private final BoundedCache<Key, Map<JsonPointer, Set<Permission>>> snapshots;
+
+    public DefaultPermissionsCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE, System::nanoTime);
+    }
+
+    DefaultPermissionsCache(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        this.snapshots = new BoundedCache<>(maximumSize, timeToLive, ticker);
+    }
+
+    /**
+     * Returns cached snapshot of merged default permissions or loads a new one if snapshot does not exist yet or has
+     * expired.
+     *
+     * @param resourceDefinition definition of resource permissions are defined for
+     * @param roleNames          names of roles which permissions are merged
+     * @param loader             function loading merged permissions, returning null if roles have no permissions
+     * @return immutable map of merged permissions per attribute or null if roles have no permissions
+     */
+    public Map<JsonPointer, Set<Permission>> getPermissions(ResourceDefinition resourceDefinition,
+                                                            Set<String> roleNames,
+                                                            Supplier<Map<JsonPointer, Set<Permission>>> loader) {
+        Key key = new Key(resourceDefinition.getServiceName(), resourceDefinition.getResourceType(),
+            resourceDefinition.getResourceName(), new TreeSet<>(roleNames));
+        return snapshots.get(key, missingKey -> toImmutableMap(loader.get()));
+    }
+
+    /**
+     * Removes snapshots of given resource definition.
+     *
+     * @param resourceDefinition definition of resource which default permissions have been changed
+     */
+    public void invalidate(ResourceDefinition resourceDefinition) {
+        snapshots.invalidateIf(key -> key.serviceName.equals(resourceDefinition.getServiceName())
+            && key.resourceType.equals(resourceDefinition.getResourceType())
+            && key.resourceName.equals(resourceDefinition.getResourceName()));
+    }
+
+    /**
+     * Removes snapshots of all resource definitions with given service name and resource type.
+     *
+     * @param serviceName  name of service which default permissions have been changed
+     * @param resourceType type of resource which default permissions have been changed
+     */
+    public void invalidate(String serviceName, String resourceType) {
+        snapshots.invalidateIf(key -> key.serviceName.equals(serviceName) && key.resourceType.equals(resourceType));
+    }
+
+    public void invalidateAll() {
+        snapshots.invalidateAll();
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    private static Map<JsonPointer, Set<Permission>> toImmutableMap(Map<JsonPointer, Set<Permission>> permissions) {
+        if (permissions == null) {
+            return null;
+        }
+
+        return Collections.unmodifiableMap(permissions.entrySet().stream()
+            .collect(toMap(Map.Entry::getKey, entry -> Collections.unmodifiableSet(entry.getValue()))));
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final String serviceName;
+        private final String resourceType;
+        private final String resourceName;
+        private final Set<String> roleNames;
+
+        private Key(String serviceName, String resourceType, String resourceName, Set<String> roleNames) {
+            this.serviceName = serviceName;
+            this.resourceType = resourceType;
+            this.resourceName = resourceName;
+            this.roleNames = roleNames;
+        }
+    }
+}
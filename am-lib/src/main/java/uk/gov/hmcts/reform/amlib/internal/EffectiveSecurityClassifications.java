@@ -0,0 +1,113 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of attribute security classifications with inheritance from parent attributes already applied.
+ * Classification of an attribute is looked up by walking its segments down a trie, so that the map of classifications
+ * is not queried once per ancestor of every attribute.
+ *
+ * <p>Indexes are equal when the maps they were resolved from are equal.
+ */
+public final class EffectiveSecurityClassifications {
+
+    private static final JsonPointer ROOT_ATTRIBUTE = JsonPointer.valueOf("");
+
+    private final Map<JsonPointer, SecurityClassification> attributeSecurityClassifications;
+    private final Node root;
+    private final int hash;
+
+    private EffectiveSecurityClassifications(Map<JsonPointer, SecurityClassification>
+                                                 attributeSecurityClassifications) {
+        this.attributeSecurityClassifications = Collections.unmodifiableMap(
+            new HashMap<>(attributeSecurityClassifications));
+        this.root = new Node();
+        this.hash = this.attributeSecurityClassifications.hashCode();
+
+        this.attributeSecurityClassifications.forEach((attribute, securityClassification) -> {
+            Node node = root;
+            for (JsonPointer segment = attribute; !segment.matches(); segment = segment.tail()) {
+                node = node.getOrAddChild(segment.getMatchingProperty());
+            }
+            node.securityClassification = securityClassification;
+        });
+        root.inherit(this.attributeSecurityClassifications.get(ROOT_ATTRIBUTE));
+    }
+
+    /**
+     * Resolves map of security classifications into index.
+     *
+     * @param attributeSecurityClassifications map of security classifications per attribute
+     * @return index of effective security classifications
+     */
+    public static EffectiveSecurityClassifications valueOf(Map<JsonPointer, SecurityClassification>
+                                                               attributeSecurityClassifications) {
+        return new EffectiveSecurityClassifications(attributeSecurityClassifications);
+    }
+
+    /**
+     * Returns security classification of attribute or, if attribute has none, of its closest ancestor that has one.
+     *
+     * @param attribute attribute to look up
+     * @return effective security classification or null if neither attribute nor root attribute has one
+     */
+    public SecurityClassification get(JsonPointer attribute) {
+        Node node = root;
+        for (JsonPointer segment = attribute; !segment.matches(); segment = segment.tail()) {
+            Node child = node.children.get(segment.getMatchingProperty());
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        return node.securityClassification;
+    }
+
+    /**
+     * Returns map of security classifications the index was resolved from.
+     *
+     * @return unmodifiable copy of map of security classifications per attribute
+     */
+    public Map<JsonPointer, SecurityClassification> getAttributeSecurityClassifications() {
+        return attributeSecurityClassifications;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof EffectiveSecurityClassifications
+            && attributeSecurityClassifications.equals(
+                ((EffectiveSecurityClassifications) other).attributeSecurityClassifications);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return attributeSecurityClassifications.toString();
+    }
+
+    private static final class Node {
+        @SuppressWarnings("PMD.UseConcurrentHashMap") // Children are modified only while index is being built
+        private final Map<String, Node> children = new HashMap<>();
+        private SecurityClassification securityClassification;
+
+        private Node getOrAddChild(String property) {
+            return children.computeIfAbsent(property, key -> new Node());
+        }
+
+        private void inherit(SecurityClassification parentSecurityClassification) {
+            if (securityClassification == null) {
+                securityClassification = parentSecurityClassification;
+            }
+            children.values().forEach(child -> child.inherit(securityClassification));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+
+import java.util.Map;
+
+/**
+ * Bounded, least recently used cache of effective security classifications keyed by maps of security classifications
+ * they were resolved from.
+ */
+public class EffectiveSecurityClassificationsCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 100;
+
+    private final BoundedCache<Map<JsonPointer, SecurityClassification>, EffectiveSecurityClassifications> indexes;
+
+    public EffectiveSecurityClassificationsCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public EffectiveSecurityClassificationsCache(int maximumSize) {
+        this.indexes = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Returns cached index or resolves and caches a new one if index of given map does not exist yet.
+     *
+     * @param attributeSecurityClassifications map of security classifications per attribute, can be null
+     * @return index of effective security classifications or null if map is null
+     */
+    public EffectiveSecurityClassifications get(Map<JsonPointer, SecurityClassification>
+                                                    attributeSecurityClassifications) {
+        if (attributeSecurityClassifications == null) {
+            return null;
+        }
+
+        // index holds its own copy of the map, so later modifications of caller's map do not affect cache
+        return indexes.get(attributeSecurityClassifications, EffectiveSecurityClassifications::valueOf,
+            (map, index) -> index.getAttributeSecurityClassifications());
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+
+    public void clear() {
+        indexes.invalidateAll();
+    }
+}
@@ -0,0 +1,353 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable and reusable filter compiled from lists of visible and hidden attributes.
+ *
+ * <p>Attributes are decomposed into a trie of field names where each node knows upfront which of its children have
+ * to be kept and which have to be dropped, and whether node should be partially retained. Applying plan to a resource
+ * is a single walk over the part of the resource described by the trie. Plan can be applied either to a tree or to
+ * a stream of tokens, in which case only permitted parts of the resource are written to the output.
+ */
+public final class FilterPlan {
+
+    private static final FilterPlan NOTHING_VISIBLE = new FilterPlan(null);
+
+    private final Node root;
+
+    private FilterPlan(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles filter plan out of visible (with READ access and sufficient security classification) and hidden
+     * attributes.
+     *
+     * @param visibleAttributes attributes that should be retained
+     * @param hiddenAttributes  attributes that should be removed unless any of their children is visible
+     * @return immutable filter plan
+     */
+    static FilterPlan compile(List<JsonPointer> visibleAttributes, List<JsonPointer> hiddenAttributes) {
+        if (visibleAttributes.isEmpty()) {
+            return NOTHING_VISIBLE;
+        }
+
+        MutableNode root = new MutableNode(JsonPointer.valueOf(""));
+        visibleAttributes.forEach(attribute -> root.findOrCreate(attribute).visible = true);
+        hiddenAttributes.forEach(attribute -> root.findOrCreate(attribute).hidden = true);
+
+        return new FilterPlan(root.toNode(false, root.visible));
+    }
+
+    /**
+     * Returns true if at least one attribute is visible, otherwise applying plan always results in null.
+     *
+     * @return true if plan makes any attribute visible
+     */
+    public boolean hasVisibleAttributes() {
+        return root != null;
+    }
+
+    /**
+     * Applies filter plan to a copy of a resource. Passed resource is never modified.
+     *
+     * @param resource resource to filter
+     * @return filtered copy of resource or null if no attribute is visible
+     */
+    public JsonNode apply(JsonNode resource) {
+        if (root == null) {
+            return null;
+        }
+
+        JsonNode resourceCopy = resource.deepCopy();
+        root.apply(resourceCopy, false);
+        return resourceCopy;
+    }
+
+    /**
+     * Applies filter plan to a stream of tokens without building a tree. Value parser points at, or the next one if
+     * parser has not been advanced yet, is filtered and written to generator. If no attribute is visible JSON null is
+     * written instead.
+     *
+     * @param parser    parser positioned before or at the beginning of the resource
+     * @param generator generator filtered resource is written to
+     * @throws IOException if resource could not be read or written
+     */
+    public void apply(JsonParser parser, JsonGenerator generator) throws IOException {
+        JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token == null) {
+            return;
+        }
+
+        if (root == null) {
+            parser.skipChildren();
+            generator.writeNull();
+            return;
+        }
+
+        Frame document = new Frame(null, null, false);
+        new StreamingFilter(parser, generator).writeValue(root, false, document, null, false);
+    }
+
+    private static final class Node {
+        private final String fieldName;
+        private final int index;
+        private final boolean hidden;
+        private final boolean visibleDescendants;
+        private final boolean retainOnlyVisibleDescendants;
+        private final Set<String> visibleChildren;
+        private final Set<String> hiddenChildren;
+        private final Map<String, Node> branches;
+
+        private Node(String fieldName, int index, boolean hidden, boolean visibleDescendants,
+                     boolean retainOnlyVisibleDescendants, Set<String> visibleChildren, Set<String> hiddenChildren,
+                     Map<String, Node> branches) {
+            this.fieldName = fieldName;
+            this.index = index;
+            this.hidden = hidden;
+            this.visibleDescendants = visibleDescendants;
+            this.retainOnlyVisibleDescendants = retainOnlyVisibleDescendants;
+            this.visibleChildren = visibleChildren;
+            this.hiddenChildren = hiddenChildren;
+            this.branches = branches;
+        }
+
+        /**
+         * Filters node in place.
+         *
+         * @param node              JSON node matching this trie node
+         * @param withinHiddenScope true if any ancestor is hidden object that has visible descendants
+         */
+        private void apply(JsonNode node, boolean withinHiddenScope) {
+            boolean hiddenScope = withinHiddenScope || hidden && visibleDescendants && node.isObject();
+
+            if (node.isObject()) {
+                ObjectNode objectNode = (ObjectNode) node;
+                if (retainOnlyVisibleDescendants || hiddenScope && visibleDescendants) {
+                    objectNode.retain(visibleChildren);
+                }
+                objectNode.remove(hiddenChildren);
+            }
+
+            for (Node branch : branches.values()) {
+                JsonNode child = branch.resolve(node);
+                if (child != null) {
+                    branch.apply(child, hiddenScope);
+                    branch.removeIfEmpty(node, child);
+                }
+            }
+        }
+
+        /**
+         * Removes object from its parent if none of its fields leading to visible descendants exist.
+         */
+        private void removeIfEmpty(JsonNode parent, JsonNode node) {
+            if (retainOnlyVisibleDescendants && node.isObject() && node.size() == 0 && parent.isObject()) {
+                ((ObjectNode) parent).remove(fieldName);
+            }
+        }
+
+        private JsonNode resolve(JsonNode parent) {
+            return parent.isArray() ? parent.get(index) : parent.get(fieldName);
+        }
+
+        private boolean isFieldVisible(String name, boolean hiddenScope) {
+            return !hiddenChildren.contains(name)
+                && (!retainOnlyVisibleDescendants && !(hiddenScope && visibleDescendants)
+                || visibleChildren.contains(name));
+        }
+
+        private Node findElementBranch(int elementIndex) {
+            Node branch = branches.get(String.valueOf(elementIndex));
+            return branch != null && branch.index == elementIndex ? branch : null;
+        }
+    }
+
+    /**
+     * Writes filtered tokens to generator. Objects that may have to be removed when they end up empty are opened
+     * lazily, only once first field is about to be written.
+     */
+    private static final class StreamingFilter {
+        private final JsonParser parser;
+        private final JsonGenerator generator;
+
+        private StreamingFilter(JsonParser parser, JsonGenerator generator) {
+            this.parser = parser;
+            this.generator = generator;
+        }
+
+        private void writeValue(Node node, boolean withinHiddenScope, Frame parent, String fieldName,
+                                boolean parentIsObject) throws IOException {
+            switch (parser.currentToken()) {
+                case START_OBJECT:
+                    Frame object = new Frame(parent, fieldName, false);
+                    writeFields(node, withinHiddenScope || node.hidden && node.visibleDescendants, object);
+                    if (object.opened || !(node.retainOnlyVisibleDescendants && parentIsObject)) {
+                        object.open(generator);
+                        generator.writeEndObject();
+                    }
+                    break;
+                case START_ARRAY:
+                    Frame array = new Frame(parent, fieldName, true);
+                    array.open(generator);
+                    writeElements(node, withinHiddenScope, array);
+                    generator.writeEndArray();
+                    break;
+                default:
+                    parent.open(generator);
+                    writeFieldName(fieldName);
+                    generator.copyCurrentEvent(parser);
+                    break;
+            }
+        }
+
+        private void writeFields(Node node, boolean hiddenScope, Frame object) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                boolean visible = node.isFieldVisible(name, hiddenScope);
+                Node branch = node.branches.get(name);
+                if (visible && branch == null) {
+                    object.open(generator);
+                    generator.writeFieldName(name);
+                    generator.copyCurrentStructure(parser);
+                } else if (visible) {
+                    writeValue(branch, hiddenScope, object, name, true);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void writeElements(Node node, boolean hiddenScope, Frame array) throws IOException {
+            int elementIndex = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                Node branch = node.findElementBranch(elementIndex++);
+                if (branch == null) {
+                    generator.copyCurrentStructure(parser);
+                } else {
+                    writeValue(branch, hiddenScope, array, null, false);
+                }
+            }
+        }
+
+        private void writeFieldName(String fieldName) throws IOException {
+            if (fieldName != null) {
+                generator.writeFieldName(fieldName);
+            }
+        }
+    }
+
+    /**
+     * Container that is being written. Container is opened once first value is written to it or to any of its
+     * descendants.
+     */
+    private static final class Frame {
+        private final Frame parent;
+        private final String fieldName;
+        private final boolean array;
+        private boolean opened;
+
+        private Frame(Frame parent, String fieldName, boolean array) {
+            this.parent = parent;
+            this.fieldName = fieldName;
+            this.array = array;
+        }
+
+        /**
+         * Writes start of container, preceded by starts of its unopened ancestors. Frame without parent represents
+         * document itself so nothing is written for it.
+         */
+        private void open(JsonGenerator generator) throws IOException {
+            if (opened || parent == null) {
+                return;
+            }
+
+            parent.open(generator);
+            if (fieldName != null) {
+                generator.writeFieldName(fieldName);
+            }
+            if (array) {
+                generator.writeStartArray();
+            } else {
+                generator.writeStartObject();
+            }
+            opened = true;
+        }
+    }
+
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Insertion ordered map is needed; instance is local as well
+    private static final class MutableNode {
+        private final JsonPointer segment;
+        private final Map<String, MutableNode> children = new LinkedHashMap<>();
+        private boolean visible;
+        private boolean hidden;
+
+        private MutableNode(JsonPointer segment) {
+            this.segment = segment;
+        }
+
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Objects cannot be created outside the loop
+        private MutableNode findOrCreate(JsonPointer attribute) {
+            MutableNode node = this;
+            for (JsonPointer pointer = attribute; !pointer.matches(); pointer = pointer.tail()) {
+                JsonPointer segment = pointer;
+                node = node.children.computeIfAbsent(segment.getMatchingProperty(),
+                    fieldName -> new MutableNode(segment));
+            }
+            return node;
+        }
+
+        /**
+         * Converts node to its immutable form.
+         *
+         * @param visibleAncestor true if any ancestor of the node is visible
+         * @param rootVisible     true if the whole resource is visible
+         * @return immutable node
+         */
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // Nodes are created once per compilation
+        private Node toNode(boolean visibleAncestor, boolean rootVisible) {
+            Set<String> visibleChildren = new HashSet<>();
+            Set<String> hiddenChildren = new HashSet<>();
+            Map<String, Node> branches = new LinkedHashMap<>();
+            boolean visibleDescendants = false;
+
+            for (MutableNode child : children.values()) {
+                Node childNode = child.toNode(visibleAncestor || visible, rootVisible);
+                String fieldName = child.segment.getMatchingProperty();
+
+                if (child.visible || childNode.visibleDescendants) {
+                    visibleChildren.add(fieldName);
+                    visibleDescendants = true;
+                } else if (child.hidden) {
+                    hiddenChildren.add(fieldName);
+                }
+
+                if (!child.children.isEmpty()) {
+                    branches.put(fieldName, childNode);
+                }
+            }
+
+            boolean retainOnlyVisibleDescendants = !rootVisible && !visibleAncestor && !visible && visibleDescendants;
+
+            return new Node(segment.getMatchingProperty(), segment.getMatchingIndex(), hidden, visibleDescendants,
+                retainOnlyVisibleDescendants, Collections.unmodifiableSet(visibleChildren),
+                Collections.unmodifiableSet(hiddenChildren), Collections.unmodifiableMap(branches));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import lombok.EqualsAndHashCode;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.models.PermissionMask;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded, least recently used cache of compiled filter plans keyed by merged attribute permissions and security
+ * classifications they were compiled from.
+ */
+public class FilterPlanCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private final FilterService filterService;
+    private final BoundedCache<Key, FilterPlan> filterPlans;
+
+    public FilterPlanCache(FilterService filterService) {
+        this(filterService, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public FilterPlanCache(FilterService filterService, int maximumSize) {
+        this.filterService = filterService;
+        this.filterPlans = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Returns cached filter plan or compiles and caches a new one if plan for given input does not exist yet.
+     *
+     * @param attributePermissions             map of permissions per attribute
+     * @param attributeSecurityClassifications index of effective security classifications, can be null
+     * @param userSecurityClassifications      security classifications visible to user, can be null
+     * @return immutable filter plan
+     */
+    public FilterPlan getFilterPlan(Map<JsonPointer, Set<Permission>> attributePermissions,
+                                    EffectiveSecurityClassifications attributeSecurityClassifications,
+                                    Set<SecurityClassification> userSecurityClassifications) {
+        Key key = new Key(attributePermissions, attributeSecurityClassifications, userSecurityClassifications);
+
+        return filterPlans.get(key, lookupKey -> filterService.compileFilterPlan(
+            attributePermissions, attributeSecurityClassifications, userSecurityClassifications),
+            (lookupKey, filterPlan) -> lookupKey.copy());
+    }
+
+    public int size() {
+        return filterPlans.size();
+    }
+
+    public void clear() {
+        filterPlans.invalidateAll();
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final Map<JsonPointer, Set<Permission>> attributePermissions;
+        private final EffectiveSecurityClassifications attributeSecurityClassifications;
+        private final Set<SecurityClassification> userSecurityClassifications;
+
+        private Key(Map<JsonPointer, Set<Permission>> attributePermissions,
+                    EffectiveSecurityClassifications attributeSecurityClassifications,
+                    Set<SecurityClassification> userSecurityClassifications) {
+            this.attributePermissions = attributePermissions;
+            this.attributeSecurityClassifications = attributeSecurityClassifications;
+            this.userSecurityClassifications = userSecurityClassifications;
+        }
+
+        /**
+         * Detaches key from maps owned by the caller so that later modifications of them do not affect cache.
+         */
+        @SuppressWarnings("PMD.UseConcurrentHashMap") // Copies are never modified
+        private Key copy() {
+            // Shared permission sets are immutable so copying them is not needed
+            Map<JsonPointer, Set<Permission>> attributePermissionsCopy = new HashMap<>();
+            attributePermissions.forEach((attribute, permissions) ->
+                attributePermissionsCopy.put(attribute, PermissionMask.valueOf(permissions).toSet()));
+
+            // Index of security classifications is immutable so copying it is not needed either
+            return new Key(attributePermissionsCopy, attributeSecurityClassifications,
+                userSecurityClassifications == null ? null : new HashSet<>(userSecurityClassifications));
+        }
+    }
+}
@@ -1,130 +1,145 @@
 package uk.gov.hmcts.reform.amlib.internal;
 
 import com.fasterxml.jackson.core.JsonPointer;
-import lombok.EqualsAndHashCode;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.internal.models.PermissionMask;
 
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-
-import static java.util.Collections.reverseOrder;
-import static java.util.Comparator.comparing;
 
 @Slf4j
 public class PermissionsService {
 
+    private static final int NO_PERMISSIONS = -1;
+    private static final Permission[] PERMISSIONS = Permission.values();
+
     /**
      * Merges permission maps together by combining permissions by attribute. If an attribute is not present in all
      * sources then attribute merge is completed by propagating parent permissions from remaining sources onto a child.
      *
+     * @implNote
+     * Attributes are put into a trie where each node holds permissions of sources defining that attribute. Trie is
+     * then walked depth first keeping permissions of the closest ancestor for each source, so merge takes time
+     * proportional to the number of attributes and permission entries rather than to attribute depth.
+     *
      * @param permissions list of permission maps representing for example permissions per user role
      * @return merged map of permissions per attribute
      */
     public Map<JsonPointer, Set<Permission>> merge(List<Map<JsonPointer, Set<Permission>>> permissions) {
         log.debug("Attempting to merge permission maps: {}", permissions);
 
-        Map<JsonPointer, Merge> mergedAttributePermissions = combinePermissionByAttribute(permissions);
-        propagateParentPermissionsToClosestChild(mergedAttributePermissions, permissions.size());
-        return mergedAttributePermissions.entrySet().stream()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                entry -> entry.getValue().getCombinedPermissions()
-            ));
+        Node root = new Node();
+        for (int i = 0; i < permissions.size(); i++) {
+            int sourceIndex = i;
+            permissions.get(sourceIndex).forEach((attribute, attributePermissions) ->
+                root.findOrCreate(attribute).add(sourceIndex, PermissionMask.valueOf(attributePermissions).toInt()));
+        }
+
+        Map<JsonPointer, Set<Permission>> mergedPermissions = new ConcurrentHashMap<>();
+        new Propagation(permissions.size(), mergedPermissions).visit(root);
+        return mergedPermissions;
     }
 
     /**
-     * Merges permission maps together by combining permissions by attribute.
-     *
-     * @implNote
-     * Map values not only represent combined permissions but also merge sources, represented as indexes
-     * of the input list, that is needed later to complete merge by propagating permission from nearest parent.
-     *
-     * @param permissions list of permission maps representing for example permissions per user role
-     * @return merged map of permissions per attribute sorted in reverse order by attribute name
+     * Trie node representing single attribute path segment. Attribute is set only for nodes that were present in at
+     * least one source, other nodes only connect them.
      */
     @SuppressWarnings({
-        "PMD.UseConcurrentHashMap", // TreeMap is used for a reason, concurrent map would not help
-        "PMD.AvoidInstantiatingObjectsInLoops" // There is no good way to achieve the same in functional style
+        "PMD.UseConcurrentHashMap", // Trie is used by single thread only
+        "PMD.AvoidInstantiatingObjectsInLoops" // Node has to be created for every new path segment
     })
-    private Map<JsonPointer, Merge> combinePermissionByAttribute(List<Map<JsonPointer, Set<Permission>>> permissions) {
-        Map<JsonPointer, Merge> mergedPermissions = new TreeMap<>(reverseOrder(comparing(Object::toString)));
-        for (int i = 0; i < permissions.size(); i++) {
-            int sourceIndex = i;
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private JsonPointer attribute;
+        private int[] sourceIndexes = new int[0];
+        private int[] masks = new int[0];
+        private int size;
+
+        private Node findOrCreate(JsonPointer attribute) {
+            Node node = this;
+            for (JsonPointer segment = attribute; !segment.matches(); segment = segment.tail()) {
+                node = node.children.computeIfAbsent(segment.getMatchingProperty(), property -> new Node());
+            }
+            if (node.attribute == null) {
+                node.attribute = attribute;
+            }
+            return node;
+        }
 
-            Map<JsonPointer, Set<Permission>> permissionsPerRole = permissions.get(sourceIndex);
-            permissionsPerRole.forEach((attribute, attributePermissionsPerRole) ->
-                mergedPermissions.computeIfAbsent(attribute, value -> new Merge())
-                    .permissions.put(sourceIndex, attributePermissionsPerRole));
+        private void add(int sourceIndex, int mask) {
+            if (size == sourceIndexes.length) {
+                sourceIndexes = Arrays.copyOf(sourceIndexes, size * 2 + 1);
+                masks = Arrays.copyOf(masks, size * 2 + 1);
+            }
+            sourceIndexes[size] = sourceIndex;
+            masks[size] = mask;
+            size++;
         }
-        return mergedPermissions;
     }
 
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts") // Refactoring would not help much in that case
-    private void propagateParentPermissionsToClosestChild(Map<JsonPointer, Merge> attributePermissions,
-                                                          int numberOfSources) {
-        log.debug("> Attempting to propagate permissions onto child in pre-merged map: {}", attributePermissions);
+    /**
+     * Depth first walk that keeps permissions of every source from the closest attribute defining them, together
+     * with number of sources granting each permission, so that merged permissions of a node are known immediately.
+     */
+    private static final class Propagation {
+        private final int[] closestMasks;
+        private final int[] grantCounts = new int[PERMISSIONS.length];
+        private final Map<JsonPointer, Set<Permission>> mergedPermissions;
+
+        private Propagation(int numberOfSources, Map<JsonPointer, Set<Permission>> mergedPermissions) {
+            this.closestMasks = new int[numberOfSources];
+            this.mergedPermissions = mergedPermissions;
+            Arrays.fill(closestMasks, NO_PERMISSIONS);
+        }
 
-        attributePermissions.forEach((attribute, attributeMerge) -> {
-            if (attributeMerge.permissions.size() != numberOfSources) {
-                log.debug(">> Attribute '{}' is not fully merged - it only has {} from {} sources", attribute,
-                    attributeMerge.getCombinedPermissions(), attributeMerge.getSourceIndexes());
+        private void visit(Node node) {
+            int[] ancestorMasks = new int[node.size];
+            for (int i = 0; i < node.size; i++) {
+                ancestorMasks[i] = replace(node.sourceIndexes[i], node.masks[i]);
+            }
 
-                JsonPointer head = attribute.head();
-                while (head != null) {
-                    if (attributePermissions.containsKey(head)) {
-                        Merge parentMerge = attributePermissions.get(head);
+            if (node.attribute != null) {
+                mergedPermissions.put(node.attribute, PermissionMask.valueOf(combinedMask()).toSet());
+            }
+            node.children.values().forEach(this::visit);
 
-                        Map<Integer, Set<Permission>> missingPermissions = findMissingPermissions(
-                            parentMerge.permissions, attributeMerge.getSourceIndexes());
+            for (int i = node.size - 1; i >= 0; i--) {
+                replace(node.sourceIndexes[i], ancestorMasks[i]);
+            }
+        }
 
-                        if (!missingPermissions.isEmpty()) {
-                            log.debug(">>> Applying permissions {} from attribute '{}' to attribute '{}'",
-                                missingPermissions, head, attribute);
-                            attributePermissions.get(attribute).permissions.putAll(missingPermissions);
-                        }
-                    }
+        private int replace(int sourceIndex, int mask) {
+            int previousMask = closestMasks[sourceIndex];
+            count(previousMask, -1);
+            count(mask, 1);
+            closestMasks[sourceIndex] = mask;
+            return previousMask;
+        }
 
-                    head = head.head();
+        private void count(int mask, int delta) {
+            if (mask == NO_PERMISSIONS) {
+                return;
+            }
+            for (int i = 0; i < PERMISSIONS.length; i++) {
+                if (PERMISSIONS[i].isGranted(mask)) {
+                    grantCounts[i] += delta;
                 }
             }
-        });
-    }
-
-    /**
-     * Finds permissions from sources that are not blacklisted.
-     *
-     * @param permissions map between source index and their permissions
-     * @param blacklistedSourceIndexes set of blacklisted source indexes
-     * @return map of permissions from non blacklisted sources
-     */
-    private Map<Integer, Set<Permission>> findMissingPermissions(Map<Integer, Set<Permission>> permissions,
-                                                                 Set<Integer> blacklistedSourceIndexes) {
-        return permissions.entrySet().stream()
-            .filter(entry -> {
-                Integer sourceIndex = entry.getKey();
-                return !blacklistedSourceIndexes.contains(sourceIndex);
-            })
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    }
-
-    @EqualsAndHashCode
-    @ToString
-    private class Merge {
-        private final Map<Integer, Set<Permission>> permissions = new ConcurrentHashMap<>();
-
-        private Set<Integer> getSourceIndexes() {
-            return permissions.keySet();
         }
 
-        private Set<Permission> getCombinedPermissions() {
-            return permissions.values().stream().flatMap(Collection::stream).collect(Collectors.toSet());
+        private int combinedMask() {
+            int mask = 0;
+            for (int i = 0; i < PERMISSIONS.length; i++) {
+                if (grantCounts[i] > 0) {
+                    mask |= PERMISSIONS[i].getValue();
+                }
+            }
+            return mask;
         }
     }
 }
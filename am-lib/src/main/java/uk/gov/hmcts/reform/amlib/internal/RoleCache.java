@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import uk.gov.hmcts.reform.amlib.enums.AccessType;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Bounded, least recently used cache of roles with entries expiring after configured time to live.
+ *
+ * <p>Both existing and missing roles are cached so that lookups for role names unknown to access management do not
+ * hit the database either. Services built from the same context share a single cache so that writes made through
+ * the import service are visible to other services as soon as affected entries are invalidated.
+ */
+public class RoleCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private final BoundedCache<String, Role> roles;
+
+    public RoleCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE, System::nanoTime);
+    }
+
+    RoleCache(int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        this.roles = new BoundedCache<>(maximumSize, timeToLive, ticker);
+    }
+
+    /**
+     * Returns roles with given names and access types. Roles that are not cached yet or which entries have expired are
+     * loaded with a single call to the loader.
+     *
+     * @param roleNames   names of roles to return
+     * @param accessTypes access types roles must have to be returned
+     * @param loader      function returning roles of all access types for given role names
+     * @return set of roles found
+     */
+    public Set<Role> getRoles(Set<String> roleNames,
+                              Set<AccessType> accessTypes,
+                              Function<Set<String>, Set<Role>> loader) {
+        return roles.getAll(roleNames, missingRoleNames -> loader.apply(missingRoleNames).stream()
+            .collect(toMap(Role::getRoleName, Function.identity()))).values().stream()
+            .filter(role -> accessTypes.contains(role.getAccessType()))
+            .collect(toSet());
+    }
+
+    /**
+     * Removes cached role so that it is loaded again on next lookup.
+     *
+     * @param roleName name of role that has been changed
+     */
+    public void invalidate(String roleName) {
+        roles.invalidate(roleName);
+    }
+
+    public void invalidateAll() {
+        roles.invalidateAll();
+    }
+
+    public int size() {
+        return roles.size();
+    }
+}
@@ -1,192 +1,342 @@
 package uk.gov.hmcts.reform.amlib.internal.aspects;
 
-import lombok.EqualsAndHashCode;
-import lombok.ToString;
-import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.MDC;
-
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.audit.AuditEvent;
+import uk.gov.hmcts.reform.amlib.audit.AuditSink;
+import uk.gov.hmcts.reform.amlib.audit.Slf4jAuditSink;
+import uk.gov.hmcts.reform.amlib.audit.TruncatedCollection;
+import uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.ServiceLoader;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 import static java.lang.String.join;
-
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.AUDIT_COLLECTION_LIMIT;
+
+/**
+ * Creates audit events described by {@link AuditLog} templates and writes them to {@link AuditSink}s.
+ *
+ * <p>Template of each method is compiled once into a message pattern and expressions, and expression properties are
+ * read with method handles cached per class. Events carry extracted values rather than rendered message, so values
+ * are only converted to text by sinks that need it, and are not extracted at all when no sink is enabled.
+ */
 @Aspect
-@Slf4j
 public class AuditingAspect {
 
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^{}]+)}}");
+    private static final String MESSAGE_PREFIX = "[Access Management audit]: ";
+    private static final char ESCAPE_CHARACTER = '\\';
+
+    private final Map<Method, Template> cache = new ConcurrentHashMap<>();
+    private final List<AuditSink> sinks;
+    private final int collectionLimit;
+
+    /**
+     * Creates aspect writing to sinks registered with {@link ServiceLoader}, or to {@link Slf4jAuditSink} if none
+     * are registered. Collections are limited as configured by {@link AmLibConfig#getAuditCollectionLimit()} of
+     * audited service, or by <code>audit.collection.limit</code> property for services that are not configured.
+     */
+    public AuditingAspect() {
+        this(loadSinks(), Integer.parseInt(PropertyReader.getPropertyValue(AUDIT_COLLECTION_LIMIT)));
+    }
+
+    /**
+     * Creates aspect writing to given sinks.
+     *
+     * @param sinks           sinks audit events are written to
+     * @param collectionLimit maximum number of elements of extracted collections and maps carried by events of
+     *                        services that are not configured
+     */
+    public AuditingAspect(List<AuditSink> sinks, int collectionLimit) {
+        this.sinks = Collections.unmodifiableList(new ArrayList<>(sinks));
+        this.collectionLimit = collectionLimit;
+    }
 
-    private final Map<MethodSignature, Metadata> cache = new ConcurrentHashMap<>();
+    private static List<AuditSink> loadSinks() {
+        List<AuditSink> sinks = new ArrayList<>();
+        ServiceLoader.load(AuditSink.class).forEach(sinks::add);
+        if (sinks.isEmpty()) {
+            sinks.add(new Slf4jAuditSink());
+        }
+        return sinks;
+    }
 
     @AfterReturning(pointcut = "execution(@AuditLog public * uk.gov.hmcts.reform.amlib.*Service*.*(..))",
         returning = "result")
     public void after(JoinPoint joinPoint, Object result) {
         MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        AuditLog auditLog = methodSignature.getMethod().getAnnotation(AuditLog.class);
-
-        if (isEnabled(auditLog.severity())) {
-            Metadata metadata = cache.computeIfAbsent(methodSignature,
-                createMetadata(auditLog.value(), methodSignature.getParameterNames()));
-
-            String template = auditLog.value();
-            for (Metadata.Expression expression : metadata.expressions) {
-                Object value;
-
-                Object beanInstance;
-                if (Keyword.MDC.matches(expression.beanName)) {
-                    beanInstance = MDC.get(expression.beanName.substring(expression.beanName.indexOf(':') + 1));
-                } else if (Keyword.RESULT.matches(expression.beanName)) {
-                    beanInstance = result;
-                } else {
-                    beanInstance = joinPoint.getArgs()[expression.argumentPosition];
-                }
-                if (expression.beanProperties == null) {
-                    value = beanInstance;
-                } else {
-                    value = extractValue(beanInstance, expression.beanProperties);
+        Template template = cache.computeIfAbsent(methodSignature.getMethod(),
+            method -> Template.compile(methodSignature));
+
+        write(template, joinPoint.getTarget(), joinPoint.getArgs(), result);
+    }
+
+    /**
+     * Writes audit event described by {@link AuditLog} template of given method as if the method was called with
+     * given arguments and returned given result. Used by operations that perform audited operation many times, such
+     * as bulk filtering, so that each performed operation is audited without calling audited method itself.
+     *
+     * @param target service audited method belongs to
+     * @param method audited method
+     * @param args   arguments of audited method
+     * @param result result of audited method
+     */
+    public void audit(Object target, Method method, Object[] args, Object result) {
+        write(cache.computeIfAbsent(method, Template::compile), target, args, result);
+    }
+
+    private void write(Template template, Object target, Object[] args, Object result) {
+        AuditEvent event = null;
+        for (AuditSink sink : sinks) {
+            if (sink.isEnabled(template.severity)) {
+                if (event == null) {
+                    event = template.createEvent(args, result, getCollectionLimit(target));
                 }
+                sink.write(event);
+            }
+        }
+    }
 
-                template = template.replace(expression.template, Objects.toString(value));
+    private int getCollectionLimit(Object target) {
+        AmLibConfig config = target instanceof ConfiguredService ? ((ConfiguredService) target).getConfig() : null;
+        return config == null ? collectionLimit : config.getAuditCollectionLimit();
+    }
+
+    private enum Keyword {
+        MDC("mdc:"),
+        RESULT("result");
+
+        private String prefix;
+
+        Keyword(String prefix) {
+            this.prefix = prefix;
+        }
+
+        boolean matches(String value) {
+            return value.startsWith(prefix);
+        }
+
+        /**
+         * Returns keyword matching bean name, or null if bean name refers to method argument.
+         */
+        static Keyword forBeanName(String beanName) {
+            for (Keyword keyword : values()) {
+                if (keyword.matches(beanName)) {
+                    return keyword;
+                }
             }
-            log(auditLog.severity(), "[Access Management audit]: " + template);
+            return null;
         }
     }
 
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // New objects need to be created in while loop
-    private Function<MethodSignature, Metadata> createMetadata(String template, String... parameterNames) {
-        return method -> {
-            Matcher matcher = VARIABLE_PATTERN.matcher(template);
+    /**
+     * Compiled {@link AuditLog} template. Template with invalid expressions keeps the error so that it is reported
+     * every time event would be written, rather than when method is called with audit disabled.
+     */
+    private static final class Template {
+        private final String method;
+        private final AuditLog.Severity severity;
+        private final List<String> parameterNames;
+        private final List<String> expressionNames = new ArrayList<>();
+        private final List<String> unmodifiableExpressionNames = Collections.unmodifiableList(expressionNames);
+        private final List<Expression> expressions = new ArrayList<>();
+        private String messagePattern;
+        private String error;
+
+        private Template(String method, AuditLog auditLog, String... parameterNames) {
+            this.method = method;
+            this.severity = auditLog.severity();
+            this.parameterNames = parameterNames == null
+                ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(parameterNames));
+        }
+
+        private static Template compile(MethodSignature methodSignature) {
+            AuditLog auditLog = methodSignature.getMethod().getAnnotation(AuditLog.class);
+            return compile(new Template(methodSignature.toShortString(), auditLog,
+                methodSignature.getParameterNames()), auditLog.value());
+        }
 
-            Metadata instance = new Metadata();
+        /**
+         * Compiles template of method described the same way as by signature of join point.
+         */
+        private static Template compile(Method method) {
+            AuditLog auditLog = method.getAnnotation(AuditLog.class);
+            return compile(new Template(method.getDeclaringClass().getSimpleName() + "." + method.getName() + "(..)",
+                auditLog, Arrays.stream(method.getParameters()).map(Parameter::getName).toArray(String[]::new)),
+                auditLog.value());
+        }
+
+        @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // New expressions need to be created in while loop
+        private static Template compile(Template template, String value) {
+            StringBuilder pattern = new StringBuilder(MESSAGE_PREFIX);
+            Matcher matcher = VARIABLE_PATTERN.matcher(value);
+            int position = 0;
             while (matcher.find()) {
-                Metadata.Expression expression = new Metadata.Expression();
-                expression.template = matcher.group(0);
-                expression.value = matcher.group(1);
-
-                if (expression.value.contains(".")) {
-                    expression.beanName = extractBeanName(expression.value);
-                    expression.beanProperties = extractBeanProperties(expression.value);
-                } else {
-                    expression.beanName = expression.value;
+                appendLiteral(pattern, value.substring(position, matcher.start()));
+                if (pattern.charAt(pattern.length() - 1) == ESCAPE_CHARACTER) {
+                    pattern.append(ESCAPE_CHARACTER);
                 }
-
-                if (!Keyword.MDC.matches(expression.beanName) && !Keyword.RESULT.matches(expression.beanName)) {
-                    expression.argumentPosition = Arrays.asList(parameterNames).indexOf(expression.beanName);
-                    if (expression.argumentPosition < 0) {
-                        String msgTemplate = "Argument '%s' does not exist among method arguments '%s'";
-                        throw new InvalidTemplateExpressionException(format(msgTemplate, expression.beanName,
-                            join(", ", parameterNames)));
-                    }
+                pattern.append("{}");
+                position = matcher.end();
+
+                String expression = matcher.group(1);
+                String beanName = expression.contains(".") ? extractBeanName(expression) : expression;
+
+                Keyword keyword = Keyword.forBeanName(beanName);
+                int argumentPosition = keyword == null ? template.parameterNames.indexOf(beanName) : -1;
+                if (keyword == null && argumentPosition < 0) {
+                    template.error = format("Argument '%s' does not exist among method arguments '%s'",
+                        beanName, join(", ", template.parameterNames));
+                    return template;
                 }
 
-                instance.expressions.add(expression);
+                String beanProperties = expression.contains(".") ? extractBeanProperties(expression) : null;
+                template.expressionNames.add(expression);
+                template.expressions.add(new Expression(beanName, beanProperties, argumentPosition));
             }
-            return instance;
-        };
-    }
+            appendLiteral(pattern, value.substring(position));
+            template.messagePattern = pattern.toString();
+            return template;
+        }
 
-    private boolean isEnabled(AuditLog.Severity severity) {
-        switch (severity) {
-            case DEBUG:
-                return log.isDebugEnabled();
-            case INFO:
-                return log.isInfoEnabled();
-            default:
-                throw new AuditException("Unsupported severity: " + severity);
+        /**
+         * Appends literal text to message pattern, escaping anything SLF4J would treat as a placeholder.
+         * Backslash preceding expression is escaped by the caller.
+         */
+        private static void appendLiteral(StringBuilder pattern, String literal) {
+            pattern.append(literal.replace("{}", "\\{}"));
         }
-    }
 
-    private void log(AuditLog.Severity severity, String msg) {
-        switch (severity) {
-            case DEBUG:
-                log.debug(msg);
-                break;
-            case INFO:
-                log.info(msg);
-                break;
-            default:
-                throw new AuditException("Unsupported severity: " + severity);
+        /**
+         * Removes bean name from expression formatted as {@code <bean name>[.<property name>]+} leaving bean
+         * properties.
+         */
+        private static String extractBeanProperties(String expression) {
+            return expression.substring(expression.indexOf('.') + 1);
         }
-    }
 
-    /**
-     * Removes bean name from expression formatted as {@code <bean name>[.<property name>]+} leaving bean properties.
-     */
-    private String extractBeanProperties(String expression) {
-        return expression.substring(expression.indexOf('.') + 1);
-    }
+        /**
+         * Removes property names from expression formatted as {@code <bean name>[.<property name>]+} leaving bean
+         * name.
+         */
+        private static String extractBeanName(String expression) {
+            return expression.substring(0, expression.indexOf('.'));
+        }
 
-    /**
-     * Removes property names from expression formatted as {@code <bean name>[.<property name>]+} leaving bean name.
-     */
-    private String extractBeanName(String expression) {
-        return expression.substring(0, expression.indexOf('.'));
+        private AuditEvent createEvent(Object[] args, Object result, int collectionLimit) {
+            if (error != null) {
+                throw new InvalidTemplateExpressionException(error);
+            }
+
+            Object[] values = new Object[expressions.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = TruncatedCollection.truncate(expressions.get(i).extract(args, result), collectionLimit);
+            }
+
+            return AuditEvent.builder()
+                .method(method)
+                .severity(severity)
+                .messagePattern(messagePattern)
+                .expressions(unmodifiableExpressionNames)
+                .values(values)
+                .parameterNames(parameterNames)
+                .arguments(args)
+                .result(result)
+                .build();
+        }
     }
 
-    private Object extractValue(Object object, String path) {
-        if (object == null) {
-            return null;
+    private static final class Expression {
+        private final Keyword keyword;
+        private final String mdcKey;
+        private final int argumentPosition;
+        private final String beanProperties;
+        private final PropertyGetter[] getters;
+
+        private Expression(String beanName, String beanProperties, int argumentPosition) {
+            this.keyword = Keyword.forBeanName(beanName);
+            this.mdcKey = beanName.substring(beanName.indexOf(':') + 1);
+            this.argumentPosition = argumentPosition;
+            this.beanProperties = beanProperties;
+            this.getters = beanProperties == null ? new PropertyGetter[0]
+                : Arrays.stream(beanProperties.split("\\.")).map(PropertyGetter::new).toArray(PropertyGetter[]::new);
         }
 
-        Object result = object;
-        for (String fragment : path.split("\\.")) {
-            if (result == null) {
-                break;
+        private Object extract(Object[] args, Object result) {
+            Object bean;
+            if (keyword == Keyword.MDC) {
+                bean = MDC.get(mdcKey);
+            } else if (keyword == Keyword.RESULT) {
+                bean = result;
+            } else {
+                bean = args[argumentPosition];
             }
-            try {
-                Field field = result.getClass().getDeclaredField(fragment);
-                field.setAccessible(true);
-                result = field.get(result);
-            } catch (Exception e) {
-                String msgTemplate = "Cannot find fragment %s in expression %s against instance of %s";
-                throw new InvalidTemplateExpressionException(format(msgTemplate, fragment, path, object.getClass()), e);
+
+            Object value = bean;
+            for (int i = 0; i < getters.length && value != null; i++) {
+                value = getters[i].get(value, bean, beanProperties);
             }
+            return value;
         }
-
-        return result;
     }
 
-    private enum Keyword {
-        MDC("mdc:"),
-        RESULT("result");
+    /**
+     * Reads field of given name from instances of any class, with getter resolved once per class.
+     */
+    private static final class PropertyGetter extends ClassValue<MethodHandle> {
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
 
-        private String prefix;
+        private final String name;
 
-        Keyword(String prefix) {
-            this.prefix = prefix;
+        private PropertyGetter(String name) {
+            super();
+            this.name = name;
         }
 
-        boolean matches(String value) {
-            return value.startsWith(prefix);
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException") // Missing or inaccessible field is reported on use
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+                return null;
+            }
         }
-    }
-
-    @EqualsAndHashCode
-    @ToString
-    private static class Metadata {
-        private final List<Expression> expressions = new ArrayList<>();
 
-        @EqualsAndHashCode
-        @ToString
-        private static class Expression {
-            private String value;
-            private String template;
-            private String beanName;
-            private String beanProperties;
-            private Integer argumentPosition;
+        @SuppressWarnings("PMD.AvoidCatchingThrowable") // Method handles declare Throwable
+        private Object get(Object instance, Object bean, String beanProperties) {
+            MethodHandle getter = get(instance.getClass());
+            if (getter == null) {
+                String msgTemplate = "Cannot find fragment %s in expression %s against instance of %s";
+                throw new InvalidTemplateExpressionException(format(msgTemplate, name, beanProperties,
+                    bean.getClass()));
+            }
+            try {
+                return (Object) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw new AuditException("Cannot read fragment " + name + " of " + instance.getClass(), e);
+            }
         }
     }
 
@@ -196,10 +346,6 @@ public class AuditingAspect {
         private InvalidTemplateExpressionException(String message) {
             super(message);
         }
-
-        private InvalidTemplateExpressionException(String message, Throwable cause) {
-            super(message, cause);
-        }
     }
 
     static class AuditException extends RuntimeException {
@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.amlib.internal.aspects;
+
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+
+/**
+ * Service whose calls are advised according to configuration it was created with. Aspects fall back to library
+ * properties for services that are not configured.
+ */
+public interface ConfiguredService {
+
+    /**
+     * Returns configuration the service was created with.
+     *
+     * @return library configuration or null if service is not configured
+     */
+    AmLibConfig getConfig();
+}
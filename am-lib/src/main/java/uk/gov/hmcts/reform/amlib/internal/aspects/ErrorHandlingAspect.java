@@ -9,7 +9,9 @@ import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
 @Aspect
 public class ErrorHandlingAspect {
 
-    @Around("execution(public * uk.gov.hmcts.reform.amlib.*Service*.*(..))")
+    // configuration is read by aspects themselves, so reading it is not advised
+    @Around("execution(public * uk.gov.hmcts.reform.amlib.*Service*.*(..))"
+        + " && !execution(* uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService.getConfig())")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
         try {
             return joinPoint.proceed();
@@ -4,46 +4,152 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.hibernate.validator.HibernateValidator;
-import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader;
+import uk.gov.hmcts.reform.amlib.validation.BeanValidationStrategy;
+import uk.gov.hmcts.reform.amlib.validation.ValidationMode;
+import uk.gov.hmcts.reform.amlib.validation.ValidationStrategy;
 
 import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
-import java.util.Set;
-import javax.validation.ConstraintViolation;
-import javax.validation.Validation;
-import javax.validation.executable.ExecutableValidator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import static java.util.stream.Collectors.joining;
+import static uk.gov.hmcts.reform.amlib.internal.utils.PropertyReader.VALIDATION_MODE;
 
+/**
+ * Validates arguments of service calls with {@link ValidationStrategy}, for calls selected by {@link ValidationMode}.
+ */
 @Aspect
 public class ValidationAspect {
 
-    private final ExecutableValidator executableValidator = Validation.byProvider(HibernateValidator.class)
-        .configure()
-        .messageInterpolator(new ParameterMessageInterpolator())
-        .buildValidatorFactory()
-        .getValidator()
-        .forExecutables();
+    private static final ThreadLocal<Boolean> WITHIN_SERVICE_CALL = new ThreadLocal<>();
 
-    @Around("execution(public * uk.gov.hmcts.reform.amlib.*Service*.*(..))")
+    private final ValidationStrategy strategy;
+    private final ValidationMode mode;
+
+    /**
+     * Creates aspect validating with strategy registered with {@link ServiceLoader}, or with
+     * {@link BeanValidationStrategy} if none is registered. Calls are validated in mode configured by
+     * {@link AmLibConfig#getValidationMode()} of called service, or in mode taken from <code>validation.mode</code>
+     * property for services that are not configured.
+     */
+    public ValidationAspect() {
+        this(loadStrategy(),
+            ValidationMode.valueOf(PropertyReader.getPropertyValue(VALIDATION_MODE).toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Creates aspect validating with given strategy.
+     *
+     * @param strategy strategy arguments are validated with
+     * @param mode     mode selecting calls that are validated, for services that are not configured
+     */
+    public ValidationAspect(ValidationStrategy strategy, ValidationMode mode) {
+        this.strategy = strategy;
+        this.mode = mode;
+    }
+
+    private static ValidationStrategy loadStrategy() {
+        Iterator<ValidationStrategy> strategies = ServiceLoader.load(ValidationStrategy.class).iterator();
+        return strategies.hasNext() ? strategies.next() : new BeanValidationStrategy();
+    }
+
+    // configuration is read by aspects themselves, so reading it is not advised
+    @Around("execution(public * uk.gov.hmcts.reform.amlib.*Service*.*(..))"
+        + " && !execution(* uk.gov.hmcts.reform.amlib.internal.aspects.ConfiguredService.getConfig())")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
-        Set<ConstraintViolation<Object>> violations = validate(joinPoint);
+        switch (getMode(joinPoint.getTarget())) {
+            case OFF:
+                return joinPoint.proceed();
+            case FULL:
+                validate(joinPoint);
+                return joinPoint.proceed();
+            default:
+                return validateAtBoundary(joinPoint);
+        }
+    }
+
+    /**
+     * Wraps callback passed to service so that library calls made by the callback are validated as calls entering
+     * the library, even though callback is invoked within service call.
+     *
+     * @param callback callback passed to service by the caller
+     * @param <T>      type of values accepted by callback
+     * @return callback invoked outside of service call
+     */
+    public static <T> Consumer<T> outsideServiceCall(Consumer<T> callback) {
+        return value -> {
+            Boolean withinServiceCall = WITHIN_SERVICE_CALL.get();
+            WITHIN_SERVICE_CALL.remove();
+            try {
+                callback.accept(value);
+            } finally {
+                setWithinServiceCall(withinServiceCall);
+            }
+        };
+    }
 
-        if (!violations.isEmpty()) {
-            String messages = violations.stream().map(this::toMessage).collect(joining("; "));
-            throw new InvalidParameterException(messages);
+    /**
+     * Wraps operation which service runs on another thread on behalf of the current call, so that library calls made
+     * by the operation are treated as made within the current call and are not validated again. Must be called by the
+     * thread making the current call.
+     *
+     * @param operation operation run on another thread
+     * @param <T>       type of operation result
+     * @return operation invoked within the current service call
+     */
+    public static <T> Supplier<T> withinCurrentServiceCall(Supplier<T> operation) {
+        Boolean callerWithinServiceCall = WITHIN_SERVICE_CALL.get();
+        return () -> {
+            Boolean withinServiceCall = WITHIN_SERVICE_CALL.get();
+            setWithinServiceCall(callerWithinServiceCall);
+            try {
+                return operation.get();
+            } finally {
+                setWithinServiceCall(withinServiceCall);
+            }
+        };
+    }
+
+    private static void setWithinServiceCall(Boolean withinServiceCall) {
+        if (withinServiceCall == null) {
+            WITHIN_SERVICE_CALL.remove();
+        } else {
+            WITHIN_SERVICE_CALL.set(withinServiceCall);
         }
+    }
 
-        return joinPoint.proceed();
+    private ValidationMode getMode(Object target) {
+        AmLibConfig config = target instanceof ConfiguredService ? ((ConfiguredService) target).getConfig() : null;
+        return config == null ? mode : config.getValidationMode();
     }
 
-    private Set<ConstraintViolation<Object>> validate(ProceedingJoinPoint joinPoint) {
-        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-        return executableValidator.validateParameters(joinPoint.getTarget(), method, joinPoint.getArgs());
+    private Object validateAtBoundary(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (WITHIN_SERVICE_CALL.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        validate(joinPoint);
+
+        WITHIN_SERVICE_CALL.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WITHIN_SERVICE_CALL.remove();
+        }
     }
 
-    private String toMessage(ConstraintViolation<Object> violation) {
-        return violation.getPropertyPath() + " - " + violation.getMessage();
+    private void validate(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        List<String> messages = strategy.validate(joinPoint.getTarget(), method, joinPoint.getArgs());
+
+        if (!messages.isEmpty()) {
+            throw new InvalidParameterException(String.join("; ", messages));
+        }
     }
 }
@@ -0,0 +1,28 @@
+package uk.gov.hmcts.reform.amlib.internal.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Notification about change of cached data. Role name identifies changed role, service name, resource type and
+ * resource name identify changed default permissions. Resource name is missing when default permissions of all
+ * resources of given type changed. Notification without any field set invalidates all cached data.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonDeserialize(builder = CacheInvalidation.CacheInvalidationBuilder.class)
+public final class CacheInvalidation {
+    private final String roleName;
+    private final String serviceName;
+    private final String resourceType;
+    private final String resourceName;
+
+    @JsonPOJOBuilder(withPrefix = "")
+    public static class CacheInvalidationBuilder {
+        // Lombok will add constructor, setters, build method
+    }
+}
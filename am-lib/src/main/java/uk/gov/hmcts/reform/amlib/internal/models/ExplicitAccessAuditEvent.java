@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.amlib.internal.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit of a single explicit access record waiting to be written by asynchronous audit writer. Timestamp is taken
+ * when access is granted, not when audit is written.
+ */
+@Data
+@Builder
+public final class ExplicitAccessAuditEvent {
+    private final long accessManagementId;
+    private final ExplicitAccessRecord record;
+    private final String callingServiceName;
+    private final String changedBy;
+    private final LocalDateTime auditTimestamp;
+}
@@ -0,0 +1,112 @@
+package uk.gov.hmcts.reform.amlib.internal.models;
+
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Immutable set of permissions represented the same way as in the database, as a sum of permission values.
+ *
+ * <p>There are only 16 possible masks so all of them, together with their set representation, are created upfront
+ * and shared. Combining and checking masks does not allocate, sets are only needed at public API boundary.
+ */
+@SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops") // All masks are created once when class is loaded
+public final class PermissionMask {
+
+    public static final PermissionMask NONE;
+
+    private static final int ALL_PERMISSIONS = 0b1111;
+    private static final PermissionMask[] MASKS = new PermissionMask[ALL_PERMISSIONS + 1];
+
+    static {
+        for (int value = 0; value <= ALL_PERMISSIONS; value++) {
+            MASKS[value] = new PermissionMask(value);
+        }
+        NONE = MASKS[0];
+    }
+
+    private final int value;
+    private final Set<Permission> permissions;
+
+    private PermissionMask(int value) {
+        this.value = value;
+
+        EnumSet<Permission> permissions = EnumSet.noneOf(Permission.class);
+        for (Permission permission : Permission.values()) {
+            if (permission.isGranted(value)) {
+                permissions.add(permission);
+            }
+        }
+        this.permissions = Collections.unmodifiableSet(permissions);
+    }
+
+    /**
+     * Returns mask for given sum of permission values.
+     *
+     * @param value sum of permission values defined in {@link Permission} enum
+     * @return shared permission mask
+     * @throws IllegalArgumentException when value is not a valid sum of permissions
+     */
+    public static PermissionMask valueOf(int value) {
+        if (value < 0 || value > ALL_PERMISSIONS) {
+            throw new IllegalArgumentException("Invalid permission mask: " + value);
+        }
+        return MASKS[value];
+    }
+
+    /**
+     * Returns mask for given permissions.
+     *
+     * @param permissions set of permissions
+     * @return shared permission mask
+     */
+    public static PermissionMask valueOf(Set<Permission> permissions) {
+        int value = 0;
+        for (Permission permission : permissions) {
+            value |= permission.getValue();
+        }
+        return MASKS[value];
+    }
+
+    public PermissionMask union(PermissionMask other) {
+        return MASKS[value | other.value];
+    }
+
+    public boolean contains(Permission permission) {
+        return permission.isGranted(value);
+    }
+
+    public boolean isEmpty() {
+        return value == 0;
+    }
+
+    public int toInt() {
+        return value;
+    }
+
+    /**
+     * Returns permissions as an unmodifiable set shared by all users of this mask.
+     *
+     * @return unmodifiable set of permissions
+     */
+    public Set<Permission> toSet() {
+        return permissions;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return permissions.toString();
+    }
+}
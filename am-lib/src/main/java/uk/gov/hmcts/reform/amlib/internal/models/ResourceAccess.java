@@ -0,0 +1,22 @@
+package uk.gov.hmcts.reform.amlib.internal.models;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import lombok.Builder;
+import lombok.Data;
+import uk.gov.hmcts.reform.amlib.enums.AccessType;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.FilterPlan;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Builder
+public final class ResourceAccess {
+    private final AccessType accessType;
+    private final Map<JsonPointer, Set<Permission>> permissions;
+    private final Set<String> relationships;
+    private final SecurityClassification userSecurityClassification;
+    private final FilterPlan filterPlan;
+}
@@ -0,0 +1,19 @@
+package uk.gov.hmcts.reform.amlib.internal.models.query;
+
+import lombok.Builder;
+import lombok.Data;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explicit access records to a single resource together with user roles which were not cached yet.
+ */
+@Data
+@Builder
+public final class ResourceAccessRecords {
+    private final List<ExplicitAccessRecord> explicitAccessRecords;
+    private final Set<Role> roles;
+}
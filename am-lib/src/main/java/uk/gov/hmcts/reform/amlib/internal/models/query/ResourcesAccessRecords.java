@@ -0,0 +1,25 @@
+package uk.gov.hmcts.reform.amlib.internal.models.query;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import lombok.Builder;
+import lombok.Data;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything needed to resolve user access to many resources: explicit access records grouped by resource type and
+ * resource id, user roles and default permissions of role based roles merged per resource definition.
+ */
+@Data
+@Builder
+public final class ResourcesAccessRecords {
+    private final Map<String, Map<String, List<ExplicitAccessRecord>>> explicitAccessRecords;
+    private final Set<Role> roles;
+    private final Map<ResourceDefinition, Map<JsonPointer, Set<Permission>>> roleAttributePermissions;
+}
@@ -5,44 +5,56 @@ import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.jdbi.v3.sqlobject.statement.UseRowReducer;
 import uk.gov.hmcts.reform.amlib.enums.AccessType;
 import uk.gov.hmcts.reform.amlib.enums.AccessorType;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessAuditEvent;
 import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
 import uk.gov.hmcts.reform.amlib.internal.models.Role;
 import uk.gov.hmcts.reform.amlib.internal.models.RoleBasedAccessRecord;
 import uk.gov.hmcts.reform.amlib.internal.models.query.AttributeData;
+import uk.gov.hmcts.reform.amlib.internal.models.query.ResourceAccessRecords;
 import uk.gov.hmcts.reform.amlib.internal.repositories.mappers.JsonPointerMapper;
 import uk.gov.hmcts.reform.amlib.internal.repositories.mappers.PermissionSetMapper;
+import uk.gov.hmcts.reform.amlib.internal.repositories.mappers.ResourceAccessRecordsReducer;
 import uk.gov.hmcts.reform.amlib.models.ExplicitAccessMetadata;
 import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
 
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
-@SuppressWarnings("LineLength")
+@SuppressWarnings({"LineLength", "PMD.UseObjectForClearerAPI"})
 @RegisterColumnMapper(JsonPointerMapper.class)
 @RegisterColumnMapper(PermissionSetMapper.class)
 public interface AccessManagementRepository {
 
-    @SqlUpdate("insert into access_management (resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, last_update, calling_service_name) "
+    /**
+     * Number of rows fetched at once by streaming queries. Rows are fetched in chunks only within a transaction.
+     */
+    int STREAM_FETCH_SIZE = 1000;
+
+    @SqlBatch("insert into access_management (resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, last_update, calling_service_name) "
         + "values (:resourceId, :accessorId, :permissionsAsInt, cast(:accessorType as accessor_type), :serviceName, :resourceType, :resourceName, :attributeAsString, :relationship,"
         + " now() at time zone 'utc', :callingServiceName) "
         + "on conflict on constraint access_management_unique do update set permissions = :permissionsAsInt, "
         + "last_update = now() at time zone 'utc', calling_service_name = :callingServiceName")
     @GetGeneratedKeys("access_management_id")
-    long grantAccessManagementWithNotNullRelationship(@BindBean ExplicitAccessRecord explicitAccessRecord);
+    long[] grantAccessManagementWithNotNullRelationship(@BindBean List<ExplicitAccessRecord> explicitAccessRecords);
 
-    @SqlUpdate("insert into access_management (resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, last_update, calling_service_name) "
+    @SqlBatch("insert into access_management (resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, last_update, calling_service_name) "
         + "values (:resourceId, :accessorId, :permissionsAsInt, cast(:accessorType as accessor_type), :serviceName, :resourceType, :resourceName, :attributeAsString, :relationship,"
         + " now() at time zone 'utc', :callingServiceName) "
         + "on conflict (resource_id, accessor_id, accessor_type, attribute, resource_type, service_name, resource_name) where relationship is null do update set permissions = :permissionsAsInt, "
         + " last_update = now() at time zone 'utc', calling_service_name = :callingServiceName")
     @GetGeneratedKeys("access_management_id")
-    long grantAccessManagementWithNullRelationship(@BindBean ExplicitAccessRecord explicitAccessRecord);
+    long[] grantAccessManagementWithNullRelationship(@BindBean List<ExplicitAccessRecord> explicitAccessRecords);
 
     @SqlUpdate("delete from access_management where "
         + "access_management.resource_id = :resourceId "
@@ -52,21 +64,36 @@ public interface AccessManagementRepository {
         + "and (:serviceName is null or access_management.service_name = :serviceName) "
         + "and access_management.resource_type = :resourceType "
         + "and (:relationship is null or access_management.relationship = :relationship) "
-        + "and (access_management.attribute = :attributeAsString or access_management.attribute like concat(:attributeAsString, '/', '%'))")
+        + "and (access_management.attribute = :attributeAsString or access_management.attribute like :attributeAsString || '/%')")
     void removeAccessManagementRecord(@BindBean ExplicitAccessMetadata explicitAccessMetadata);
 
-    @SqlQuery("select * from access_management as am where "
+    @SqlQuery("with explicit_access as (select * from access_management as am where "
         + "resource_id = :resourceId "
         + "and resource_type = :resourceType "
         + "and ((accessor_type = 'USER' and accessor_id = :accessorId) "
         + "or (accessor_type = 'ROLE' and accessor_id in (<userRoles>) and exists (select role_name from roles as r where r.role_name = am.accessor_id and cast(role_type as text) = 'IDAM')) "
+        + "or (accessor_type = 'DEFAULT' and accessor_id = '*'))), "
+        + "user_roles as (select * from roles where role_name in (<roleNames>)) "
+        + "select 'EXPLICIT_ACCESS' as record_type, resource_id, accessor_id, cast(accessor_type as text) as accessor_type, service_name, resource_type, resource_name, attribute, permissions, relationship, "
+        + "null as role_type, null as security_classification, null as access_type from explicit_access "
+        + "union all "
+        + "select 'ROLE', null, role_name, null, null, null, null, null, null, null, cast(role_type as text), cast(security_classification as text), cast(access_type as text) from user_roles")
+    @UseRowReducer(ResourceAccessRecordsReducer.class)
+    ResourceAccessRecords getResourceAccessRecords(String accessorId, @BindList Set<String> userRoles, @BindList(onEmpty = BindList.EmptyHandling.NULL_STRING) Set<String> roleNames, String resourceId, @BindBean ResourceDefinition resourceDefinition);
+
+    @SqlQuery("select * from access_management as am where "
+        + "resource_id = any(:resourceIds) "
+        + "and resource_type = any(:resourceTypes) "
+        + "and ((accessor_type = 'USER' and accessor_id = :accessorId) "
+        + "or (accessor_type = 'ROLE' and accessor_id in (<userRoles>) and exists (select role_name from roles as r where r.role_name = am.accessor_id and cast(role_type as text) = 'IDAM')) "
         + "or (accessor_type = 'DEFAULT' and accessor_id = '*'))")
     @RegisterConstructorMapper(ExplicitAccessRecord.class)
-    List<ExplicitAccessRecord> getExplicitAccess(String accessorId, @BindList Set<String> userRoles, String resourceId, String resourceType);
+    @SuppressWarnings("PMD.UseVarargs") // Arrays are bound as SQL arrays, varargs would not make it clearer
+    List<ExplicitAccessRecord> getExplicitAccessForResources(String accessorId, @BindList Set<String> userRoles, String[] resourceIds, String[] resourceTypes);
 
-    @SqlQuery("select * from default_permissions_for_roles where service_name = :serviceName and resource_type = :resourceType and resource_name = :resourceName and role_name = :roleName")
+    @SqlQuery("select * from default_permissions_for_roles where service_name = :serviceName and resource_type = :resourceType and resource_name = :resourceName and role_name in (<roleNames>)")
     @RegisterConstructorMapper(RoleBasedAccessRecord.class)
-    List<RoleBasedAccessRecord> getRolePermissions(@BindBean ResourceDefinition resourceDefinition, String roleName);
+    List<RoleBasedAccessRecord> getRolePermissionsForRoles(@BindBean ResourceDefinition resourceDefinition, @BindList Set<String> roleNames);
 
     @SqlQuery("select distinct d.attribute, d.permissions, ra.default_security_classification from default_permissions_for_roles d"
         + " join resource_attributes ra on d.service_name = ra.service_name and d.resource_type = ra.resource_type and d.resource_name = ra.resource_name and d.attribute = ra.attribute"
@@ -88,23 +115,48 @@ public interface AccessManagementRepository {
     @RegisterConstructorMapper(ExplicitAccessRecord.class)
     List<ExplicitAccessRecord> getExplicitAccessForResource(String resourceId, String resourceName, String resourceType, AccessorType accessorType);
 
-    @SqlQuery("select relationship from access_management where resource_id = :caseId and accessor_id = :userId and cast(accessor_type as text) = 'USER' "
+    @SqlQuery("select * from access_management where resource_id = :resourceId and resource_name = :resourceName and resource_type = :resourceType and cast(accessor_type as text) = :accessorType and attribute = '' "
+        + "and accessor_id in (select distinct accessor_id from access_management where resource_id = :resourceId and resource_name = :resourceName and resource_type = :resourceType "
+        + "and cast(accessor_type as text) = :accessorType and attribute = '' and (:afterAccessorId is null or accessor_id > :afterAccessorId) order by accessor_id limit :limit) "
+        + "order by accessor_id")
+    @RegisterConstructorMapper(ExplicitAccessRecord.class)
+    List<ExplicitAccessRecord> getExplicitAccessForResourcePage(String resourceId, String resourceName, String resourceType, AccessorType accessorType, String afterAccessorId, int limit);
+
+    @SqlQuery("select * from access_management where resource_id = :resourceId and resource_name = :resourceName and resource_type = :resourceType and cast(accessor_type as text) = :accessorType and attribute = '' "
+        + "order by accessor_id")
+    @RegisterConstructorMapper(ExplicitAccessRecord.class)
+    @FetchSize(STREAM_FETCH_SIZE)
+    Stream<ExplicitAccessRecord> streamExplicitAccessForResource(String resourceId, String resourceName, String resourceType, AccessorType accessorType);
+
+    @SqlQuery("select relationship from access_management where resource_id = :caseId and accessor_id = :userId and accessor_type = 'USER' "
         + "and resource_type = 'case' and attribute = '' and permissions & 2 = 2 and relationship is not null order by relationship")
     List<String> getUserCaseRoles(String caseId, String userId);
 
-    @SqlQuery("select resource_id from access_management where accessor_id = ? and cast(accessor_type as text) = 'USER' and resource_type = 'case' "
+    @SqlQuery("select resource_id from access_management where accessor_id = ? and accessor_type = 'USER' and resource_type = 'case' "
         + "and permissions & 2 = 2 and attribute = '' order by resource_id")
     List<String> getUserCases(String userId);
 
+    @SqlQuery("select resource_id from access_management where accessor_id = :userId and accessor_type = 'USER' and resource_type = 'case' "
+        + "and permissions & 2 = 2 and attribute = '' and (:afterCaseId is null or resource_id > :afterCaseId) order by resource_id limit :limit")
+    List<String> getUserCasesPage(String userId, String afterCaseId, int limit);
+
+    @SqlQuery("select resource_id from access_management where accessor_id = :userId and accessor_type = 'USER' and resource_type = 'case' "
+        + "and permissions & 2 = 2 and attribute = '' order by resource_id")
+    @FetchSize(STREAM_FETCH_SIZE)
+    Stream<String> streamUserCases(String userId);
+
 
-    @SqlUpdate("insert into access_management_audit (access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, calling_service_name, audit_timestamp, changed_by, action) "
+    @SqlBatch("insert into access_management_audit (access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, calling_service_name, audit_timestamp, changed_by, action) "
         + "values (:access_management_id, :resourceId, :accessorId, :permissionsAsInt, cast(:accessorType as accessor_type), :serviceName, :resourceType, :resourceName, :attributeAsString, :relationship,"
         + " :callingServiceName, now() at time zone 'utc', :changedBy, 'grant' ) ")
-    void grantAccessManagementForAudit(@Bind("access_management_id") long id, @BindBean ExplicitAccessRecord explicitAccessRecord, String callingServiceName, String changedBy);
+    void grantAccessManagementForAudit(@Bind("access_management_id") long[] ids, @BindBean List<ExplicitAccessRecord> explicitAccessRecords, String callingServiceName, String changedBy);
 
-    @SqlUpdate("insert into access_management_audit (access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, :callingServiceName, now() at time zone 'utc', "
-        + " :changedBy, 'revoke' from access_management where "
+    @SqlBatch("insert into access_management_audit (access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, calling_service_name, audit_timestamp, changed_by, action) "
+        + "values (:audit.accessManagementId, :resourceId, :accessorId, :permissionsAsInt, cast(:accessorType as accessor_type), :serviceName, :resourceType, :resourceName, :attributeAsString, :relationship,"
+        + " :audit.callingServiceName, :audit.auditTimestamp, :audit.changedBy, 'grant' ) ")
+    void grantAccessManagementForAudit(@BindBean List<ExplicitAccessRecord> explicitAccessRecords, @BindBean("audit") List<ExplicitAccessAuditEvent> auditEvents);
+
+    @SqlUpdate("with deleted as (delete from access_management where "
         + "access_management.resource_id = :resourceId "
         + "and access_management.accessor_id = :accessorId "
         + "and access_management.accessor_type = cast(:accessorType as accessor_type) "
@@ -112,7 +164,11 @@ public interface AccessManagementRepository {
         + "and (:serviceName is null or access_management.service_name = :serviceName) "
         + "and access_management.resource_type = :resourceType "
         + "and (:relationship is null or access_management.relationship = :relationship) "
-        + "and (access_management.attribute = :attributeAsString or access_management.attribute like concat(:attributeAsString, '/', '%'))")
-    void revokeAccessManagementForAudit(@BindBean ExplicitAccessMetadata explicitAccessMetadata);
+        + "and (access_management.attribute = :attributeAsString or access_management.attribute like :attributeAsString || '/%') "
+        + "returning *) "
+        + "insert into access_management_audit (access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select access_management_id, resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, attribute, relationship, :callingServiceName, now() at time zone 'utc', "
+        + " :changedBy, 'revoke' from deleted")
+    void removeAccessManagementRecordWithAudit(@BindBean ExplicitAccessMetadata explicitAccessMetadata);
 
 }
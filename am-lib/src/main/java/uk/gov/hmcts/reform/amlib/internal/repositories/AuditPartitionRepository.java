@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.amlib.internal.repositories;
+
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains monthly partitions of explicit access audit by calling partition functions created by migrations.
+ */
+public interface AuditPartitionRepository {
+    @SqlQuery("select create_access_management_audit_partitions(:monthsAhead)")
+    List<String> createAccessManagementAuditPartitions(int monthsAhead);
+
+    @SqlQuery("select detach_access_management_audit_partitions(cast(:olderThan as timestamp))")
+    List<String> detachAccessManagementAuditPartitions(LocalDate olderThan);
+
+    @SqlQuery("select drop_access_management_audit_partitions(cast(:olderThan as timestamp))")
+    List<String> dropAccessManagementAuditPartitions(LocalDate olderThan);
+}
@@ -12,6 +12,7 @@ import org.jdbi.v3.sqlobject.statement.UseRowReducer;
 import uk.gov.hmcts.reform.amlib.enums.AccessType;
 import uk.gov.hmcts.reform.amlib.enums.RoleType;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.CacheInvalidationListener;
 import uk.gov.hmcts.reform.amlib.internal.models.ResourceAttribute;
 import uk.gov.hmcts.reform.amlib.internal.models.RoleBasedAccessRecord;
 import uk.gov.hmcts.reform.amlib.internal.repositories.mappers.PermissionSetMapper;
@@ -77,6 +78,9 @@ public interface DefaultRoleSetupRepository {
     @SqlUpdate("delete from services where service_name = :serviceName")
     void deleteService(String serviceName);
 
+    @SqlUpdate("select pg_notify('" + CacheInvalidationListener.CHANNEL + "', :payload)")
+    void notifyCacheInvalidation(String payload);
+
     @SqlUpdate("insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action)"
         + " values (:serviceName, :resourceType, :resourceName, :attributeAsString, cast(:defaultSecurityClassification as security_classification), :callingServiceName, now() at time zone 'utc', :changedBy, 'grant')"
       )
@@ -87,29 +91,25 @@ public interface DefaultRoleSetupRepository {
        )
     void grantDefaultPermissionAudit(@BindBean RoleBasedAccessRecord roleBasedAccessRecord, String callingServiceName, String changedBy);
 
-    @SqlUpdate("insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from default_permissions_for_roles where  service_name = :serviceName "
-        + "and resource_type = :resourceType and resource_name = :resourceName"
-    )
-    void revokeDefaultPermissionAudit(@BindBean ResourceDefinition resourceDefinition, String callingServiceName, String changedBy);
+    @SqlUpdate("with deleted as (delete from default_permissions_for_roles where service_name = :serviceName and resource_type = :resourceType and resource_name = :resourceName returning *) "
+        + "insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteDefaultPermissionsForRolesWithAudit(@BindBean ResourceDefinition resourceDefinition, String callingServiceName, String changedBy);
 
-    @SqlUpdate("insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from default_permissions_for_roles where  service_name = :serviceName "
-        + "and resource_type = :resourceType "
-    )
-    void revokeDefaultPermissionAudit(String serviceName, String resourceType, String callingServiceName, String changedBy);
+    @SqlUpdate("with deleted as (delete from default_permissions_for_roles where service_name = :serviceName and resource_type = :resourceType returning *) "
+        + "insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteDefaultPermissionsForRolesWithAudit(String serviceName, String resourceType, String callingServiceName, String changedBy);
 
-    @SqlUpdate("insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from resource_attributes where service_name = :serviceName "
-        + "and resource_type = :resourceType "
-    )
-    void revokeResourceAttributeAudit(String serviceName, String resourceType, String callingServiceName, String changedBy);
+    @SqlUpdate("with deleted as (delete from resource_attributes where service_name = :serviceName and resource_type = :resourceType returning *) "
+        + "insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteResourceAttributesWithAudit(String serviceName, String resourceType, String callingServiceName, String changedBy);
 
-    @SqlUpdate("insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from resource_attributes where service_name = :serviceName "
-        + "and resource_type = :resourceType and resource_name = :resourceName"
-    )
-    void revokeResourceAttributeAudit(@BindBean ResourceDefinition resourceDefinition, String callingServiceName, String changedBy);
+    @SqlUpdate("with deleted as (delete from resource_attributes where service_name = :serviceName and resource_type = :resourceType and resource_name = :resourceName returning *) "
+        + "insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteResourceAttributesWithAudit(@BindBean ResourceDefinition resourceDefinition, String callingServiceName, String changedBy);
 
     //Batch Updates for CCD load
     @SqlBatch("delete from default_permissions_for_roles where (service_name,resource_type,resource_name) "
@@ -120,17 +120,17 @@ public interface DefaultRoleSetupRepository {
         + "in ((:serviceName,:resourceType,:resourceName))")
     void deleteBatchResourceAttributes(@BindBean List<ResourceAttribute> resourceAttributes);
 
-    @SqlBatch("insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from default_permissions_for_roles where (service_name,resource_type,resource_name) "
-        + "in ((:serviceName,:resourceType,:resourceName))"
-    )
-    void defaultPermissionAuditBatchRevoke(@BindBean List<ResourceDefinition> resourceDefinition, String callingServiceName, String changedBy);
-
-    @SqlBatch("insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
-        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from resource_attributes  where (service_name,resource_type,resource_name) "
-        + "in ((:serviceName,:resourceType,:resourceName))"
-    )
-    void resourceAttributeAuditBatchRevoke(@BindBean List<ResourceDefinition> resourceDefinitions, String callingServiceName, String changedBy);
+    @SqlBatch("with deleted as (delete from default_permissions_for_roles where (service_name,resource_type,resource_name) "
+        + "in ((:serviceName,:resourceType,:resourceName)) returning *) "
+        + "insert into default_permissions_for_roles_audit (service_name, resource_type, resource_name, attribute, role_name, permissions, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, role_name, permissions, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteBatchDefaultPermissionsWithAudit(@BindBean List<ResourceDefinition> resourceDefinitions, String callingServiceName, String changedBy);
+
+    @SqlBatch("with deleted as (delete from resource_attributes where (service_name,resource_type,resource_name) "
+        + "in ((:serviceName,:resourceType,:resourceName)) returning *) "
+        + "insert into resource_attributes_audit (service_name, resource_type, resource_name, attribute, default_security_classification, calling_service_name, audit_timestamp, changed_by, action) "
+        + "select service_name, resource_type, resource_name, attribute, default_security_classification, :callingServiceName, now() at time zone 'utc', :changedBy, 'revoke' from deleted")
+    void deleteBatchResourceAttributesWithAudit(@BindBean List<ResourceDefinition> resourceDefinitions, String callingServiceName, String changedBy);
 
     @SqlBatch("insert into resource_attributes (service_name, resource_type, resource_name, attribute, default_security_classification, last_update, calling_service_name)"
         + " values (:serviceName, :resourceType, :resourceName, :attributeAsString, cast(:defaultSecurityClassification as security_classification), now() at time zone 'utc', :callingServiceName)"
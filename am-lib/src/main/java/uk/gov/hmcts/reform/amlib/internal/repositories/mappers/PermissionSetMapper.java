@@ -12,11 +12,13 @@ import java.util.Set;
 public class PermissionSetMapper implements ColumnMapper<Set<Permission>> {
     @Override
     public Set<Permission> map(ResultSet resultSet, int columnNumber, StatementContext ctx) throws SQLException {
-        return resultSet.wasNull() ? null : Permissions.fromSumOf(resultSet.getInt(columnNumber));
+        int sumOfPermissions = resultSet.getInt(columnNumber);
+        return resultSet.wasNull() ? null : Permissions.fromSumOf(sumOfPermissions);
     }
 
     @Override
     public Set<Permission> map(ResultSet resultSet, String columnLabel, StatementContext ctx) throws SQLException {
-        return resultSet.wasNull() ? null : Permissions.fromSumOf(resultSet.getInt(columnLabel));
+        int sumOfPermissions = resultSet.getInt(columnLabel);
+        return resultSet.wasNull() ? null : Permissions.fromSumOf(sumOfPermissions);
     }
 }
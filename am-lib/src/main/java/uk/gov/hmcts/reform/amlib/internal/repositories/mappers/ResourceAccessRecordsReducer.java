@@ -0,0 +1,72 @@
+package uk.gov.hmcts.reform.amlib.internal.repositories.mappers;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import org.jdbi.v3.core.result.RowReducer;
+import org.jdbi.v3.core.result.RowView;
+import uk.gov.hmcts.reform.amlib.enums.AccessType;
+import uk.gov.hmcts.reform.amlib.enums.AccessorType;
+import uk.gov.hmcts.reform.amlib.enums.RoleType;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+import uk.gov.hmcts.reform.amlib.internal.models.query.ResourceAccessRecords;
+import uk.gov.hmcts.reform.amlib.internal.utils.Permissions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.stream.Stream;
+
+/**
+ * Splits rows of union query into explicit access records and roles according to value of {@code record_type}
+ * discriminator column.
+ */
+public class ResourceAccessRecordsReducer
+    implements RowReducer<ResourceAccessRecords, ResourceAccessRecords> {
+
+    public static final String EXPLICIT_ACCESS = "EXPLICIT_ACCESS";
+    public static final String ROLE = "ROLE";
+
+    @Override
+    public ResourceAccessRecords container() {
+        return ResourceAccessRecords.builder()
+            .explicitAccessRecords(new ArrayList<>())
+            .roles(new HashSet<>())
+            .build();
+    }
+
+    @Override
+    public void accumulate(ResourceAccessRecords records, RowView rowView) {
+        String recordType = rowView.getColumn("record_type", String.class);
+
+        switch (recordType) {
+            case EXPLICIT_ACCESS:
+                records.getExplicitAccessRecords().add(ExplicitAccessRecord.builder()
+                    .resourceId(rowView.getColumn("resource_id", String.class))
+                    .accessorId(rowView.getColumn("accessor_id", String.class))
+                    .accessorType(rowView.getColumn("accessor_type", AccessorType.class))
+                    .serviceName(rowView.getColumn("service_name", String.class))
+                    .resourceType(rowView.getColumn("resource_type", String.class))
+                    .resourceName(rowView.getColumn("resource_name", String.class))
+                    .attribute(JsonPointer.valueOf(rowView.getColumn("attribute", String.class)))
+                    .permissions(Permissions.fromSumOf(rowView.getColumn("permissions", Integer.class)))
+                    .relationship(rowView.getColumn("relationship", String.class))
+                    .build());
+                break;
+            case ROLE:
+                records.getRoles().add(Role.builder()
+                    .roleName(rowView.getColumn("accessor_id", String.class))
+                    .roleType(rowView.getColumn("role_type", RoleType.class))
+                    .securityClassification(rowView.getColumn("security_classification", SecurityClassification.class))
+                    .accessType(rowView.getColumn("access_type", AccessType.class))
+                    .build());
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type: " + recordType);
+        }
+    }
+
+    @Override
+    public Stream<ResourceAccessRecords> stream(ResourceAccessRecords records) {
+        return Stream.of(records);
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.hmcts.reform.amlib.internal.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Fans work of bulk operations out to an executor while keeping results in order of input.
+ */
+public final class BulkOperations {
+
+    private static final int SEQUENTIAL = 1;
+
+    private BulkOperations() {
+        super();
+    }
+
+    /**
+     * Maps items in up to given number of ordered chunks processed concurrently. The first chunk is processed by the
+     * calling thread and the others by the executor, so no more than given number of chunks is in progress at a time.
+     *
+     * @param items       items to map
+     * @param mapper      function applied to each item
+     * @param executor    executor chunks other than the first are processed by
+     * @param parallelism maximum number of chunks processed concurrently
+     * @param <T>         type of items
+     * @param <R>         type of results
+     * @return results in order of items
+     * @throws RuntimeException thrown by mapper for any item
+     */
+    public static <T, R> List<R> mapInOrder(List<T> items, Function<? super T, ? extends R> mapper,
+                                            Executor executor, int parallelism) {
+        int chunks = Math.min(parallelism, items.size());
+        if (chunks <= SEQUENTIAL) {
+            return map(items, mapper);
+        }
+
+        int chunkSize = (items.size() + chunks - 1) / chunks;
+        List<CompletableFuture<List<R>>> otherChunks = new ArrayList<>();
+        for (int from = chunkSize; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            otherChunks.add(CompletableFuture.supplyAsync(() -> map(chunk, mapper), executor));
+        }
+
+        List<R> results = new ArrayList<>(items.size());
+        results.addAll(map(items.subList(0, chunkSize), mapper));
+        try {
+            for (CompletableFuture<List<R>> chunk : otherChunks) {
+                results.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> mapper) {
+        List<R> results = new ArrayList<>(items.size());
+        for (T item : items) {
+            results.add(mapper.apply(item));
+        }
+        return results;
+    }
+}
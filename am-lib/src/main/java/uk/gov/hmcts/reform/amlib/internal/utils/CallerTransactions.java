@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.amlib.internal.utils;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Detects Spring transactions of the caller which operations of services built from
+ * {@code TransactionAwareDataSourceProxy} take part in, and defers work until such transaction is finished.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads") // Actions are callbacks run by the caller thread, no thread is started
+public final class CallerTransactions {
+
+    private CallerTransactions() {
+        super();
+    }
+
+    /**
+     * Returns true if connection of given database is bound to Spring transaction active on the calling thread, in
+     * which case operations of services using the database take part in that transaction and are committed by the
+     * caller.
+     *
+     * @param database object identifying database, which is data source for Spring transactions
+     * @return true if caller transaction is active
+     */
+    public static boolean isActive(Object database) {
+        return database != null
+            && TransactionSynchronizationManager.isSynchronizationActive()
+            && TransactionSynchronizationManager.isActualTransactionActive()
+            && TransactionSynchronizationManager.hasResource(database);
+    }
+
+    /**
+     * Runs action once active caller transaction is committed. Action is not run if transaction is rolled back.
+     *
+     * @param action action to run
+     */
+    public static void runAfterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs action once active caller transaction is either committed or rolled back.
+     *
+     * @param action action to run
+     */
+    public static void runAfterCompletion(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
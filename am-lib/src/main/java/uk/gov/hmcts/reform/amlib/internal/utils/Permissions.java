@@ -2,11 +2,12 @@ package uk.gov.hmcts.reform.amlib.internal.utils;
 
 import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.exceptions.UnsupportedPermissionsException;
+import uk.gov.hmcts.reform.amlib.internal.models.PermissionMask;
 
-import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
 import static uk.gov.hmcts.reform.amlib.enums.Permission.DELETE;
@@ -31,7 +32,11 @@ public final class Permissions {
      * @see Permissions#sumOf(Set)
      */
     public static int sumOf(Permission... permissions) {
-        return sumOf(Stream.of(permissions).collect(Collectors.toSet()));
+        int sumOfPermissions = 0;
+        for (Permission permission : permissions) {
+            sumOfPermissions |= permission.getValue();
+        }
+        return sumOfPermissions;
     }
 
     /**
@@ -43,14 +48,14 @@ public final class Permissions {
      * @see Permissions#sumOf(Permission...)
      */
     public static int sumOf(Set<Permission> permissions) {
-        return permissions.stream().mapToInt(Permission::getValue).sum();
+        return PermissionMask.valueOf(permissions).toInt();
     }
 
     /**
      * Builds a set of permissions based on integer value that represents sum of permissions.
      *
      * @param sumOfPermissions sum of permission integer values defined in {@link Permission} enum
-     * @return a list of permissions.
+     * @return an unmodifiable set of permissions shared by all callers asking for the same sum
      * @throws UnsupportedPermissionsException when sumOfPermissions is smaller than
      * {@link Permissions#MIN_PERMISSIONS_VALUE} or larger than {@link Permissions#MAX_PERMISSIONS_VALUE}
      */
@@ -59,8 +64,24 @@ public final class Permissions {
             throw new UnsupportedPermissionsException();
         }
 
-        return Arrays.stream(Permission.values())
-            .filter(permission -> permission.isGranted(sumOfPermissions))
-            .collect(Collectors.toSet());
+        return PermissionMask.valueOf(sumOfPermissions).toSet();
+    }
+
+    /**
+     * Copies attribute permissions into modifiable sets before they are returned from public API. Permission sets
+     * used internally are shared and unmodifiable, while callers have always been given sets they own.
+     *
+     * @param attributePermissions map of permissions per attribute, can be null
+     * @param <K>                  type of attribute
+     * @return copy of map with modifiable copies of permission sets, or null if map is null
+     */
+    public static <K> Map<K, Set<Permission>> copyOf(Map<K, Set<Permission>> attributePermissions) {
+        if (attributePermissions == null) {
+            return null;
+        }
+
+        Map<K, Set<Permission>> copy = new ConcurrentHashMap<>();
+        attributePermissions.forEach((attribute, permissions) -> copy.put(attribute, new HashSet<>(permissions)));
+        return copy;
     }
 }
@@ -5,6 +5,10 @@ import java.util.ResourceBundle;
 public final class PropertyReader {
 
     public static final String AUDIT_REQUIRED = "audit.required";
+    public static final String AUDIT_ASYNCHRONOUS = "audit.asynchronous";
+    public static final String AUDIT_COLLECTION_LIMIT = "audit.collection.limit";
+    public static final String VALIDATION_MODE = "validation.mode";
+    public static final String CACHE_INVALIDATION_LISTENER = "cache.invalidation.listener";
 
     private static ResourceBundle rb = ResourceBundle.getBundle("application");
 
@@ -0,0 +1,148 @@
+package uk.gov.hmcts.reform.amlib.internal.validation;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.AsyncFilterResourceService;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.models.ExplicitAccessGrant;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Hand-written equivalents of bean validation constraints declared on the most frequently called service methods.
+ * Checks return true only when arguments satisfy every declared constraint, so that failing arguments can be passed
+ * to bean validation to describe violations.
+ */
+public final class ParameterChecks {
+
+    private static final JsonPointer ROOT_ATTRIBUTE = JsonPointer.valueOf("");
+    private static final char LAST_WHITESPACE_CHARACTER = ' ';
+
+    private ParameterChecks() {
+        super();
+    }
+
+    /**
+     * Returns checks of service methods keyed by method.
+     *
+     * @return map of method to check of its arguments
+     */
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Map is only read once created
+    public static Map<Method, Predicate<Object[]>> forFrequentlyCalledMethods() {
+        Map<Method, Predicate<Object[]>> checks = new HashMap<>();
+        try {
+            checks.put(FilterResourceService.class.getMethod("filterResource",
+                String.class, Set.class, Resource.class, Map.class), ParameterChecks::isValidFilterResource);
+            checks.put(AsyncFilterResourceService.class.getMethod("filterResource",
+                String.class, Set.class, Resource.class, Map.class), ParameterChecks::isValidFilterResource);
+            checks.put(AccessManagementService.class.getMethod("grantExplicitResourceAccess",
+                ExplicitAccessGrant.class), args -> isValid((ExplicitAccessGrant) args[0]));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Validated service method does not exist", e);
+        }
+        return checks;
+    }
+
+    @SuppressWarnings({"unchecked", "PMD.UseVarargs"}) // Arguments are passed as array taken from join point
+    private static boolean isValidFilterResource(Object[] args) {
+        return isNotBlank((String) args[0])
+            && isNotEmptyWithNotBlankElements((Set<String>) args[1])
+            && isValid((Resource) args[2])
+            && isValidAttributeSecurityClassifications((Map<JsonPointer, SecurityClassification>) args[3]);
+    }
+
+    private static boolean isValid(Resource resource) {
+        return resource != null
+            && isNotBlank(resource.getId())
+            && isValid(resource.getDefinition())
+            && resource.getData() != null;
+    }
+
+    private static boolean isValid(ExplicitAccessGrant accessGrant) {
+        return accessGrant != null
+            && isNotBlank(accessGrant.getResourceId())
+            && isValid(accessGrant.getResourceDefinition())
+            && isNotEmptyWithNotBlankElements(accessGrant.getAccessorIds())
+            && accessGrant.getAccessorType() != null
+            && isValidAttributePermissions(accessGrant.getAttributePermissions());
+    }
+
+    private static boolean isValid(ResourceDefinition resourceDefinition) {
+        return resourceDefinition != null
+            && isNotBlank(resourceDefinition.getServiceName())
+            && isNotBlank(resourceDefinition.getResourceType())
+            && isNotBlank(resourceDefinition.getResourceName());
+    }
+
+    /**
+     * Mirrors {@link AttributeSecurityClassificationValidator} together with not null constraint on map keys.
+     */
+    private static boolean isValidAttributeSecurityClassifications(
+        Map<JsonPointer, SecurityClassification> attributeSecurityClassifications) {
+        if (attributeSecurityClassifications == null) {
+            return true;
+        }
+        return !attributeSecurityClassifications.isEmpty()
+            && attributeSecurityClassifications.get(ROOT_ATTRIBUTE) != null
+            && hasNoNullElements(attributeSecurityClassifications.keySet());
+    }
+
+    private static boolean isValidAttributePermissions(Map<JsonPointer, Set<Permission>> attributePermissions) {
+        if (attributePermissions == null || attributePermissions.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<JsonPointer, Set<Permission>> attributePermission : attributePermissions.entrySet()) {
+            Set<Permission> permissions = attributePermission.getValue();
+            if (attributePermission.getKey() == null || permissions == null || permissions.isEmpty()
+                || !hasNoNullElements(permissions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNotEmptyWithNotBlankElements(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return false;
+        }
+        for (String value : values) {
+            if (!isNotBlank(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasNoNullElements(Collection<?> values) {
+        for (Object value : values) {
+            if (value == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link javax.validation.constraints.NotBlank}, which rejects null and strings of whitespace only.
+     */
+    private static boolean isNotBlank(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > LAST_WHITESPACE_CHARACTER) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
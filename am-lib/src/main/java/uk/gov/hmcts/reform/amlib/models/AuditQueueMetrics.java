@@ -0,0 +1,17 @@
+package uk.gov.hmcts.reform.amlib.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Builder
+@Data
+public class AuditQueueMetrics {
+    private int queueDepth;
+    private int queueCapacity;
+    private long flushedRecords;
+    private long failedFlushes;
+    private long synchronousWrites;
+    private Duration lastFlushLatency;
+}
@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.amlib.validation;
+
+import org.hibernate.validator.HibernateValidator;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import uk.gov.hmcts.reform.amlib.internal.validation.ParameterChecks;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.executable.ExecutableValidator;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Validates arguments against bean validation constraints declared on service methods.
+ *
+ * <p>Methods without any constraints are remembered and skipped. Arguments of the most frequently called methods
+ * are first checked by hand-written checks, which do not allocate, and are only passed to bean validation when the
+ * check fails, so that violations are described the same way as for any other method.
+ */
+public class BeanValidationStrategy implements ValidationStrategy {
+
+    private final Validator validator = Validation.byProvider(HibernateValidator.class)
+        .configure()
+        .messageInterpolator(new ParameterMessageInterpolator())
+        .buildValidatorFactory()
+        .getValidator();
+    private final ExecutableValidator executableValidator = validator.forExecutables();
+    private final Map<Method, Boolean> constrainedMethods = new ConcurrentHashMap<>();
+    private final Map<Method, Predicate<Object[]>> parameterChecks = ParameterChecks.forFrequentlyCalledMethods();
+
+    @Override
+    public List<String> validate(Object target, Method method, Object[] args) {
+        Predicate<Object[]> parameterCheck = parameterChecks.get(method);
+        if (parameterCheck != null && parameterCheck.test(args)
+            || !constrainedMethods.computeIfAbsent(method, this::isConstrained)) {
+            return Collections.emptyList();
+        }
+
+        Set<ConstraintViolation<Object>> violations = executableValidator.validateParameters(target, method, args);
+        return violations.stream().map(this::toMessage).collect(toList());
+    }
+
+    private boolean isConstrained(Method method) {
+        return validator.getConstraintsForClass(method.getDeclaringClass())
+            .getConstraintsForMethod(method.getName(), method.getParameterTypes()) != null;
+    }
+
+    private String toMessage(ConstraintViolation<Object> violation) {
+        return violation.getPropertyPath() + " - " + violation.getMessage();
+    }
+}
@@ -0,0 +1,20 @@
+package uk.gov.hmcts.reform.amlib.validation;
+
+/**
+ * Decides which calls to library services have their arguments validated.
+ */
+public enum ValidationMode {
+    /**
+     * Arguments of every call are validated, including calls services make to other services.
+     */
+    FULL,
+    /**
+     * Only arguments of calls entering the library are validated. Calls services make to other services on the same
+     * thread are trusted, as their arguments come from arguments already validated.
+     */
+    BOUNDARY,
+    /**
+     * Arguments are not validated, for callers that validate them before calling the library.
+     */
+    OFF
+}
@@ -0,0 +1,27 @@
+package uk.gov.hmcts.reform.amlib.validation;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Validates arguments of calls to library services.
+ *
+ * <p>Strategy is discovered with {@link java.util.ServiceLoader}, by listing implementation class name in
+ * <code>META-INF/services/uk.gov.hmcts.reform.amlib.validation.ValidationStrategy</code>. When no strategy is
+ * registered {@link BeanValidationStrategy} is used. Which calls are validated is decided by {@link ValidationMode}
+ * configured with <code>validation.mode</code> property.
+ */
+public interface ValidationStrategy {
+
+    /**
+     * Validates arguments of service method call.
+     *
+     * @param target service instance
+     * @param method service method
+     * @param args   method arguments
+     * @return messages describing invalid arguments, formatted as <code>method.parameter - message</code>, or empty
+     *     list if arguments are valid
+     */
+    @SuppressWarnings("PMD.UseVarargs") // Arguments are passed as array taken from join point
+    List<String> validate(Object target, Method method, Object[] args);
+}
@@ -0,0 +1,15 @@
+-- Indexes are built concurrently so that large tables are not locked for writes, therefore this migration
+-- has to contain only non-transactional statements
+
+-- Supports cases for user lookup which filters root attribute user records by accessor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS access_management_user_cases_idx
+ ON access_management(accessor_id, resource_type, resource_id, permissions)
+where attribute = '' and accessor_type = 'USER';
+
+-- Supports resource access lookup which filters records of a resource by resource type and accessor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS access_management_resource_accessor_idx
+ ON access_management(resource_id, resource_type, accessor_type, accessor_id);
+
+-- Supports cascade revoke which matches child attributes with "like 'attribute/%'" pattern
+CREATE INDEX CONCURRENTLY IF NOT EXISTS access_management_attribute_prefix_idx
+ ON access_management(resource_id, accessor_id, accessor_type, attribute text_pattern_ops);
@@ -0,0 +1,108 @@
+-- Audit of explicit access is range partitioned by month on audit_timestamp so that old audit can be archived or
+-- removed by detaching or dropping whole partitions instead of deleting rows and vacuuming the table.
+-- Existing audit is kept as a single partition holding everything up to the end of the current month.
+-- As default partitions are not available in Postgres 10, records past the last monthly partition are routed to
+-- open-ended 'future' partition which is split into monthly partitions when new partitions are created.
+
+ALTER TABLE access_management_audit RENAME TO access_management_audit_history;
+
+CREATE TABLE access_management_audit
+(
+    LIKE access_management_audit_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (audit_timestamp);
+
+-- Lists partitions of audit table with their bounds, bound is null when partition is open-ended on that side
+CREATE FUNCTION access_management_audit_partitions()
+    RETURNS TABLE (partition_name TEXT, lower_bound TIMESTAMP, upper_bound TIMESTAMP) AS $$
+    SELECT child.relname::TEXT,
+           cast(substring(pg_get_expr(child.relpartbound, child.oid) FROM 'FROM \(''([^'']+)''\)') AS TIMESTAMP),
+           cast(substring(pg_get_expr(child.relpartbound, child.oid) FROM 'TO \(''([^'']+)''\)') AS TIMESTAMP)
+    FROM pg_inherits
+    JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+    WHERE pg_inherits.inhparent = 'access_management_audit'::REGCLASS
+$$ LANGUAGE sql STABLE;
+
+-- Creates monthly partitions up to given number of months after the current month, returns created partition names
+CREATE FUNCTION create_access_management_audit_partitions(months_ahead INTEGER)
+    RETURNS SETOF TEXT AS $$
+DECLARE
+    partitions_from TIMESTAMP;
+    partitions_to TIMESTAMP := date_trunc('month', now() at time zone 'utc') + make_interval(months => months_ahead + 1);
+    partition_from TIMESTAMP;
+    new_partition_name TEXT;
+BEGIN
+    SELECT lower_bound INTO partitions_from
+    FROM access_management_audit_partitions()
+    WHERE partition_name = 'access_management_audit_future';
+
+    IF partitions_from IS NULL THEN
+        RAISE EXCEPTION 'Partition access_management_audit_future does not exist';
+    END IF;
+    IF partitions_from >= partitions_to THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE access_management_audit DETACH PARTITION access_management_audit_future;
+    ALTER TABLE access_management_audit_future RENAME TO access_management_audit_future_detached;
+
+    partition_from := partitions_from;
+    WHILE partition_from < partitions_to LOOP
+        new_partition_name := 'access_management_audit_' || to_char(partition_from, 'YYYY_MM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF access_management_audit FOR VALUES FROM (%L) TO (%L)',
+            new_partition_name, partition_from, partition_from + interval '1 month');
+        RETURN NEXT new_partition_name;
+        partition_from := partition_from + interval '1 month';
+    END LOOP;
+
+    EXECUTE format('CREATE TABLE access_management_audit_future PARTITION OF access_management_audit '
+        || 'FOR VALUES FROM (%L) TO (MAXVALUE)', partitions_to);
+
+    -- records that have been already written past the last partition are routed again to new partitions
+    INSERT INTO access_management_audit SELECT * FROM access_management_audit_future_detached;
+    DROP TABLE access_management_audit_future_detached;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches partitions holding only records older than given timestamp, returns detached partition names.
+-- Detached partitions are kept as standalone tables so that they can be archived before being dropped.
+CREATE FUNCTION detach_access_management_audit_partitions(older_than TIMESTAMP)
+    RETURNS SETOF TEXT AS $$
+DECLARE
+    audit_partition RECORD;
+BEGIN
+    FOR audit_partition IN
+        SELECT partition_name FROM access_management_audit_partitions()
+        WHERE upper_bound <= older_than
+        ORDER BY upper_bound
+    LOOP
+        EXECUTE format('ALTER TABLE access_management_audit DETACH PARTITION %I', audit_partition.partition_name);
+        RETURN NEXT audit_partition.partition_name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Drops partitions holding only records older than given timestamp, returns dropped partition names
+CREATE FUNCTION drop_access_management_audit_partitions(older_than TIMESTAMP)
+    RETURNS SETOF TEXT AS $$
+DECLARE
+    detached_partition_name TEXT;
+BEGIN
+    FOR detached_partition_name IN SELECT detach_access_management_audit_partitions(older_than) LOOP
+        EXECUTE format('DROP TABLE %I', detached_partition_name);
+        RETURN NEXT detached_partition_name;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    next_month TIMESTAMP := date_trunc('month', now() at time zone 'utc') + interval '1 month';
+BEGIN
+    EXECUTE format('ALTER TABLE access_management_audit ATTACH PARTITION access_management_audit_history '
+        || 'FOR VALUES FROM (MINVALUE) TO (%L)', next_month);
+    EXECUTE format('CREATE TABLE access_management_audit_future PARTITION OF access_management_audit '
+        || 'FOR VALUES FROM (%L) TO (MAXVALUE)', next_month);
+END;
+$$;
+
+SELECT create_access_management_audit_partitions(3);
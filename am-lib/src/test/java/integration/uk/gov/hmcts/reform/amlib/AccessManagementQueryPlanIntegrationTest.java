@@ -0,0 +1,96 @@
+package integration.uk.gov.hmcts.reform.amlib;
+
+import com.google.common.collect.ImmutableMap;
+import integration.uk.gov.hmcts.reform.amlib.base.PreconfiguredIntegrationBaseTest;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.DefaultRoleSetupImportServiceImpl;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+import uk.gov.hmcts.reform.amlib.service.DefaultRoleSetupImportService;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+
+/**
+ * Checks that hot access management queries are planned with indexes. Table is populated with enough records of
+ * a single accessor and resource for planner to prefer index made for the query over other indexes.
+ */
+class AccessManagementQueryPlanIntegrationTest extends PreconfiguredIntegrationBaseTest {
+
+    private static final int NUMBER_OF_RECORDS = 2000;
+
+    private static DefaultRoleSetupImportService importerService = initService(DefaultRoleSetupImportServiceImpl.class);
+    private static Jdbi jdbi = Jdbi.create(createDataSource());
+
+    private String resourceId;
+    private String accessorId;
+    private ResourceDefinition resourceDefinition;
+
+    @BeforeEach
+    void setUp() {
+        resourceId = UUID.randomUUID().toString();
+        accessorId = UUID.randomUUID().toString();
+        importerService.addResourceDefinition(resourceDefinition =
+            createResourceDefinition(serviceName, "case", UUID.randomUUID().toString()));
+
+        // cases of the accessor, and then attributes of a single case of the accessor
+        insertRecords(":resourceId || '-' || n", "''");
+        insertRecords(":resourceId", "'/attribute' || n");
+        jdbi.useHandle(handle -> handle.execute("analyze access_management"));
+    }
+
+    @Test
+    void userCasesQueryShouldUseUserCasesIndex() {
+        String plan = explain("select resource_id from access_management where accessor_id = :accessorId "
+            + "and accessor_type = 'USER' and resource_type = 'case' and permissions & 2 = 2 and attribute = '' "
+            + "order by resource_id");
+
+        assertThat(plan).contains("access_management_user_cases_idx");
+    }
+
+    @Test
+    void cascadeRevokeQueryShouldUseAttributePrefixIndex() {
+        String plan = explain("select * from access_management where resource_id = :resourceId "
+            + "and accessor_id = :accessorId and accessor_type = 'USER' and resource_type = 'case' "
+            + "and (attribute = :attribute or attribute like :attribute || '/%')");
+
+        assertThat(plan).contains("access_management_attribute_prefix_idx");
+    }
+
+    @Test
+    void resourceAccessQueryShouldNotScanWholeTable() {
+        String plan = explain("select * from access_management as am where resource_id = :resourceId "
+            + "and resource_type = 'case' "
+            + "and ((accessor_type = 'USER' and accessor_id = :accessorId) "
+            + "or (accessor_type = 'DEFAULT' and accessor_id = '*'))");
+
+        assertThat(plan).contains("access_management").doesNotContain("Seq Scan on access_management");
+    }
+
+    private void insertRecords(String resourceIdExpression, String attributeExpression) {
+        jdbi.useHandle(handle -> handle.createUpdate("insert into access_management (resource_id, accessor_id, "
+            + "permissions, accessor_type, service_name, resource_type, resource_name, attribute, last_update) "
+            + "select " + resourceIdExpression + ", :accessorId, 2, cast('USER' as accessor_type), :serviceName, "
+            + ":resourceType, :resourceName, " + attributeExpression + ", now() "
+            + "from generate_series(1, :numberOfRecords) as n")
+            .bindMap(parameters())
+            .bindBean(resourceDefinition)
+            .bind("numberOfRecords", NUMBER_OF_RECORDS)
+            .execute());
+    }
+
+    private String explain(String query) {
+        return jdbi.withHandle(handle -> String.join("\n", handle.createQuery("explain " + query)
+            .bindMap(parameters())
+            .mapTo(String.class)
+            .list()));
+    }
+
+    private Map<String, Object> parameters() {
+        return ImmutableMap.of("resourceId", resourceId, "accessorId", accessorId, "attribute", "/attribute1");
+    }
+}
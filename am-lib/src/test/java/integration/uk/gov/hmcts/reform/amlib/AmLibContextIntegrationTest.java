@@ -0,0 +1,81 @@
+package integration.uk.gov.hmcts.reform.amlib;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import integration.uk.gov.hmcts.reform.amlib.base.PreconfiguredIntegrationBaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.AmLibContext;
+import uk.gov.hmcts.reform.amlib.DefaultRoleSetupImportServiceImpl;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createDefaultPermissionGrant;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrantForWholeDocument;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
+
+@SuppressWarnings("PMD.DoNotUseThreads") // Connections are told apart by thread that opened them
+class AmLibContextIntegrationTest extends PreconfiguredIntegrationBaseTest {
+
+    private final List<Thread> connectingThreads = new CopyOnWriteArrayList<>();
+    private final DataSource dataSource = spy(createDataSource());
+    private final AmLibContext context = AmLibContext.create(dataSource);
+    private final AccessManagementService service = new AccessManagementService(context);
+    private final FilterResourceService filterResourceService = new FilterResourceService(context);
+    private final DefaultRoleSetupImportServiceImpl importerService = new DefaultRoleSetupImportServiceImpl(context);
+    private String accessorId;
+    private String roleName;
+    private ResourceDefinition resourceDefinition;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        doAnswer(invocation -> {
+            connectingThreads.add(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).when(dataSource).getConnection();
+        accessorId = UUID.randomUUID().toString();
+        importerService.addRole(roleName = UUID.randomUUID().toString(), IDAM, PUBLIC, ROLE_BASED);
+        importerService.addResourceDefinition(resourceDefinition =
+            createResourceDefinition(serviceName, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(roleName, resourceDefinition, "",
+            ImmutableSet.of(READ), PUBLIC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void whenListOfResourcesIsFilteredShouldRunAllQueriesOnSingleConnection() {
+        String resourceId = UUID.randomUUID().toString();
+        service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            resourceId, accessorId, roleName, resourceDefinition, ImmutableSet.of(READ)));
+        connectingThreads.clear();
+
+        List<FilteredResourceEnvelope> result = filterResourceService.filterResources(accessorId,
+            ImmutableSet.of(roleName), ImmutableList.of(
+                createResource(resourceId, resourceDefinition),
+                createResource(UUID.randomUUID().toString(), resourceDefinition)), null);
+
+        assertThat(result).hasSize(2).doesNotContainNull();
+        assertThat(connectingThreads).containsOnlyOnce(Thread.currentThread());
+    }
+}
@@ -0,0 +1,66 @@
+package integration.uk.gov.hmcts.reform.amlib;
+
+import integration.uk.gov.hmcts.reform.amlib.base.IntegrationBaseTest;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.AuditMaintenanceService;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditMaintenanceIntegrationTest extends IntegrationBaseTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static AuditMaintenanceService service = initService(AuditMaintenanceService.class);
+    private static Jdbi jdbi = Jdbi.create(createDataSource());
+
+    @Test
+    void whenCreatingAuditPartitionsShouldCreateOnlyMissingMonthlyPartitions() {
+        service.createAuditPartitions(24);
+
+        assertThat(service.createAuditPartitions(24)).isEmpty();
+        assertThat(service.createAuditPartitions(25)).containsExactly(partitionNameForMonthsAhead(25));
+    }
+
+    @Test
+    void whenCreatingAuditPartitionsAuditPastLastPartitionShouldBeRoutedToMonthlyPartition() {
+        String resourceId = UUID.randomUUID().toString();
+        service.createAuditPartitions(6);
+        jdbi.useHandle(handle -> handle.createUpdate("insert into access_management_audit (access_management_id, "
+            + "resource_id, accessor_id, permissions, accessor_type, service_name, resource_type, resource_name, "
+            + "attribute, audit_timestamp) values (1, :resourceId, 'accessor', 1, 'USER', 'service', 'type', 'name', "
+            + "'', (now() at time zone 'utc') + interval '12 months')")
+            .bind("resourceId", resourceId)
+            .execute());
+
+        service.createAuditPartitions(12);
+
+        assertThat(countAuditRecordsInPartition(partitionNameForMonthsAhead(12), resourceId)).isEqualTo(1);
+    }
+
+    @Test
+    void whenNoAuditPartitionIsOlderThanDateNothingShouldBeDetachedOrDropped() {
+        LocalDate date = LocalDate.of(1970, 1, 1);
+
+        assertThat(service.detachAuditPartitionsOlderThan(date)).isEmpty();
+        assertThat(service.dropAuditPartitionsOlderThan(date)).isEmpty();
+    }
+
+    private int countAuditRecordsInPartition(String partitionName, String resourceId) {
+        return jdbi.withHandle(handle -> handle.createQuery("select count(1) from " + partitionName
+            + " where resource_id = :resourceId")
+            .bind("resourceId", resourceId)
+            .mapTo(Integer.class)
+            .one());
+    }
+
+    private String partitionNameForMonthsAhead(int monthsAhead) {
+        return "access_management_audit_"
+            + LocalDate.now(ZoneOffset.UTC).plusMonths(monthsAhead).format(PARTITION_SUFFIX_FORMAT);
+    }
+}
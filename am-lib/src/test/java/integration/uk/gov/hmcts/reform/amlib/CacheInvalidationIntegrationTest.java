@@ -0,0 +1,164 @@
+package integration.uk.gov.hmcts.reform.amlib;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import integration.uk.gov.hmcts.reform.amlib.base.PreconfiguredIntegrationBaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.AmLibContext;
+import uk.gov.hmcts.reform.amlib.DefaultRoleSetupImportServiceImpl;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.models.DefaultPermissionGrant;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+import uk.gov.hmcts.reform.amlib.service.DefaultRoleSetupImportService;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.EXPLICIT;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createPermissionsForAttribute;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.CALLING_SERVICE_NAME_FOR_REVOKE;
+import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.CHANGED_BY_NAME_FOR_REVOKE;
+import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.ROOT_ATTRIBUTE;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
+
+/**
+ * Service created with data source does not share caches with importer created with JDBC URL, so it behaves like
+ * a service running on another node and can learn about changes only from database notifications, which it listens
+ * to as it is configured to do so for data source too. Services sharing a context see changes made in Spring
+ * transaction of the caller once it is committed.
+ */
+@SuppressWarnings("PMD.ExcessiveImports")
+class CacheInvalidationIntegrationTest extends PreconfiguredIntegrationBaseTest {
+
+    private static final long NOTIFICATION_TIMEOUT_MILLIS = 10_000;
+
+    private static DefaultRoleSetupImportService importerService = initService(DefaultRoleSetupImportServiceImpl.class);
+    private static FilterResourceService otherNodeService = new FilterResourceService(AmLibContext.create(
+        createDataSource(),
+        AmLibConfig.builder().cacheInvalidationListenerMode(CacheInvalidationListenerMode.ALL_CONTEXTS).build()));
+
+    private String resourceId;
+    private String accessorId;
+    private String roleName;
+    private ResourceDefinition resourceDefinition;
+
+    @BeforeEach
+    void setUp() {
+        resourceId = UUID.randomUUID().toString();
+        accessorId = UUID.randomUUID().toString();
+        importerService.addRole(roleName = UUID.randomUUID().toString(), IDAM, PUBLIC, ROLE_BASED);
+        importerService.addResourceDefinition(resourceDefinition =
+            createResourceDefinition(serviceName, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void whenDefaultPermissionsChangeOnAnotherNodeShouldUseNewPermissions() throws InterruptedException {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(READ)));
+        assertThat(filterResource().getAccess().getPermissions().get(ROOT_ATTRIBUTE)).containsOnly(READ);
+
+        importerService.truncateDefaultPermissionsByResourceDefinition(resourceDefinition,
+            CALLING_SERVICE_NAME_FOR_REVOKE, CHANGED_BY_NAME_FOR_REVOKE);
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(CREATE)));
+
+        assertThat(awaitUntil(() -> filterResource().getAccess().getPermissions().get(ROOT_ATTRIBUTE)
+            .contains(CREATE))).isTrue();
+    }
+
+    @Test
+    void whenDefaultPermissionsChangeOnAnotherNodeShouldUseNewPermissionsForSingleResource()
+        throws InterruptedException {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(READ)));
+        assertThat(filterSingleResource().getAccess().getPermissions().get(ROOT_ATTRIBUTE)).containsOnly(READ);
+
+        importerService.truncateDefaultPermissionsByResourceDefinition(resourceDefinition,
+            CALLING_SERVICE_NAME_FOR_REVOKE, CHANGED_BY_NAME_FOR_REVOKE);
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(CREATE)));
+
+        assertThat(awaitUntil(() -> filterSingleResource().getAccess().getPermissions().get(ROOT_ATTRIBUTE)
+            .contains(CREATE))).isTrue();
+    }
+
+    @Test
+    void whenRoleIsChangedOnAnotherNodeShouldUseNewRole() throws InterruptedException {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(READ)));
+        assertThat(filterResource()).isNotNull();
+
+        importerService.addRole(roleName, IDAM, PUBLIC, EXPLICIT);
+
+        assertThat(awaitUntil(() -> filterResource() == null)).isTrue();
+    }
+
+    @Test
+    void whenDefaultPermissionsChangeInCallerTransactionShouldUseNewPermissionsOnceCommitted() {
+        DataSource dataSource = createDataSource();
+        try (AmLibContext context = AmLibContext.create(new TransactionAwareDataSourceProxy(dataSource))) {
+            DefaultRoleSetupImportServiceImpl transactionalImporterService =
+                new DefaultRoleSetupImportServiceImpl(context);
+            FilterResourceService filterResourceService = new FilterResourceService(context);
+            Supplier<Set<Permission>> permissions = () -> filterResourceService.filterResource(accessorId,
+                ImmutableSet.of(roleName), createResource(resourceId, resourceDefinition,
+                    JsonNodeFactory.instance.objectNode()), null).getAccess().getPermissions().get(ROOT_ATTRIBUTE);
+            transactionalImporterService.grantDefaultPermission(createDefaultPermissionGrant(ImmutableSet.of(READ)));
+
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> {
+                transactionalImporterService.truncateDefaultPermissionsByResourceDefinition(resourceDefinition,
+                    CALLING_SERVICE_NAME_FOR_REVOKE, CHANGED_BY_NAME_FOR_REVOKE);
+                transactionalImporterService.grantDefaultPermission(
+                    createDefaultPermissionGrant(ImmutableSet.of(CREATE)));
+                // reader outside of caller transaction caches permissions committed so far
+                assertThat(CompletableFuture.supplyAsync(permissions).join()).containsOnly(READ);
+                return null;
+            });
+
+            assertThat(permissions.get()).containsOnly(CREATE);
+        }
+    }
+
+    private FilteredResourceEnvelope filterResource() {
+        return otherNodeService.filterResources(accessorId, ImmutableSet.of(roleName), ImmutableList.of(
+            createResource(resourceId, resourceDefinition, JsonNodeFactory.instance.objectNode())), null).get(0);
+    }
+
+    private FilteredResourceEnvelope filterSingleResource() {
+        return otherNodeService.filterResource(accessorId, ImmutableSet.of(roleName),
+            createResource(resourceId, resourceDefinition, JsonNodeFactory.instance.objectNode()), null);
+    }
+
+    private DefaultPermissionGrant createDefaultPermissionGrant(Set<Permission> permissions) {
+        return DefaultPermissionGrant.builder()
+            .roleName(roleName)
+            .resourceDefinition(resourceDefinition)
+            .attributePermissions(createPermissionsForAttribute(ROOT_ATTRIBUTE, permissions, PUBLIC))
+            .build();
+    }
+
+    private boolean awaitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + NOTIFICATION_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.get()) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package integration.uk.gov.hmcts.reform.amlib;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -22,6 +23,9 @@ import uk.gov.hmcts.reform.amlib.models.ResourceAccessorsEnvelope;
 import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
 import uk.gov.hmcts.reform.amlib.service.DefaultRoleSetupImportService;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -43,6 +47,8 @@ import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
 import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
 import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createPermissionsForAttribute;
 import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.CALLING_SERVICE_NAME_FOR_REVOKE;
+import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.CHANGED_BY_NAME_FOR_REVOKE;
 import static uk.gov.hmcts.reform.amlib.helpers.TestConstants.ROOT_ATTRIBUTE;
 import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrant;
 import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrantForAccessorType;
@@ -51,12 +57,13 @@ import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrantForWh
 import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createPermissions;
 import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
 
-@SuppressWarnings({"PMD.ExcessiveImports", "PMD.TooManyMethods", "LineLength"})
+@SuppressWarnings({"PMD.ExcessiveImports", "PMD.TooManyMethods", "PMD.ExcessiveClassLength", "LineLength"})
 class FilterResourceIntegrationTest extends PreconfiguredIntegrationBaseTest {
 
     private static AccessManagementService service = initService(AccessManagementService.class);
     private static FilterResourceService filterResourceService = initService(FilterResourceService.class);
     private static DefaultRoleSetupImportService importerService = initService(DefaultRoleSetupImportServiceImpl.class);
+    private final ObjectMapper mapper = new ObjectMapper();
     private String resourceId;
     private String accessorId;
     private String idamRoleWithRoleBasedAccess;
@@ -204,6 +211,42 @@ class FilterResourceIntegrationTest extends PreconfiguredIntegrationBaseTest {
             .build());
     }
 
+    @Test
+    void whenDefaultPermissionsChangeShouldUseNewRoleBasedAccess() {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(idamRoleWithRoleBasedAccess,
+            resourceDefinition, "", ImmutableSet.of(READ)));
+        filterResourceService.filterResource(accessorId, ImmutableSet.of(idamRoleWithRoleBasedAccess),
+            createResource(resourceId, resourceDefinition, createData()), null);
+
+        importerService.truncateDefaultPermissionsByResourceDefinition(resourceDefinition,
+            CALLING_SERVICE_NAME_FOR_REVOKE, CHANGED_BY_NAME_FOR_REVOKE);
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(idamRoleWithRoleBasedAccess,
+            resourceDefinition, "", ImmutableSet.of(CREATE)));
+
+        FilteredResourceEnvelope result = filterResourceService.filterResource(
+            accessorId, ImmutableSet.of(idamRoleWithRoleBasedAccess),
+            createResource(resourceId, resourceDefinition, createData()), null);
+
+        assertThat(result.getResource().getData()).isNull();
+        assertThat(result.getAccess().getPermissions()).isEqualTo(ImmutableMap.of(ROOT_ATTRIBUTE, ImmutableSet.of(CREATE)));
+    }
+
+    @Test
+    void whenCallerModifiesReturnedPermissionsShouldNotAffectLaterResults() {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(idamRoleWithRoleBasedAccess,
+            resourceDefinition, "", ImmutableSet.of(READ)));
+        FilteredResourceEnvelope first = filterResourceService.filterResource(
+            accessorId, ImmutableSet.of(idamRoleWithRoleBasedAccess),
+            createResource(resourceId, resourceDefinition, createData()), null);
+
+        first.getAccess().getPermissions().get(ROOT_ATTRIBUTE).add(DELETE);
+
+        FilteredResourceEnvelope second = filterResourceService.filterResource(
+            accessorId, ImmutableSet.of(idamRoleWithRoleBasedAccess),
+            createResource(resourceId, resourceDefinition, createData()), null);
+        assertThat(second.getAccess().getPermissions()).isEqualTo(ImmutableMap.of(ROOT_ATTRIBUTE, ImmutableSet.of(READ)));
+    }
+
     @Test
     void whenNoExplicitAccessAndRoleHasExplicitAccessTypeShouldReturnNull() {
         FilteredResourceEnvelope result = filterResourceService.filterResource(accessorId,
@@ -325,6 +368,35 @@ class FilterResourceIntegrationTest extends PreconfiguredIntegrationBaseTest {
         assertThat(result).isEqualTo(expectedResult);
     }
 
+    @Test
+    void whenListOfResourcesWithMixedAccessShouldReturnSameEnvelopesAsFilteringOneByOneInOrder() {
+        importerService.grantDefaultPermission(createDefaultPermissionGrant(idamRoleWithRoleBasedAccess,
+            resourceDefinition, "", ImmutableSet.of(READ)));
+        service.grantExplicitResourceAccess(createGrant(resourceId + 2, accessorId, idamRoleWithRoleBasedAccess,
+            resourceDefinition, createPermissions(rootLevelAttribute, ImmutableSet.of(READ))));
+
+        ResourceDefinition otherResourceDefinition =
+            createResourceDefinition(serviceName, UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        importerService.addResourceDefinition(otherResourceDefinition);
+
+        List<Resource> resources = ImmutableList.of(
+            createResource(resourceId, resourceDefinition, createData()),
+            createResource(resourceId + 2, resourceDefinition, createData()),
+            createResource(resourceId + 3, otherResourceDefinition, createData()),
+            createResource(resourceId + 4, resourceDefinition, createData()));
+        Set<String> userRoles = ImmutableSet.of(idamRoleWithRoleBasedAccess, idamRoleWithExplicitAccess);
+
+        List<FilteredResourceEnvelope> result =
+            filterResourceService.filterResources(accessorId, userRoles, resources, null);
+
+        List<FilteredResourceEnvelope> expectedResult = resources.stream()
+            .map(resource -> filterResourceService.filterResource(accessorId, userRoles, resource, null))
+            .collect(Collectors.toList());
+        assertThat(result).isEqualTo(expectedResult);
+        assertThat(result.get(1).getAccess().getAccessType()).isEqualTo(EXPLICIT);
+        assertThat(result.get(2)).isNull();
+    }
+
     @Test
     void whenEmptyListOfResourcesShouldReturnEmptyList() {
         List<Resource> resources = ImmutableList.of();
@@ -951,6 +1023,43 @@ class FilterResourceIntegrationTest extends PreconfiguredIntegrationBaseTest {
             .build());
     }
 
+    @Test
+    void whenFilteringStreamShouldWriteFilteredDataAndReturnEnvelopeWithoutData() throws IOException {
+        service.grantExplicitResourceAccess(createGrant(resourceId, accessorId, idamRoleWithRoleBasedAccess,
+            resourceDefinition, createPermissions(rootLevelObject, ImmutableSet.of(READ))));
+
+        ByteArrayOutputStream filteredData = new ByteArrayOutputStream();
+        FilteredResourceEnvelope result = filterResourceService.filterResource(
+            accessorId, ImmutableSet.of(idamRoleWithRoleBasedAccess), resourceId, resourceDefinition,
+            new ByteArrayInputStream(mapper.writeValueAsBytes(createData())), filteredData, null);
+
+        assertThat(mapper.readTree(filteredData.toByteArray())).isEqualTo(JsonNodeFactory.instance.objectNode()
+            .set(rootLevelObject.replace("/", ""), JsonNodeFactory.instance.objectNode()
+                .put(rootLevelObjectNestedAttribute, nestedAttributeValue)));
+        assertThat(result).isEqualTo(FilteredResourceEnvelope.builder()
+            .resource(Resource.builder()
+                .id(resourceId)
+                .definition(resourceDefinition)
+                .build())
+            .access(AccessEnvelope.builder()
+                .permissions(ImmutableMap.of(JsonPointer.valueOf(rootLevelObject), ImmutableSet.of(READ)))
+                .accessType(EXPLICIT)
+                .build())
+            .relationships(ImmutableSet.of(idamRoleWithRoleBasedAccess))
+            .build());
+    }
+
+    @Test
+    void whenFilteringBytesWithoutAccessRecordsShouldReturnNullAndWriteNothing() throws IOException {
+        ByteArrayOutputStream filteredData = new ByteArrayOutputStream();
+        FilteredResourceEnvelope result = filterResourceService.filterResource(
+            accessorId, ImmutableSet.of(idamRoleWithExplicitAccess), resourceId, resourceDefinition,
+            mapper.writeValueAsBytes(createData()), filteredData, null);
+
+        assertThat(result).isNull();
+        assertThat(filteredData.size()).isZero();
+    }
+
     private DefaultPermissionGrant createDefaultPermissionGrant(String roleName,
                                                                 ResourceDefinition resourceDefinition,
                                                                 String attribute,
@@ -118,6 +118,22 @@ class GetRolePermissionsIntegrationTest extends PreconfiguredIntegrationBaseTest
             .build());
     }
 
+    @Test
+    void whenRoleSecurityClassificationIsChangedShouldReturnPermissionsForNewSecurityClassification() {
+        Map.Entry<Set<Permission>, SecurityClassification> restrictedReadPermission =
+            new Pair<>(ImmutableSet.of(READ), RESTRICTED);
+
+        addRoleWithSecurityClassification(roleName, PUBLIC);
+        grantDefaultPermissionForRole(roleName, ImmutableMap.of(JsonPointer.valueOf(""), restrictedReadPermission));
+
+        assertThat(service.getRolePermissions(resourceDefinition, roleName)).isNull();
+
+        addRoleWithSecurityClassification(roleName, RESTRICTED);
+
+        assertThat(service.getRolePermissions(resourceDefinition, roleName).getRoleSecurityClassification())
+            .isEqualTo(RESTRICTED);
+    }
+
     @Test
     void whenInsufficientRolePermissionsShouldReturnNull() {
         Map.Entry<Set<Permission>, SecurityClassification> publicReadPermission =
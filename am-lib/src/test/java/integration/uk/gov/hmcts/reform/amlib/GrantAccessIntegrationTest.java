@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.MDC;
 import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
 import uk.gov.hmcts.reform.amlib.DefaultRoleSetupImportServiceImpl;
 import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
@@ -164,6 +165,49 @@ class GrantAccessIntegrationTest extends PreconfiguredIntegrationBaseTest {
         assertThat(explicitAccessAuditRecord).isEqualTo(expectedResult);
     }
 
+    @Test
+    @ExtendWith(AuditFlagValidate.class)
+    @AuditEnabled("true")
+    void whenGrantingMultipleAccessorsAndAttributesEachRecordShouldBeAuditedWithItsId() {
+        ExplicitAccessGrant explicitAccessGrant = ExplicitAccessGrant.builder()
+            .resourceId(resourceId)
+            .accessorIds(ImmutableSet.of(accessorId, UUID.randomUUID().toString(), UUID.randomUUID().toString()))
+            .accessorType(USER)
+            .resourceDefinition(resourceDefinition)
+            .attributePermissions(ImmutableMap.of(
+                JsonPointer.valueOf(""), ImmutableSet.of(READ),
+                JsonPointer.valueOf("/name"), ImmutableSet.of(CREATE, READ)))
+            .relationship(roleName)
+            .callingServiceName(CALLING_SERVICE_NAME_FOR_INSERTION)
+            .changedBy(CHANGED_BY_NAME_FOR_INSERTION)
+            .build();
+
+        service.grantExplicitResourceAccess(explicitAccessGrant);
+
+        assertThat(databaseHelper.countExplicitPermissions(resourceId)).isEqualTo(6);
+        assertThat(databaseHelper.countExplicitAccessAuditRecordsMatchingAccess(resourceId)).isEqualTo(6);
+    }
+
+    @Test
+    void whenAuditIsAsynchronousEachRecordShouldBeAuditedAfterGrant() throws InterruptedException {
+        AccessManagementService asynchronousAuditService = new AccessManagementService(createDataSource(),
+            AmLibConfig.builder().asynchronousAudit(true).build());
+
+        asynchronousAuditService.grantExplicitResourceAccess(createExplicitAccessGrantWithAudit(resourceId, accessorId,
+            roleName, resourceDefinition, CALLING_SERVICE_NAME_FOR_INSERTION));
+
+        int numberOfRecords = databaseHelper.countExplicitPermissions(resourceId);
+        for (int attempt = 0; attempt < 50
+            && databaseHelper.countExplicitAccessAuditRecordsMatchingAccess(resourceId) < numberOfRecords; attempt++) {
+            Thread.sleep(100);
+        }
+
+        assertThat(databaseHelper.countExplicitAccessAuditRecordsMatchingAccess(resourceId)).isEqualTo(numberOfRecords);
+        assertThat(asynchronousAuditService.getAuditQueueMetrics())
+            .hasValueSatisfying(metrics -> assertThat(metrics.getFlushedRecords()).isEqualTo(numberOfRecords));
+        assertThat(service.getAuditQueueMetrics()).isEmpty();
+    }
+
     @Test
     @ExtendWith(AuditFlagValidate.class)
     @AuditEnabled("false")
@@ -0,0 +1,84 @@
+package integration.uk.gov.hmcts.reform.amlib;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import integration.uk.gov.hmcts.reform.amlib.base.PreconfiguredIntegrationBaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.DefaultRoleSetupImportServiceImpl;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.models.ResourceAccessor;
+import uk.gov.hmcts.reform.amlib.models.ResourceAccessorsEnvelope;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+import uk.gov.hmcts.reform.amlib.service.DefaultRoleSetupImportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.EXPLICIT;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrantForWholeDocument;
+
+class ReturnResourceAccessorsIntegrationTest extends PreconfiguredIntegrationBaseTest {
+
+    private static AccessManagementService service = initService(AccessManagementService.class);
+    private static FilterResourceService filterResourceService = initService(FilterResourceService.class);
+    private static DefaultRoleSetupImportService importerService = initService(DefaultRoleSetupImportServiceImpl.class);
+
+    private String resourceId;
+    private String relationship;
+    private ResourceDefinition resourceDefinition;
+    private List<String> accessorIds;
+
+    @BeforeEach
+    void setUp() {
+        resourceId = UUID.randomUUID().toString();
+        importerService.addRole(relationship = UUID.randomUUID().toString(), IDAM, PUBLIC, EXPLICIT);
+        importerService.addResourceDefinition(resourceDefinition =
+            createResourceDefinition(serviceName, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+
+        accessorIds = ImmutableList.sortedCopyOf(ImmutableList.of(UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+        accessorIds.forEach(accessorId -> service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            resourceId, accessorId, relationship, resourceDefinition, ImmutableSet.of(READ))));
+        service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            resourceId, accessorIds.get(0), null, resourceDefinition, ImmutableSet.of(CREATE)));
+    }
+
+    @Test
+    void whenResourceAccessorsArePagedShouldReturnAccessorsAfterGivenAccessor() {
+        ResourceAccessorsEnvelope firstPage = filterResourceService.returnResourceAccessors(resourceId,
+            resourceDefinition.getResourceName(), resourceDefinition.getResourceType(), null, 2);
+        ResourceAccessorsEnvelope secondPage = filterResourceService.returnResourceAccessors(resourceId,
+            resourceDefinition.getResourceName(), resourceDefinition.getResourceType(),
+            firstPage.getExplicitAccessors().get(1).getAccessorId(), 2);
+
+        assertThat(accessorIdsOf(firstPage.getExplicitAccessors())).isEqualTo(accessorIds.subList(0, 2));
+        assertThat(accessorIdsOf(secondPage.getExplicitAccessors())).isEqualTo(accessorIds.subList(2, 3));
+        assertThat(firstPage.getExplicitAccessors().get(0).getPermissions().values())
+            .containsExactly(ImmutableSet.of(CREATE, READ));
+    }
+
+    @Test
+    void whenResourceAccessorsAreStreamedShouldPassEachAccessorOnceInOrder() {
+        List<ResourceAccessor> result = new ArrayList<>();
+        filterResourceService.streamResourceAccessors(resourceId, resourceDefinition.getResourceName(),
+            resourceDefinition.getResourceType(), result::add);
+
+        assertThat(accessorIdsOf(result)).isEqualTo(accessorIds);
+        assertThat(result.get(0).getRelationships()).containsOnly(relationship);
+        assertThat(result.get(0).getPermissions().values()).containsExactly(ImmutableSet.of(CREATE, READ));
+    }
+
+    private List<String> accessorIdsOf(List<ResourceAccessor> resourceAccessors) {
+        return resourceAccessors.stream().map(ResourceAccessor::getAccessorId).collect(toList());
+    }
+}
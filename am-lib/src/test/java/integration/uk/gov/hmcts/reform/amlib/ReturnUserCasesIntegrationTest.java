@@ -12,6 +12,7 @@ import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
 import uk.gov.hmcts.reform.amlib.models.UserCasesEnvelope;
 import uk.gov.hmcts.reform.amlib.service.DefaultRoleSetupImportService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -125,6 +126,35 @@ public class ReturnUserCasesIntegrationTest extends PreconfiguredIntegrationBase
             .build());
     }
 
+    @Test
+    void whenUserCasesArePagedShouldReturnCasesAfterGivenCase() {
+        List<String> caseIds = sortedImmutableListOf(resourceId, UUID.randomUUID().toString(),
+            UUID.randomUUID().toString());
+        caseIds.forEach(caseId -> service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            caseId, accessorId, idamRoleWithExplicitAccess, resourceDefinition, ImmutableSet.of(READ))));
+
+        UserCasesEnvelope firstPage = service.returnUserCases(accessorId, null, 2);
+        UserCasesEnvelope secondPage = service.returnUserCases(accessorId, firstPage.getCases().get(1), 2);
+
+        assertThat(firstPage.getCases()).isEqualTo(caseIds.subList(0, 2));
+        assertThat(secondPage.getCases()).isEqualTo(caseIds.subList(2, 3));
+    }
+
+    @Test
+    void whenUserCasesAreStreamedShouldPassAllCasesInOrder() {
+        List<String> caseIds = sortedImmutableListOf(resourceId, UUID.randomUUID().toString());
+        caseIds.forEach(caseId -> service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            caseId, accessorId, idamRoleWithExplicitAccess, resourceDefinition, ImmutableSet.of(READ))));
+        service.grantExplicitResourceAccess(createGrantForWholeDocument(
+            UUID.randomUUID().toString(), UUID.randomUUID().toString(), idamRoleWithExplicitAccess,
+            resourceDefinition, ImmutableSet.of(READ)));
+
+        List<String> result = new ArrayList<>();
+        service.streamUserCases(accessorId, result::add);
+
+        assertThat(result).isEqualTo(caseIds);
+    }
+
     private List<String> sortedImmutableListOf(String... roles) {
         return ImmutableList.sortedCopyOf(Arrays.asList(roles));
     }
@@ -6,9 +6,11 @@ import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.configuration.FluentConfiguration;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.postgresql.ds.PGSimpleDataSource;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import java.lang.reflect.Constructor;
+import javax.sql.DataSource;
 
 @SuppressWarnings({
     "PMD.AbstractClassWithoutAbstractMethod",
@@ -39,6 +41,14 @@ public abstract class IntegrationBaseTest {
         }
     }
 
+    protected static DataSource createDataSource() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(db.getJdbcUrl());
+        dataSource.setUser(db.getUsername());
+        dataSource.setPassword(db.getPassword());
+        return dataSource;
+    }
+
     @SuppressWarnings("unchecked")
     private static PostgreSQLContainer createDatabaseContainer() {
         return (PostgreSQLContainer) new PostgreSQLContainer("postgres:10")
@@ -72,6 +72,12 @@ public interface DatabaseHelperRepository {
     @RegisterConstructorMapper(ExplicitAccessRecord.class)
     List<ExplicitAccessRecord> findExplicitPermissions(String resourceId);
 
+    @SqlQuery("select count(1) from access_management_audit as ama "
+        + "join access_management as am on am.access_management_id = ama.access_management_id "
+        + "and am.accessor_id = ama.accessor_id and am.attribute = ama.attribute "
+        + "where ama.resource_id = :resourceId")
+    int countExplicitAccessAuditRecordsMatchingAccess(String resourceId);
+
     @SqlQuery("select * from access_management "
         + "where service_name = :serviceName "
         + "and resource_type = :resourceType "
@@ -1,7 +1,9 @@
 package uk.gov.hmcts.reform.amlib;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
 import uk.gov.hmcts.reform.amlib.helpers.InvalidArgumentsProvider;
 import uk.gov.hmcts.reform.amlib.models.ExplicitAccessGrant;
 import uk.gov.hmcts.reform.amlib.models.ExplicitAccessMetadata;
@@ -14,7 +16,10 @@ import static uk.gov.hmcts.reform.amlib.helpers.ValidationMessageRegexFactory.ex
 
 @SuppressWarnings("PMD.LinguisticNaming")
 class AccessManagementServiceValidationTest {
-    private final AccessManagementService service = new AccessManagementService("", "", "");
+    private static final String VALID_VALUE = "valid string";
+
+    private final AccessManagementService service = new AccessManagementService("", "", "",
+        AmLibConfig.builder().cacheInvalidationListenerMode(CacheInvalidationListenerMode.OFF).build());
 
     @ParameterizedTest
     @ArgumentsSource(InvalidArgumentsProvider.class)
@@ -95,4 +100,21 @@ class AccessManagementServiceValidationTest {
             ));
     }
 
+    @Test
+    void returnUserCasesPageShouldRejectNonPositiveLimit() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.returnUserCases(VALID_VALUE, null, 0))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "limit - must be greater than 0"
+            ));
+    }
+
+    @Test
+    void streamUserCasesShouldRejectMissingConsumer() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.streamUserCases(VALID_VALUE, null))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "consumer - must not be null"
+            ));
+    }
 }
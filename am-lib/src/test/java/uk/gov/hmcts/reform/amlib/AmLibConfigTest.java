@@ -0,0 +1,64 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
+import uk.gov.hmcts.reform.amlib.validation.ValidationMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmLibConfigTest {
+
+    @Test
+    void auditShouldBeRequiredByDefault() {
+        assertThat(AmLibConfig.builder().build().isAuditRequired()).isTrue();
+    }
+
+    @Test
+    void auditFlagShouldBeReadFromProperties() {
+        assertThat(AmLibConfig.fromProperties().isAuditRequired()).isTrue();
+    }
+
+    @Test
+    void auditFlagShouldBeChangeableAtRuntime() {
+        AmLibConfig config = AmLibConfig.builder().auditRequired(false).build();
+        assertThat(config.isAuditRequired()).isFalse();
+
+        config.setAuditRequired(true);
+
+        assertThat(config.isAuditRequired()).isTrue();
+    }
+
+    @Test
+    void asynchronousAuditShouldBeDisabledByDefault() {
+        AmLibConfig config = AmLibConfig.builder().build();
+
+        assertThat(config.isAsynchronousAudit()).isFalse();
+        assertThat(AmLibConfig.fromProperties().isAsynchronousAudit()).isFalse();
+        assertThat(config.getAuditQueueCapacity()).isEqualTo(AmLibConfig.DEFAULT_AUDIT_QUEUE_CAPACITY);
+        assertThat(config.getAuditBatchSize()).isEqualTo(AmLibConfig.DEFAULT_AUDIT_BATCH_SIZE);
+    }
+
+    @Test
+    void auditCollectionLimitShouldBeReadFromPropertiesOrSetOnBuilder() {
+        assertThat(AmLibConfig.builder().build().getAuditCollectionLimit())
+            .isEqualTo(AmLibConfig.DEFAULT_AUDIT_COLLECTION_LIMIT);
+        assertThat(AmLibConfig.fromProperties().getAuditCollectionLimit()).isEqualTo(100);
+        assertThat(AmLibConfig.builder().auditCollectionLimit(5).build().getAuditCollectionLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void validationModeShouldBeReadFromPropertiesOrSetOnBuilder() {
+        assertThat(AmLibConfig.builder().build().getValidationMode()).isEqualTo(ValidationMode.BOUNDARY);
+        assertThat(AmLibConfig.fromProperties().getValidationMode()).isEqualTo(ValidationMode.BOUNDARY);
+        assertThat(AmLibConfig.builder().validationMode(ValidationMode.OFF).build().getValidationMode())
+            .isEqualTo(ValidationMode.OFF);
+    }
+
+    @Test
+    void cacheInvalidationListenerShouldUseDedicatedConnectionByDefault() {
+        assertThat(AmLibConfig.builder().build().getCacheInvalidationListenerMode())
+            .isEqualTo(CacheInvalidationListenerMode.DEDICATED_CONNECTION);
+        assertThat(AmLibConfig.fromProperties().getCacheInvalidationListenerMode())
+            .isEqualTo(CacheInvalidationListenerMode.DEDICATED_CONNECTION);
+    }
+}
@@ -0,0 +1,104 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AmLibContextTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+
+    @Test
+    void servicesBuiltFromSameContextShouldShareCaches() {
+        AmLibContext context = AmLibContext.create(dataSource);
+        AmLibContext otherContext = AmLibContext.create(dataSource);
+
+        assertThat(context.getRoleCache())
+            .isSameAs(context.getRoleCache())
+            .isNotSameAs(otherContext.getRoleCache());
+        assertThat(context.getDefaultPermissionsCache())
+            .isSameAs(context.getDefaultPermissionsCache())
+            .isNotSameAs(otherContext.getDefaultPermissionsCache());
+    }
+
+    @Test
+    void contextAcquiredWithSameDataSourceShouldBeSharedUntilReleasedByAll() {
+        AmLibContext context = AmLibContext.acquire(dataSource);
+        AmLibContext sameContext = AmLibContext.acquire(dataSource);
+
+        assertThat(sameContext).isSameAs(context);
+
+        context.release();
+        AmLibContext stillSameContext = AmLibContext.acquire(dataSource);
+
+        assertThat(stillSameContext).isSameAs(context);
+
+        sameContext.release();
+        stillSameContext.release();
+        AmLibContext newContext = AmLibContext.acquire(dataSource);
+
+        assertThat(newContext).isNotSameAs(context);
+        newContext.release();
+    }
+
+    @Test
+    void contextAcquiredWithDifferentDataSourceOrConfigShouldNotBeShared() {
+        AmLibConfig config = AmLibConfig.builder().build();
+        AmLibContext context = AmLibContext.acquire(dataSource, config);
+        AmLibContext sameContext = AmLibContext.acquire(dataSource, config);
+        AmLibContext otherConfigContext = AmLibContext.acquire(dataSource, AmLibConfig.builder().build());
+        AmLibContext otherDataSourceContext = AmLibContext.acquire(mock(DataSource.class), config);
+
+        assertThat(sameContext).isSameAs(context);
+        assertThat(context.getConfig()).isSameAs(config);
+        assertThat(otherConfigContext).isNotSameAs(context);
+        assertThat(otherDataSourceContext).isNotSameAs(context);
+
+        context.release();
+        sameContext.release();
+        otherConfigContext.release();
+        otherDataSourceContext.release();
+    }
+
+    @Test
+    void closingContextShouldStopCacheInvalidationListener() throws SQLException {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        AmLibContext context = AmLibContext.create(dataSource,
+            AmLibConfig.builder().cacheInvalidationListenerMode(CacheInvalidationListenerMode.ALL_CONTEXTS).build());
+        context.startCacheInvalidationListener();
+
+        assertThat(context.isCacheInvalidationListenerRunning()).isTrue();
+
+        context.close();
+        context.startCacheInvalidationListener();
+
+        assertThat(context.isCacheInvalidationListenerRunning()).isFalse();
+    }
+
+    @Test
+    void whenCreatedWithDataSourceShouldNotStartCacheInvalidationListenerByDefault() {
+        AmLibContext context = AmLibContext.create(dataSource, AmLibConfig.builder().build());
+
+        context.startCacheInvalidationListener();
+
+        assertThat(context.isCacheInvalidationListenerRunning()).isFalse();
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void whenCacheInvalidationListenerIsDisabledShouldNotStartIt() {
+        AmLibContext context = AmLibContext.create(dataSource,
+            AmLibConfig.builder().cacheInvalidationListenerMode(CacheInvalidationListenerMode.OFF).build());
+
+        context.startCacheInvalidationListener();
+
+        assertThat(context.isCacheInvalidationListenerRunning()).isFalse();
+    }
+}
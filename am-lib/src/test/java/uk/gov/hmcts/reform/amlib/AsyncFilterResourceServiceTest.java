@@ -0,0 +1,125 @@
+package uk.gov.hmcts.reform.amlib;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import uk.gov.hmcts.reform.amlib.exceptions.PersistenceException;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
+
+@SuppressWarnings("PMD.DoNotUseThreads") // Filtering is expected to run on executor thread
+class AsyncFilterResourceServiceTest {
+
+    private static final String USER_ID = "user";
+    private static final Set<String> USER_ROLES = ImmutableSet.of("role");
+    private static final Resource RESOURCE = createResource("resource", createResourceDefinition("a", "b", "c"));
+
+    private final FilterResourceService filterResourceService = mock(FilterResourceService.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AsyncFilterResourceService service = new AsyncFilterResourceService(filterResourceService, executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    void filterResourceShouldCompleteWithResultOfFilterService() {
+        FilteredResourceEnvelope envelope = FilteredResourceEnvelope.builder().resource(RESOURCE).build();
+        when(filterResourceService.filterResource(USER_ID, USER_ROLES, RESOURCE, null)).thenReturn(envelope);
+
+        assertThat(service.filterResource(USER_ID, USER_ROLES, RESOURCE, null).join()).isSameAs(envelope);
+    }
+
+    @Test
+    void filterResourcesShouldCompleteWithResultOfFilterService() {
+        List<FilteredResourceEnvelope> envelopes = ImmutableList.of(
+            FilteredResourceEnvelope.builder().resource(RESOURCE).build());
+        when(filterResourceService.filterResources(USER_ID, USER_ROLES, ImmutableList.of(RESOURCE), null))
+            .thenReturn(envelopes);
+
+        assertThat(service.filterResources(USER_ID, USER_ROLES, ImmutableList.of(RESOURCE), null).join())
+            .isSameAs(envelopes);
+    }
+
+    @Test
+    void filterResourceShouldRunOnExecutorWithMdcOfCallingThread() {
+        AtomicReference<Thread> filteringThread = new AtomicReference<>();
+        AtomicReference<String> filteringCaller = new AtomicReference<>();
+        when(filterResourceService.filterResource(anyString(), anySet(), any(Resource.class), any()))
+            .thenAnswer(invocation -> {
+                filteringThread.set(Thread.currentThread());
+                filteringCaller.set(MDC.get("caller"));
+                return null;
+            });
+        MDC.put("caller", "calling service");
+
+        service.filterResource(USER_ID, USER_ROLES, RESOURCE, null).join();
+
+        assertThat(filteringThread.get()).isNotSameAs(Thread.currentThread());
+        assertThat(filteringCaller.get()).isEqualTo("calling service");
+        assertThat(CompletableFuture.supplyAsync(() -> MDC.get("caller"), executor).join()).isNull();
+    }
+
+    @Test
+    void whenFilterServiceFailsShouldCompleteExceptionally() {
+        PersistenceException exception = new PersistenceException(new IllegalStateException("database is down"));
+        when(filterResourceService.filterResources(anyString(), anySet(), anyList(), any()))
+            .thenThrow(exception);
+
+        CompletableFuture<List<FilteredResourceEnvelope>> result =
+            service.filterResources(USER_ID, USER_ROLES, ImmutableList.of(RESOURCE), null);
+
+        assertThatExceptionOfType(CompletionException.class)
+            .isThrownBy(result::join)
+            .withCause(exception);
+    }
+
+    @Test
+    void whenArgumentsAreInvalidShouldRejectThemBeforeFiltering() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.filterResource("", USER_ROLES, RESOURCE, null));
+
+        // configuration of filter service selects validation mode, nothing else is called
+        verify(filterResourceService).getConfig();
+        verifyNoMoreInteractions(filterResourceService);
+    }
+
+    @Test
+    void whenSecurityClassificationsOfResourcesHaveNoRootAttributeShouldRejectThemBeforeFiltering() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.filterResources(USER_ID, USER_ROLES, ImmutableList.of(RESOURCE),
+                ImmutableMap.of(JsonPointer.valueOf("/name"), PUBLIC)));
+
+        // configuration of filter service selects validation mode, nothing else is called
+        verify(filterResourceService).getConfig();
+        verifyNoMoreInteractions(filterResourceService);
+    }
+}
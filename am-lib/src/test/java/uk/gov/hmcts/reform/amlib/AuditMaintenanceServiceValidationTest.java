@@ -0,0 +1,39 @@
+package uk.gov.hmcts.reform.amlib;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static uk.gov.hmcts.reform.amlib.helpers.ValidationMessageRegexFactory.expectedValidationMessagesRegex;
+
+@SuppressWarnings("PMD.LinguisticNaming")
+class AuditMaintenanceServiceValidationTest {
+
+    private final AuditMaintenanceService service = new AuditMaintenanceService("", "", "");
+
+    @Test
+    void createAuditPartitionsMethodShouldRejectNegativeNumberOfMonths() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.createAuditPartitions(-1))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "monthsAhead - must be greater than or equal to 0"
+            ));
+    }
+
+    @Test
+    void detachAuditPartitionsMethodShouldRejectMissingDate() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.detachAuditPartitionsOlderThan(null))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "olderThan - must not be null"
+            ));
+    }
+
+    @Test
+    void dropAuditPartitionsMethodShouldRejectMissingDate() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.dropAuditPartitionsOlderThan(null))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "olderThan - must not be null"
+            ));
+    }
+}
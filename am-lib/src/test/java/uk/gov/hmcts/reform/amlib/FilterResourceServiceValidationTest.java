@@ -1,24 +1,36 @@
 package uk.gov.hmcts.reform.amlib;
 
 import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import uk.gov.hmcts.reform.amlib.enums.CacheInvalidationListenerMode;
 import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
 import uk.gov.hmcts.reform.amlib.helpers.InvalidArgumentsProvider;
 import uk.gov.hmcts.reform.amlib.internal.validation.ValidAttributeSecurityClassification;
 import uk.gov.hmcts.reform.amlib.models.Resource;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
 import static uk.gov.hmcts.reform.amlib.helpers.ValidationMessageRegexFactory.expectedValidationMessagesRegex;
 
 @SuppressWarnings("PMD.LinguisticNaming")
 public class FilterResourceServiceValidationTest {
 
-    private final FilterResourceService service = new FilterResourceService("", "", "");
+    private static final String VALID_VALUE = "valid string";
+
+    private final FilterResourceService service = new FilterResourceService("", "", "",
+        AmLibConfig.builder().cacheInvalidationListenerMode(CacheInvalidationListenerMode.OFF).build());
 
     @ParameterizedTest
     @ArgumentsSource(InvalidArgumentsProvider.class)
@@ -43,6 +55,34 @@ public class FilterResourceServiceValidationTest {
             ));
     }
 
+    @Test
+    void filterResourcesMethodShouldRejectSecurityClassificationsWithoutRootAttribute() {
+        Resource resource = createResource(VALID_VALUE, createResourceDefinition(VALID_VALUE, VALID_VALUE, VALID_VALUE));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.filterResources(VALID_VALUE, ImmutableSet.of(VALID_VALUE),
+                ImmutableList.of(resource), ImmutableMap.of(JsonPointer.valueOf("/name"), PUBLIC)))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "attributeSecurityClassifications - must contain root attribute"
+            ));
+    }
+
+    @Test
+    @SuppressWarnings("PMD.UseConcurrentHashMap") // Concurrent map does not accept null keys
+    void filterResourcesMethodShouldRejectSecurityClassificationsWithNullAttribute() {
+        Resource resource = createResource(VALID_VALUE, createResourceDefinition(VALID_VALUE, VALID_VALUE, VALID_VALUE));
+        Map<JsonPointer, SecurityClassification> attributeSecurityClassifications = new HashMap<>();
+        attributeSecurityClassifications.put(JsonPointer.valueOf(""), PUBLIC);
+        attributeSecurityClassifications.put(null, PUBLIC);
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.filterResources(VALID_VALUE, ImmutableSet.of(VALID_VALUE),
+                ImmutableList.of(resource), attributeSecurityClassifications))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "<map key> - must not be null"
+            ));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(InvalidArgumentsProvider.class)
     void getAccessRightsForResourceMethodShouldRejectInvalidArguments(
@@ -56,4 +96,22 @@ public class FilterResourceServiceValidationTest {
                 "resourceType - must not be blank"
             ));
     }
+
+    @Test
+    void returnResourceAccessorsPageShouldRejectNonPositiveLimit() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.returnResourceAccessors(VALID_VALUE, VALID_VALUE, VALID_VALUE, null, 0))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "limit - must be greater than 0"
+            ));
+    }
+
+    @Test
+    void streamResourceAccessorsShouldRejectMissingConsumer() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> service.streamResourceAccessors(VALID_VALUE, VALID_VALUE, VALID_VALUE, null))
+            .withMessageMatching(expectedValidationMessagesRegex(
+                "consumer - must not be null"
+            ));
+    }
 }
@@ -0,0 +1,45 @@
+package uk.gov.hmcts.reform.amlib.audit;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TruncatedCollectionTest {
+
+    @Test
+    void whenCollectionIsNotLargerThanLimitShouldReturnItUnchanged() {
+        List<String> value = Arrays.asList("a", "b");
+
+        assertThat(TruncatedCollection.truncate(value, 2)).isSameAs(value);
+    }
+
+    @Test
+    void whenValueIsNotCollectionShouldReturnItUnchanged() {
+        assertThat(TruncatedCollection.truncate("abc", 1)).isEqualTo("abc");
+    }
+
+    @Test
+    void whenCollectionIsLargerThanLimitShouldKeepOnlyFirstElements() {
+        Object value = TruncatedCollection.truncate(Arrays.asList("a", "b", "c", "d"), 2);
+
+        assertThat(value).isInstanceOf(TruncatedCollection.class);
+        TruncatedCollection truncated = (TruncatedCollection) value;
+        assertThat(truncated.getElements()).containsExactly("a", "b");
+        assertThat(truncated.getSize()).isEqualTo(4);
+        assertThat(truncated).hasToString("[a, b, ... 2 more]");
+    }
+
+    @Test
+    void whenMapIsLargerThanLimitShouldKeepOnlyFirstEntries() {
+        Map<String, Integer> map = ImmutableMap.of("a", 1, "b", 2, "c", 3);
+
+        Object value = TruncatedCollection.truncate(map, 1);
+
+        assertThat(value).hasToString("{a=1, ... 2 more}");
+    }
+}
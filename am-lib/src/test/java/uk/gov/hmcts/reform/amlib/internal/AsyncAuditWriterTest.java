@@ -0,0 +1,136 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.google.common.collect.ImmutableList;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.extension.ExtensionConsumer;
+import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.internal.models.ExplicitAccessRecord;
+import uk.gov.hmcts.reform.amlib.internal.repositories.AccessManagementRepository;
+import uk.gov.hmcts.reform.amlib.models.AuditQueueMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings({"PMD.DoNotUseThreads", "PMD.AvoidDuplicateLiterals"})
+class AsyncAuditWriterTest {
+
+    private static final long[] IDS = {1, 2, 3};
+    private static final List<ExplicitAccessRecord> RECORDS = ImmutableList.of(
+        ExplicitAccessRecord.builder().resourceId("resource").accessorId("user-1").build(),
+        ExplicitAccessRecord.builder().resourceId("resource").accessorId("user-2").build(),
+        ExplicitAccessRecord.builder().resourceId("resource").accessorId("user-3").build());
+
+    private final Jdbi jdbi = mock(Jdbi.class);
+
+    @Test
+    void whenQueueIsFullAuditShouldBeWrittenSynchronously() {
+        AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, 2, 10, Duration.ofMillis(10));
+
+        writer.write(IDS, RECORDS, "service", "user");
+
+        verify(jdbi).useExtension(eq(AccessManagementRepository.class), any());
+        AuditQueueMetrics metrics = writer.getMetrics();
+        assertThat(metrics.getQueueDepth()).isEqualTo(2);
+        assertThat(metrics.getSynchronousWrites()).isEqualTo(1);
+    }
+
+    @Test
+    void whenStoppedQueuedAuditShouldBeWrittenInBatches() {
+        AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, 10, 2, Duration.ofMillis(10));
+        writer.write(IDS, RECORDS, "service", "user");
+
+        Thread thread = new Thread(writer);
+        thread.start();
+        writer.stop(thread);
+
+        verify(jdbi, times(2)).useExtension(eq(AccessManagementRepository.class), any());
+        AuditQueueMetrics metrics = writer.getMetrics();
+        assertThat(metrics.getQueueDepth()).isZero();
+        assertThat(metrics.getFlushedRecords()).isEqualTo(3);
+        assertThat(metrics.getSynchronousWrites()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenWritingBatchFailsBatchShouldBeRetried() {
+        doThrow(new UnableToExecuteStatementException("connection refused", null)).doNothing()
+            .when(jdbi).useExtension(eq(AccessManagementRepository.class), any(ExtensionConsumer.class));
+        AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, 10, 10, Duration.ofMillis(10));
+        writer.write(IDS, RECORDS, "service", "user");
+
+        Thread thread = new Thread(writer);
+        thread.start();
+
+        verify(jdbi, timeout(5000).times(2)).useExtension(eq(AccessManagementRepository.class), any());
+        writer.stop(thread);
+        AuditQueueMetrics metrics = writer.getMetrics();
+        assertThat(metrics.getFailedFlushes()).isEqualTo(1);
+        assertThat(metrics.getFlushedRecords()).isEqualTo(3);
+    }
+
+    @Test
+    void whenGrantJoinedCallerTransactionAuditShouldBeQueuedOnlyAfterCommit() {
+        DataSource database = mock(DataSource.class);
+        AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, database, 10, 10, Duration.ofMillis(10));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.bindResource(database, new Object());
+        try {
+            writer.write(IDS, RECORDS, "service", "user");
+
+            assertThat(writer.getMetrics().getQueueDepth()).isZero();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertThat(writer.getMetrics().getQueueDepth()).isEqualTo(3);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(database);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenCallerTransactionIsNotBoundToDatabaseAuditShouldBeQueuedStraightAway() {
+        AsyncAuditWriter writer = new AsyncAuditWriter(jdbi, mock(DataSource.class), 10, 10, Duration.ofMillis(10));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            writer.write(IDS, RECORDS, "service", "user");
+
+            assertThat(writer.getMetrics().getQueueDepth()).isEqualTo(3);
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void whenWriterOfDatabaseIsRunningWithDifferentSettingsShouldRejectConfiguration() {
+        String database = "jdbc:postgresql://localhost/" + UUID.randomUUID();
+        AsyncAuditWriter writer = AsyncAuditWriter.startForDatabase(database, jdbi, AmLibConfig.builder().build());
+
+        assertThat(AsyncAuditWriter.startForDatabase(database, jdbi, AmLibConfig.builder().build())).isSameAs(writer);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> AsyncAuditWriter.startForDatabase(database, jdbi,
+                AmLibConfig.builder().auditBatchSize(1).build()))
+            .withMessageContaining("batch size 500");
+    }
+}
@@ -0,0 +1,138 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.AvoidDuplicateLiterals"})
+class BoundedCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final BoundedCache<String, String> cache = new BoundedCache<>(2, Duration.ofNanos(10), ticker::get);
+    private final List<Object> lookups = new CopyOnWriteArrayList<>();
+
+    @Test
+    void shouldLoadValueOnlyOnce() {
+        assertThat(cache.get("key", this::load)).isEqualTo("value of key");
+        assertThat(cache.get("key", this::load)).isEqualTo("value of key");
+
+        assertThat(lookups).containsExactly("key");
+    }
+
+    @Test
+    void shouldCacheNullValues() {
+        cache.get("key", key -> {
+            lookups.add(key);
+            return null;
+        });
+
+        assertThat(cache.get("key", this::load)).isNull();
+        assertThat(lookups).containsExactly("key");
+    }
+
+    @Test
+    void shouldLoadValueAgainWhenEntryHasExpired() {
+        cache.get("key", this::load);
+        ticker.addAndGet(10);
+        cache.get("key", this::load);
+
+        assertThat(lookups).containsExactly("key", "key");
+    }
+
+    @Test
+    void whenTimeToLiveIsNotGivenEntriesShouldNotExpire() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2);
+
+        cache.get("key", this::load);
+        cache.get("key", this::load);
+
+        assertThat(lookups).containsExactly("key");
+    }
+
+    @Test
+    void shouldNotBeAffectedByModificationsOfCallerOwnedKeysCachedUnderCopies() {
+        BoundedCache<Set<String>, String> cache = new BoundedCache<>(2);
+        Set<String> key = new HashSet<>(ImmutableSet.of("key"));
+
+        cache.get(key, Object::toString, (lookupKey, value) -> ImmutableSet.copyOf(lookupKey));
+        key.add("other");
+
+        assertThat(cache.get(ImmutableSet.of("key"), lookupKey -> "reloaded")).isEqualTo("[key]");
+    }
+
+    @Test
+    void shouldLoadOnlyMissingKeysAndCacheKeysMissingFromLoadedValues() {
+        cache.get("first", this::load);
+
+        assertThat(cache.getAll(ImmutableSet.of("first", "second"), keys -> {
+            lookups.add(keys);
+            return ImmutableMap.of();
+        })).containsOnly(entry("first", "value of first"));
+        assertThat(cache.getAll(ImmutableSet.of("first", "second"), this::loadAll))
+            .containsOnly(entry("first", "value of first"));
+
+        assertThat(lookups).containsExactly("first", ImmutableSet.of("second"));
+    }
+
+    @Test
+    void shouldNotCacheValuesLoadedWhileCacheWasInvalidated() {
+        cache.get("key", key -> {
+            cache.invalidateAll();
+            return load(key);
+        });
+        cache.getAll(ImmutableSet.of("other"), keys -> {
+            cache.invalidate("unrelated");
+            return loadAll(keys);
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldInvalidateKeysMatchingPredicate() {
+        cache.get("first", this::load);
+        cache.get("second", this::load);
+
+        cache.invalidateIf(key -> "first".equals(key));
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get("second", this::load);
+        assertThat(lookups).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenMaximumSizeIsExceeded() {
+        cache.get("first", this::load);
+        cache.get("second", this::load);
+        cache.get("first", this::load);
+        cache.get("third", this::load);
+
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.get("second", this::load);
+
+        assertThat(lookups).containsExactly("first", "second", "third", "second");
+    }
+
+    private String load(String key) {
+        lookups.add(key);
+        return "value of " + key;
+    }
+
+    private ImmutableMap<String, String> loadAll(Set<String> keys) {
+        lookups.add(keys);
+        ImmutableMap.Builder<String, String> values = ImmutableMap.builder();
+        keys.forEach(key -> values.put(key, "value of " + key));
+        return values.build();
+    }
+}
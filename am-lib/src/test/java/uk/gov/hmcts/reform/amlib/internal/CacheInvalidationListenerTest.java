@@ -0,0 +1,164 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import uk.gov.hmcts.reform.amlib.internal.models.CacheInvalidation;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createPermissions;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class CacheInvalidationListenerTest {
+
+    private static final ResourceDefinition CASE = new ResourceDefinition("cmc", "case", "claim");
+    private static final ResourceDefinition OTHER_CASE = new ResourceDefinition("cmc", "case", "defence");
+
+    private final RoleCache roleCache = new RoleCache();
+    private final DefaultPermissionsCache defaultPermissionsCache = new DefaultPermissionsCache();
+    private final CacheInvalidationListener listener =
+        new CacheInvalidationListener(null, roleCache, defaultPermissionsCache);
+
+    @BeforeEach
+    void setUp() {
+        roleCache.getRoles(ImmutableSet.of("caseworker", "solicitor"), ImmutableSet.of(ROLE_BASED),
+            roleNames -> ImmutableSet.of(Role.builder()
+                .roleName("caseworker")
+                .roleType(IDAM)
+                .securityClassification(PUBLIC)
+                .accessType(ROLE_BASED)
+                .build()));
+        defaultPermissionsCache.getPermissions(CASE, ImmutableSet.of("caseworker"),
+            () -> createPermissions("", ImmutableSet.of(READ)));
+        defaultPermissionsCache.getPermissions(OTHER_CASE, ImmutableSet.of("caseworker"),
+            () -> createPermissions("", ImmutableSet.of(READ)));
+    }
+
+    @Test
+    void whenRoleChangedShouldInvalidateRole() {
+        listener.handle(CacheInvalidationListener.toPayload(CacheInvalidation.builder().roleName("caseworker").build()));
+
+        assertThat(roleCache.size()).isEqualTo(1);
+        assertThat(defaultPermissionsCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void whenDefaultPermissionsOfResourceDefinitionChangedShouldInvalidateThatResourceDefinition() {
+        listener.handle(CacheInvalidationListener.toPayload(CacheInvalidation.builder()
+            .serviceName("cmc")
+            .resourceType("case")
+            .resourceName("claim")
+            .build()));
+
+        assertThat(roleCache.size()).isEqualTo(2);
+        assertThat(defaultPermissionsCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenDefaultPermissionsOfResourceTypeChangedShouldInvalidateAllResourceDefinitionsOfThatType() {
+        listener.handle(CacheInvalidationListener.toPayload(CacheInvalidation.builder()
+            .serviceName("cmc")
+            .resourceType("case")
+            .build()));
+
+        assertThat(roleCache.size()).isEqualTo(2);
+        assertThat(defaultPermissionsCache.size()).isZero();
+    }
+
+    @Test
+    void whenNotificationHasNoDetailsShouldInvalidateEverything() {
+        listener.handle(CacheInvalidationListener.toPayload(CacheInvalidation.builder().build()));
+
+        assertThat(roleCache.size()).isZero();
+        assertThat(defaultPermissionsCache.size()).isZero();
+    }
+
+    @Test
+    void whenNotificationIsNotRecognisedShouldInvalidateEverything() {
+        listener.handle("role:caseworker");
+
+        assertThat(roleCache.size()).isZero();
+        assertThat(defaultPermissionsCache.size()).isZero();
+    }
+
+    @Test
+    void payloadShouldContainOnlyFieldsThatAreSet() {
+        assertThat(CacheInvalidationListener.toPayload(CacheInvalidation.builder().roleName("caseworker").build()))
+            .isEqualTo("{\"roleName\":\"caseworker\"}");
+    }
+
+    @Test
+    void whenStoppedShouldStopRetryingToConnect() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        CacheInvalidationListener listener =
+            CacheInvalidationListener.start(Jdbi.create(dataSource), roleCache, defaultPermissionsCache);
+
+        listener.stop();
+
+        assertThat(listener.isRunning()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("PMD.CloseResource") // Connection is closed by listener, which is verified
+    void whenDatabaseIsNotPostgresShouldStopAndReleaseConnection() throws SQLException, InterruptedException {
+        Connection connection = mock(Connection.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        CacheInvalidationListener listener =
+            CacheInvalidationListener.start(Jdbi.create(dataSource), roleCache, defaultPermissionsCache);
+        for (int i = 0; i < 100 && listener.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(listener.isRunning()).isFalse();
+        verify(connection).close();
+    }
+
+    @Test
+    @SuppressWarnings("PMD.CloseResource") // Connection is closed by listener, which is verified
+    void whenStoppedShouldStopListeningBeforeReleasingConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(mock(PGConnection.class));
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(mock(PreparedStatement.class));
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        CacheInvalidationListener listener =
+            CacheInvalidationListener.start(Jdbi.create(dataSource), roleCache, defaultPermissionsCache);
+        verify(connection, timeout(1000)).unwrap(PGConnection.class);
+
+        listener.stop();
+
+        assertThat(listener.isRunning()).isFalse();
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).prepareStatement(eq("listen " + CacheInvalidationListener.CHANNEL), anyInt(), anyInt());
+        inOrder.verify(connection).prepareStatement(eq("unlisten *"), anyInt(), anyInt());
+        inOrder.verify(connection).close();
+    }
+}
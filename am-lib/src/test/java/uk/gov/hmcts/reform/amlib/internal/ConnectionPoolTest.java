@@ -0,0 +1,146 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("PMD.CloseResource") // Connections are closed explicitly to test returning them to the pool
+class ConnectionPoolTest {
+    private static final String URL = "jdbc:am-lib-test:pool";
+    private static final TestDriver DRIVER = new TestDriver();
+
+    private final ConnectionPool pool = new ConnectionPool(URL, "user", "password", AmLibConfig.builder()
+        .connectionPoolSize(1)
+        .connectionTimeout(Duration.ofMillis(50))
+        .build());
+
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterAll
+    static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @AfterEach
+    void clearConnections() {
+        DRIVER.connections.clear();
+    }
+
+    @Test
+    void whenConnectionIsReturnedShouldReuseIt() throws SQLException {
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        assertThat(DRIVER.connections).hasSize(1);
+    }
+
+    @Test
+    void whenAllConnectionsAreInUseShouldFailAfterTimeout() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(pool::getConnection)
+                .withMessage("Timed out after 50 ms waiting for connection");
+        }
+    }
+
+    @Test
+    void whenConnectionIsReturnedShouldRejectFurtherUse() throws SQLException {
+        Connection connection = pool.getConnection();
+        connection.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThatExceptionOfType(SQLException.class)
+            .isThrownBy(connection::createStatement)
+            .withMessage("Connection has been returned to the pool");
+    }
+
+    @Test
+    void whenConnectionIsReturnedWithinTransactionShouldRollBackTransaction() throws SQLException {
+        Connection connection = pool.getConnection();
+        Connection driverConnection = DRIVER.connections.get(0);
+        when(driverConnection.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(driverConnection).rollback();
+        verify(driverConnection).setAutoCommit(true);
+    }
+
+    @Test
+    void whenPoolIsClosedShouldCloseIdleConnectionsAndRejectNewRequests() throws SQLException {
+        pool.getConnection().close();
+
+        pool.close();
+
+        verify(DRIVER.connections.get(0)).close();
+        assertThatExceptionOfType(SQLException.class)
+            .isThrownBy(pool::getConnection)
+            .withMessage("Connection pool is closed");
+    }
+
+    private static class TestDriver implements Driver {
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            Connection connection = mock(Connection.class);
+            connections.add(connection);
+            return connection;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return URL.equals(url);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
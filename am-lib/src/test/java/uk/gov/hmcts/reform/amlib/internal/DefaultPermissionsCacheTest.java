@@ -0,0 +1,139 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.models.ResourceDefinition;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createPermissions;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class DefaultPermissionsCacheTest {
+
+    private static final ResourceDefinition CASE = new ResourceDefinition("cmc", "case", "claim");
+    private static final ResourceDefinition OTHER_CASE = new ResourceDefinition("cmc", "case", "defence");
+    private static final ResourceDefinition OTHER_SERVICE_CASE = new ResourceDefinition("divorce", "case", "claim");
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final DefaultPermissionsCache cache = new DefaultPermissionsCache(2, Duration.ofNanos(10), ticker::get);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Map<JsonPointer, Set<Permission>>> loader = () -> {
+        loads.incrementAndGet();
+        return createPermissions("", ImmutableSet.of(READ));
+    };
+
+    @Test
+    void shouldReturnCachedPermissionsForSameRolesInAnyOrder() {
+        Map<JsonPointer, Set<Permission>> permissions =
+            cache.getPermissions(CASE, ImmutableSet.of("caseworker", "solicitor"), loader);
+
+        assertThat(cache.getPermissions(CASE, ImmutableSet.of("solicitor", "caseworker"), loader))
+            .isSameAs(permissions)
+            .isEqualTo(createPermissions("", ImmutableSet.of(READ)));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldLoadPermissionsForDifferentRolesOrResourceDefinitions() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader);
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker", "solicitor"), loader);
+        cache.getPermissions(OTHER_CASE, ImmutableSet.of("caseworker"), loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void shouldCacheMissingPermissions() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertThat(cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader)).isNull();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldReturnImmutablePermissions() {
+        Map<JsonPointer, Set<Permission>> permissions = cache.getPermissions(CASE, ImmutableSet.of("caseworker"),
+            () -> createPermissions("", ImmutableSet.of(READ)));
+
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> permissions.get(JsonPointer.valueOf("")).add(CREATE));
+    }
+
+    @Test
+    void shouldReloadPermissionsWhenSnapshotHasExpired() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader);
+        ticker.addAndGet(10);
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldInvalidateOnlySnapshotsOfGivenResourceDefinition() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader);
+        cache.getPermissions(OTHER_CASE, ImmutableSet.of("caseworker"), loader);
+
+        cache.invalidate(CASE);
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.getPermissions(OTHER_CASE, ImmutableSet.of("caseworker"), loader);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldInvalidateSnapshotsOfAllResourceDefinitionsWithGivenServiceNameAndResourceType() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), loader);
+        cache.getPermissions(OTHER_CASE, ImmutableSet.of("caseworker"), loader);
+
+        cache.invalidate("cmc", "case");
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldNotInvalidateSnapshotsOfOtherServices() {
+        cache.getPermissions(OTHER_SERVICE_CASE, ImmutableSet.of("caseworker"), loader);
+
+        cache.invalidate("cmc", "case");
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCachePermissionsLoadedWhileCacheWasInvalidated() {
+        cache.getPermissions(CASE, ImmutableSet.of("caseworker"), () -> {
+            cache.invalidate(CASE);
+            return loader.get();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedSnapshotWhenMaximumSizeIsExceeded() {
+        cache.getPermissions(CASE, ImmutableSet.of("first"), loader);
+        cache.getPermissions(CASE, ImmutableSet.of("second"), loader);
+        cache.getPermissions(CASE, ImmutableSet.of("third"), loader);
+
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.getPermissions(CASE, ImmutableSet.of("first"), loader);
+
+        assertThat(loads).hasValue(4);
+    }
+}
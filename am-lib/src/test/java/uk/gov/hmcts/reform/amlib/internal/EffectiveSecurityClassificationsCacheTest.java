@@ -0,0 +1,62 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PRIVATE;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+
+class EffectiveSecurityClassificationsCacheTest {
+
+    private static final String FIRST_ATTRIBUTE = "/first";
+
+    private final EffectiveSecurityClassificationsCache cache = new EffectiveSecurityClassificationsCache(2);
+
+    @Test
+    void shouldReturnSameIndexForEqualSecurityClassifications() {
+        EffectiveSecurityClassifications index = cache.get(createSecurityClassifications(FIRST_ATTRIBUTE));
+
+        assertThat(cache.get(ImmutableMap.copyOf(createSecurityClassifications(FIRST_ATTRIBUTE)))).isSameAs(index);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenSecurityClassificationsAreNullShouldReturnNull() {
+        assertThat(cache.get(null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldNotBeAffectedByModificationsOfCallerOwnedMaps() {
+        Map<JsonPointer, SecurityClassification> securityClassifications = createSecurityClassifications(FIRST_ATTRIBUTE);
+
+        EffectiveSecurityClassifications index = cache.get(securityClassifications);
+        securityClassifications.put(JsonPointer.valueOf("/second"), PRIVATE);
+
+        assertThat(index.get(JsonPointer.valueOf("/second"))).isEqualTo(PUBLIC);
+        assertThat(cache.get(createSecurityClassifications(FIRST_ATTRIBUTE))).isSameAs(index);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedIndexWhenMaximumSizeIsExceeded() {
+        final EffectiveSecurityClassifications first = cache.get(createSecurityClassifications(FIRST_ATTRIBUTE));
+        cache.get(createSecurityClassifications("/second"));
+        cache.get(createSecurityClassifications("/third"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(createSecurityClassifications(FIRST_ATTRIBUTE))).isNotSameAs(first);
+    }
+
+    private Map<JsonPointer, SecurityClassification> createSecurityClassifications(String privateAttribute) {
+        Map<JsonPointer, SecurityClassification> securityClassifications = new ConcurrentHashMap<>();
+        securityClassifications.put(JsonPointer.valueOf(""), PUBLIC);
+        securityClassifications.put(JsonPointer.valueOf(privateAttribute), PRIVATE);
+        return securityClassifications;
+    }
+}
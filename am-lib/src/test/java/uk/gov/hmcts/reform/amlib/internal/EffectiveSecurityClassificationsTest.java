@@ -0,0 +1,62 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PRIVATE;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.RESTRICTED;
+
+class EffectiveSecurityClassificationsTest {
+
+    private final EffectiveSecurityClassifications index = EffectiveSecurityClassifications.valueOf(ImmutableMap.of(
+        JsonPointer.valueOf(""), PUBLIC,
+        JsonPointer.valueOf("/claimant"), PRIVATE,
+        JsonPointer.valueOf("/claimant/address/city"), RESTRICTED,
+        JsonPointer.valueOf("/claimant/address/city/district"), PUBLIC));
+
+    @Test
+    void shouldReturnOwnSecurityClassificationOfAttribute() {
+        assertThat(index.get(JsonPointer.valueOf(""))).isEqualTo(PUBLIC);
+        assertThat(index.get(JsonPointer.valueOf("/claimant"))).isEqualTo(PRIVATE);
+        assertThat(index.get(JsonPointer.valueOf("/claimant/address/city"))).isEqualTo(RESTRICTED);
+        assertThat(index.get(JsonPointer.valueOf("/claimant/address/city/district"))).isEqualTo(PUBLIC);
+    }
+
+    @Test
+    void whenAttributeHasNoSecurityClassificationShouldInheritItFromClosestAncestor() {
+        assertThat(index.get(JsonPointer.valueOf("/claimant/address"))).isEqualTo(PRIVATE);
+        assertThat(index.get(JsonPointer.valueOf("/claimant/name"))).isEqualTo(PRIVATE);
+        assertThat(index.get(JsonPointer.valueOf("/claimant/address/city/postcode"))).isEqualTo(RESTRICTED);
+    }
+
+    @Test
+    void whenNoAncestorHasSecurityClassificationShouldInheritItFromRoot() {
+        assertThat(index.get(JsonPointer.valueOf("/defendant/address"))).isEqualTo(PUBLIC);
+    }
+
+    @Test
+    void whenRootHasNoSecurityClassificationShouldReturnNullForAttributesWithoutAncestorsThatHaveOne() {
+        EffectiveSecurityClassifications withoutRoot = EffectiveSecurityClassifications.valueOf(ImmutableMap.of(
+            JsonPointer.valueOf("/claimant"), PRIVATE));
+
+        assertThat(withoutRoot.get(JsonPointer.valueOf("/claimant/name"))).isEqualTo(PRIVATE);
+        assertThat(withoutRoot.get(JsonPointer.valueOf("/defendant"))).isNull();
+    }
+
+    @Test
+    void shouldBeEqualToIndexOfEqualMap() {
+        Map<JsonPointer, SecurityClassification> securityClassifications = ImmutableMap.of(
+            JsonPointer.valueOf(""), PUBLIC);
+
+        assertThat(EffectiveSecurityClassifications.valueOf(securityClassifications))
+            .isEqualTo(EffectiveSecurityClassifications.valueOf(ImmutableMap.copyOf(securityClassifications)))
+            .hasSameHashCodeAs(EffectiveSecurityClassifications.valueOf(ImmutableMap.copyOf(securityClassifications)))
+            .isNotEqualTo(index);
+    }
+}
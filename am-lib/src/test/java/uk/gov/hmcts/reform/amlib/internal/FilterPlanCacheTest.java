@@ -0,0 +1,71 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createPermissions;
+
+class FilterPlanCacheTest {
+
+    private final FilterPlanCache cache = new FilterPlanCache(new FilterService(), 2);
+
+    @Test
+    void shouldReturnSamePlanForEqualPermissions() {
+        FilterPlan filterPlan = cache.getFilterPlan(createPermissions("", ImmutableSet.of(READ)), null, null);
+
+        assertThat(cache.getFilterPlan(new ConcurrentHashMap<>(createPermissions("", ImmutableSet.of(READ))), null, null))
+            .isSameAs(filterPlan);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnDifferentPlanForDifferentSecurityClassifications() {
+        Map<JsonPointer, Set<Permission>> permissions = createPermissions("", ImmutableSet.of(READ));
+
+        FilterPlan filterPlan = cache.getFilterPlan(permissions, null, null);
+
+        assertThat(cache.getFilterPlan(permissions, createSecurityClassifications(), ImmutableSet.of(PUBLIC)))
+            .isNotSameAs(filterPlan);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotBeAffectedByModificationsOfCallerOwnedMaps() {
+        Map<JsonPointer, Set<Permission>> permissions = new ConcurrentHashMap<>(createPermissions("", ImmutableSet.of(READ)));
+
+        FilterPlan filterPlan = cache.getFilterPlan(permissions, null, null);
+        permissions.put(JsonPointer.valueOf("/name"), ImmutableSet.of(CREATE));
+
+        assertThat(cache.getFilterPlan(createPermissions("", ImmutableSet.of(READ)), null, null))
+            .isSameAs(filterPlan);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedPlanWhenMaximumSizeIsExceeded() {
+        final FilterPlan first = cache.getFilterPlan(createPermissions("/first", ImmutableSet.of(READ)), null, null);
+        cache.getFilterPlan(createPermissions("/second", ImmutableSet.of(READ)), null, null);
+        cache.getFilterPlan(createPermissions("/third", ImmutableSet.of(READ)), null, null);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getFilterPlan(createPermissions("/first", ImmutableSet.of(READ)), null, null))
+            .isNotSameAs(first);
+    }
+
+    private EffectiveSecurityClassifications createSecurityClassifications() {
+        Map<JsonPointer, SecurityClassification> securityClassifications =
+            new ConcurrentHashMap<>();
+        securityClassifications.put(JsonPointer.valueOf(""), PUBLIC);
+        return EffectiveSecurityClassifications.valueOf(securityClassifications);
+    }
+}
@@ -1,6 +1,8 @@
 package uk.gov.hmcts.reform.amlib.internal;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,6 +17,7 @@ import uk.gov.hmcts.reform.amlib.internal.FilterServiceTest.Resource.Address;
 import uk.gov.hmcts.reform.amlib.internal.FilterServiceTest.Resource.Claimant;
 import uk.gov.hmcts.reform.amlib.internal.FilterServiceTest.Resource.Defendant;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
@@ -625,6 +628,119 @@ class FilterServiceTest {
         );
     }
 
+    @Test
+    void itShouldBePossibleToReuseCompiledFilterPlanForManyResources() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        Map<JsonPointer, Set<Permission>> attributePermissions = ImmutableMap.of(
+            JsonPointer.valueOf("/claimant"), ImmutableSet.of(CREATE),
+            JsonPointer.valueOf("/claimant/address/city"), ImmutableSet.of(READ),
+            JsonPointer.valueOf("/amount"), ImmutableSet.of(READ));
+
+        FilterPlan filterPlan = fs.compileFilterPlan(attributePermissions,
+            Collections.singletonMap(JsonPointer.valueOf(""), PUBLIC), ImmutableSet.of(PUBLIC));
+
+        JsonNode expectedJson = mapper.valueToTree(
+            Resource.builder()
+                .claimant(Claimant.builder()
+                    .address(Address.builder()
+                        .city("London")
+                        .build())
+                    .build())
+                .amount(100)
+                .build()
+        );
+
+        assertThat(fs.filterJson(inputJson, filterPlan)).isEqualTo(expectedJson);
+        assertThat(fs.filterJson(inputJson, filterPlan)).isEqualTo(expectedJson);
+        assertThat(inputJson).isEqualTo(
+            mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json")));
+    }
+
+    @Test
+    void itShouldReturnNullFromCompiledFilterPlanWhenNothingIsVisible() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        FilterPlan filterPlan = fs.compileFilterPlan(createPermissions("", ImmutableSet.of(CREATE)));
+
+        assertThat(filterPlan.hasVisibleAttributes()).isFalse();
+        assertThat(fs.filterJson(inputJson, filterPlan)).isNull();
+    }
+
+    @Test
+    void itShouldIgnoreMissingIntermediateNodesWhenParentIsForbidden() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        Map<JsonPointer, Set<Permission>> attributePermissions = ImmutableMap.of(
+            JsonPointer.valueOf(""), ImmutableSet.of(READ),
+            JsonPointer.valueOf("/claimant"), ImmutableSet.of(CREATE),
+            JsonPointer.valueOf("/claimant/contact/email"), ImmutableSet.of(READ));
+
+        JsonNode returnedJson = fs.filterJson(inputJson, attributePermissions);
+
+        assertThat(returnedJson).isEqualTo(mapper.valueToTree(
+            Resource.builder()
+                .claimant(Claimant.builder().build())
+                .defendant(Defendant.builder()
+                    .name("Marry")
+                    .address(Address.builder()
+                        .city("Swansea")
+                        .postcode("SA1")
+                        .build())
+                    .build())
+                .amount(100)
+                .build()
+            )
+        );
+    }
+
+    @Test
+    void itShouldBePossibleToFilterStreamOfTokensWithCompiledFilterPlan() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        Map<JsonPointer, Set<Permission>> attributePermissions = ImmutableMap.of(
+            JsonPointer.valueOf(""), ImmutableSet.of(READ),
+            JsonPointer.valueOf("/claimant"), ImmutableSet.of(CREATE),
+            JsonPointer.valueOf("/claimant/address/city"), ImmutableSet.of(READ),
+            JsonPointer.valueOf("/defendant/name"), ImmutableSet.of(CREATE));
+
+        FilterPlan filterPlan = fs.compileFilterPlan(attributePermissions);
+
+        assertThat(filterStream(inputJson, filterPlan)).isEqualTo(fs.filterJson(inputJson, filterPlan));
+    }
+
+    @Test
+    void itShouldRemoveObjectsWithoutVisibleFieldsWhenFilteringStreamOfTokens() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        Map<JsonPointer, Set<Permission>> attributePermissions = ImmutableMap.of(
+            JsonPointer.valueOf("/claimant/address/country"), ImmutableSet.of(READ),
+            JsonPointer.valueOf("/amount"), ImmutableSet.of(READ));
+
+        JsonNode returnedJson = filterStream(inputJson, fs.compileFilterPlan(attributePermissions));
+
+        assertThat(returnedJson).isEqualTo(mapper.valueToTree(Resource.builder().amount(100).build()));
+    }
+
+    @Test
+    void itShouldWriteNullWhenFilteringStreamOfTokensAndNothingIsVisible() throws IOException {
+        JsonNode inputJson = mapper.readTree(ClassLoader.getSystemResource("FilterServiceResources/input.json"));
+
+        JsonNode returnedJson = filterStream(inputJson,
+            fs.compileFilterPlan(createPermissions("", ImmutableSet.of(CREATE))));
+
+        assertThat(returnedJson).isEqualTo(JsonNodeFactory.instance.nullNode());
+    }
+
+    private JsonNode filterStream(JsonNode inputJson, FilterPlan filterPlan) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JsonParser parser = mapper.getFactory().createParser(mapper.writeValueAsBytes(inputJson));
+             JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+            fs.filterJson(parser, generator, filterPlan);
+        }
+        return mapper.readTree(outputStream.toByteArray());
+    }
+
     @Builder
     @Data
     static class Resource {
@@ -0,0 +1,81 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+import uk.gov.hmcts.reform.amlib.internal.models.PermissionMask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies merge against the reference implementation using randomly generated permission maps. Generation is
+ * seeded so that any failure can be reproduced.
+ */
+@SuppressWarnings({"PMD.AvoidInstantiatingObjectsInLoops", "PMD.UseConcurrentHashMap"})
+class PermissionsServiceMergePropertyTest {
+
+    private static final int NUMBER_OF_CASES = 2000;
+    private static final String[] SEGMENTS = {"claimant", "defendant", "name", "0", "1", "", "a~b", "a/b"};
+
+    private final PermissionsService permissionsService = new PermissionsService();
+    private final ReferencePermissionsMerge referencePermissionsMerge = new ReferencePermissionsMerge();
+
+    @Test
+    void mergeShouldReturnSameResultAsReferenceImplementation() {
+        for (long seed = 0; seed < NUMBER_OF_CASES; seed++) {
+            List<Map<JsonPointer, Set<Permission>>> permissions = createPermissions(new Random(seed));
+
+            assertThat(permissionsService.merge(permissions))
+                .as("merge of permissions generated with seed %d: %s", seed, permissions)
+                .isEqualTo(referencePermissionsMerge.merge(permissions));
+        }
+    }
+
+    @Test
+    void mergeShouldNotDependOnOrderOfAttributesWithinSource() {
+        for (long seed = 0; seed < NUMBER_OF_CASES; seed++) {
+            List<Map<JsonPointer, Set<Permission>>> permissions = createPermissions(new Random(seed));
+            List<Map<JsonPointer, Set<Permission>>> copy = new ArrayList<>();
+            permissions.forEach(source -> copy.add(new HashMap<>(source)));
+
+            assertThat(permissionsService.merge(copy))
+                .as("merge of permissions generated with seed %d: %s", seed, permissions)
+                .isEqualTo(permissionsService.merge(permissions));
+        }
+    }
+
+    private List<Map<JsonPointer, Set<Permission>>> createPermissions(Random random) {
+        List<JsonPointer> attributes = createAttributes(random);
+
+        List<Map<JsonPointer, Set<Permission>>> permissions = new ArrayList<>();
+        int numberOfSources = random.nextInt(6);
+        for (int i = 0; i < numberOfSources; i++) {
+            Map<JsonPointer, Set<Permission>> source = new HashMap<>();
+            attributes.stream()
+                .filter(attribute -> random.nextInt(3) == 0)
+                .forEach(attribute -> source.put(attribute, PermissionMask.valueOf(random.nextInt(16)).toSet()));
+            permissions.add(source);
+        }
+        return permissions;
+    }
+
+    private List<JsonPointer> createAttributes(Random random) {
+        List<JsonPointer> attributes = new ArrayList<>();
+        attributes.add(JsonPointer.valueOf(""));
+
+        int numberOfAttributes = random.nextInt(20);
+        for (int i = 0; i < numberOfAttributes; i++) {
+            JsonPointer parent = attributes.get(random.nextInt(attributes.size()));
+            String segment = SEGMENTS[random.nextInt(SEGMENTS.length)].replace("~", "~0").replace("/", "~1");
+            attributes.add(JsonPointer.valueOf(parent.toString() + "/" + segment));
+        }
+        return attributes;
+    }
+}
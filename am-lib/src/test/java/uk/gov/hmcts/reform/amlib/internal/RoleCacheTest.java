@@ -0,0 +1,134 @@
+package uk.gov.hmcts.reform.amlib.internal;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.AccessType;
+import uk.gov.hmcts.reform.amlib.internal.models.Role;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.EXPLICIT;
+import static uk.gov.hmcts.reform.amlib.enums.AccessType.ROLE_BASED;
+import static uk.gov.hmcts.reform.amlib.enums.RoleType.IDAM;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PRIVATE;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class RoleCacheTest {
+
+    private static final Set<AccessType> ALL_ACCESS_TYPES = ImmutableSet.of(EXPLICIT, ROLE_BASED);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final RoleCache cache = new RoleCache(2, Duration.ofNanos(10), ticker::get);
+    private final Map<String, Role> database = new ConcurrentHashMap<>();
+    private final List<Set<String>> lookups = new CopyOnWriteArrayList<>();
+    private final Function<Set<String>, Set<Role>> loader = roleNames -> {
+        lookups.add(roleNames);
+        return roleNames.stream().filter(database::containsKey).map(database::get).collect(toSet());
+    };
+
+    @Test
+    void shouldLoadOnlyRolesThatAreNotCached() {
+        database.put("caseworker", createRole("caseworker", ROLE_BASED));
+        database.put("solicitor", createRole("solicitor", EXPLICIT));
+
+        cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, loader);
+        Set<Role> roles = cache.getRoles(ImmutableSet.of("caseworker", "solicitor"), ALL_ACCESS_TYPES, loader);
+
+        assertThat(roles).containsOnly(database.get("caseworker"), database.get("solicitor"));
+        assertThat(lookups).containsExactly(ImmutableSet.of("caseworker"), ImmutableSet.of("solicitor"));
+    }
+
+    @Test
+    void shouldCacheRolesThatDoNotExist() {
+        cache.getRoles(ImmutableSet.of("unknown"), ALL_ACCESS_TYPES, loader);
+
+        assertThat(cache.getRoles(ImmutableSet.of("unknown"), ALL_ACCESS_TYPES, loader)).isEmpty();
+        assertThat(lookups).hasSize(1);
+    }
+
+    @Test
+    void shouldReturnOnlyRolesWithRequestedAccessTypes() {
+        database.put("caseworker", createRole("caseworker", ROLE_BASED));
+        database.put("solicitor", createRole("solicitor", EXPLICIT));
+
+        Set<Role> roles = cache.getRoles(ImmutableSet.of("caseworker", "solicitor"), ImmutableSet.of(ROLE_BASED), loader);
+
+        assertThat(roles).containsOnly(database.get("caseworker"));
+        assertThat(cache.getRoles(ImmutableSet.of("solicitor"), ALL_ACCESS_TYPES, loader))
+            .containsOnly(database.get("solicitor"));
+        assertThat(lookups).hasSize(1);
+    }
+
+    @Test
+    void shouldReloadRoleWhenEntryHasExpired() {
+        database.put("caseworker", createRole("caseworker", ROLE_BASED));
+        cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, loader);
+
+        database.put("caseworker", Role.builder()
+            .roleName("caseworker").roleType(IDAM).securityClassification(PRIVATE).accessType(ROLE_BASED).build());
+        ticker.addAndGet(10);
+
+        assertThat(cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, loader))
+            .containsOnly(database.get("caseworker"));
+        assertThat(lookups).hasSize(2);
+    }
+
+    @Test
+    void shouldReloadRoleWhenEntryHasBeenInvalidated() {
+        database.put("caseworker", createRole("caseworker", ROLE_BASED));
+        cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, loader);
+
+        database.remove("caseworker");
+        cache.invalidate("caseworker");
+
+        assertThat(cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, loader)).isEmpty();
+        assertThat(lookups).hasSize(2);
+    }
+
+    @Test
+    void shouldNotCacheRolesLoadedWhileCacheWasInvalidated() {
+        database.put("caseworker", createRole("caseworker", ROLE_BASED));
+
+        cache.getRoles(ImmutableSet.of("caseworker"), ALL_ACCESS_TYPES, roleNames -> {
+            Set<Role> roles = loader.apply(roleNames);
+            cache.invalidateAll();
+            return roles;
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedRoleWhenMaximumSizeIsExceeded() {
+        cache.getRoles(ImmutableSet.of("first"), ALL_ACCESS_TYPES, loader);
+        cache.getRoles(ImmutableSet.of("second"), ALL_ACCESS_TYPES, loader);
+        cache.getRoles(ImmutableSet.of("first"), ALL_ACCESS_TYPES, loader);
+        cache.getRoles(ImmutableSet.of("third"), ALL_ACCESS_TYPES, loader);
+
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.getRoles(ImmutableSet.of("second"), ALL_ACCESS_TYPES, loader);
+
+        assertThat(lookups).containsExactly(ImmutableSet.of("first"), ImmutableSet.of("second"),
+            ImmutableSet.of("third"), ImmutableSet.of("second"));
+    }
+
+    private Role createRole(String roleName, AccessType accessType) {
+        return Role.builder()
+            .roleName(roleName)
+            .roleType(IDAM)
+            .securityClassification(PUBLIC)
+            .accessType(accessType)
+            .build();
+    }
+}
@@ -8,16 +8,25 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.audit.AuditEvent;
+import uk.gov.hmcts.reform.amlib.audit.AuditSink;
+import uk.gov.hmcts.reform.amlib.audit.Slf4jAuditSink;
+import uk.gov.hmcts.reform.amlib.audit.TruncatedCollection;
 import uk.gov.hmcts.reform.amlib.internal.aspects.AuditingAspect.InvalidTemplateExpressionException;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.AvoidDuplicateLiterals"})
 class AuditingAspectTest {
     private final AuditingAspect aspect = new AuditingAspect();
 
@@ -172,6 +181,116 @@ class AuditingAspectTest {
         }
     }
 
+    @Test
+    void whenTemplateHasPlaceholderMarkersOutsideOfExpressionsShouldPrintThemUnchanged() {
+        JoinPoint joinPoint = createJoinPoint("access to {} '{{resource}}' changed \\{{resource}}");
+        mockInputArgs(joinPoint, "resource", "ae4c7");
+
+        aspect.after(joinPoint, null);
+
+        assertThat(StaticLogAppender.getMessage())
+            .isEqualTo("[Access Management audit]: access to {} 'ae4c7' changed \\ae4c7");
+    }
+
+    @Test
+    void whenMessageIsLoggedShouldPutAuditedMethodInMappedDiagnosticContext() {
+        JoinPoint joinPoint = createJoinPoint("access changed");
+        when(joinPoint.getSignature().toShortString()).thenReturn("AccessManagementService.grant(..)");
+
+        aspect.after(joinPoint, null);
+
+        assertThat(StaticLogAppender.getEvent().getMDCPropertyMap())
+            .containsEntry(Slf4jAuditSink.METHOD_MDC_KEY, "AccessManagementService.grant(..)");
+        assertThat(MDC.get(Slf4jAuditSink.METHOD_MDC_KEY)).isNull();
+    }
+
+    @Nested
+    @DisplayName("whenWritingToSinks")
+    class WhenWritingToSinks {
+        private final List<AuditEvent> events = new ArrayList<>();
+        private final AuditingAspect aspect = new AuditingAspect(singletonList(new AuditSink() {
+            @Override
+            public boolean isEnabled(AuditLog.Severity severity) {
+                return severity == AuditLog.Severity.INFO;
+            }
+
+            @Override
+            public void write(AuditEvent event) {
+                events.add(event);
+            }
+        }), 2);
+
+        @Test
+        void whenSinkIsEnabledShouldWriteEventWithExtractedValues() {
+            JoinPoint joinPoint = createJoinPoint("access to '{{resource}}' changed by '{{mdc:caller}}' to {{result}}");
+            when(joinPoint.getSignature().toShortString()).thenReturn("AccessManagementService.grant(..)");
+            mockInputArgs(joinPoint, "resource", "ae4c7");
+
+            MDC.put("caller", "Administrator");
+            aspect.after(joinPoint, "CRUD");
+            MDC.clear();
+
+            assertThat(events).hasSize(1);
+            AuditEvent event = events.get(0);
+            assertThat(event.getMethod()).isEqualTo("AccessManagementService.grant(..)");
+            assertThat(event.getSeverity()).isEqualTo(AuditLog.Severity.INFO);
+            assertThat(event.getExpressions()).containsExactly("resource", "mdc:caller", "result");
+            assertThat(event.getValues()).containsExactly("ae4c7", "Administrator", "CRUD");
+            assertThat(event.getParameterNames()).containsExactly("resource");
+            assertThat(event.getArguments()).containsExactly("ae4c7");
+            assertThat(event.render())
+                .isEqualTo("[Access Management audit]: access to 'ae4c7' changed by 'Administrator' to CRUD");
+        }
+
+        @Test
+        void whenAuditedExplicitlyShouldWriteEventOfAuditedMethod() throws NoSuchMethodException {
+            Method method = AuditedOperation.class.getMethod("grant", String.class);
+
+            aspect.audit(new AuditedOperation(), method, new Object[]{"ae4c7"}, "CRUD");
+
+            assertThat(events).hasSize(1);
+            AuditEvent event = events.get(0);
+            assertThat(event.getMethod()).isEqualTo("AuditedOperation.grant(..)");
+            assertThat(event.getParameterNames()).containsExactly("resource");
+            assertThat(event.render()).isEqualTo("[Access Management audit]: access to 'ae4c7' changed to CRUD");
+        }
+
+        @Test
+        void whenAuditedServiceIsConfiguredShouldLimitCollectionsAsConfigured() {
+            JoinPoint joinPoint = createJoinPoint("returned {{result}}");
+            ConfiguredService service = () -> AmLibConfig.builder().auditCollectionLimit(1).build();
+            when(joinPoint.getTarget()).thenReturn(service);
+
+            aspect.after(joinPoint, Arrays.asList("case-1", "case-2", "case-3"));
+
+            assertThat(events.get(0).render()).isEqualTo("[Access Management audit]: returned [case-1, ... 2 more]");
+        }
+
+        @Test
+        void whenSinkIsNotEnabledShouldNotCreateEvent() {
+            JoinPoint joinPoint = createJoinPoint("access to '{{r}}' changed", AuditLog.Severity.DEBUG);
+            mockInputArgs(joinPoint, "resource", "ae4c7");
+
+            aspect.after(joinPoint, null);
+
+            assertThat(events).isEmpty();
+        }
+
+        @Test
+        void whenExtractedCollectionIsLargerThanLimitShouldTruncateIt() {
+            JoinPoint joinPoint = createJoinPoint("returned {{result}} for {{roles}}");
+            mockInputArgs(joinPoint, "roles", Arrays.asList("caseworker", "solicitor"));
+
+            aspect.after(joinPoint, Arrays.asList("case-1", "case-2", "case-3"));
+
+            Object[] values = events.get(0).getValues();
+            assertThat(values[0]).isInstanceOf(TruncatedCollection.class);
+            assertThat(values[1]).isEqualTo(Arrays.asList("caseworker", "solicitor"));
+            assertThat(events.get(0).render()).isEqualTo(
+                "[Access Management audit]: returned [case-1, case-2, ... 1 more] for [caseworker, solicitor]");
+        }
+    }
+
     @Nested
     @DisplayName("whenErrors")
     class WhenErrors {
@@ -196,6 +315,13 @@ class AuditingAspectTest {
         }
     }
 
+    static class AuditedOperation {
+        @AuditLog("access to '{{resource}}' changed to {{result}}")
+        public String grant(String resource) {
+            return resource;
+        }
+    }
+
     private JoinPoint createJoinPoint(String template) {
         return createJoinPoint(template, AuditLog.Severity.INFO);
     }
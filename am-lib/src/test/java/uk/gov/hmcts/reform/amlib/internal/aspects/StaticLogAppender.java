@@ -11,11 +11,16 @@ public class StaticLogAppender extends AppenderBase<ILoggingEvent> {
 
     @Override
     protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
         events.add(event);
     }
 
     static String getMessage() {
-        return events.get(events.size() - 1).getMessage();
+        return getEvent().getFormattedMessage();
+    }
+
+    static ILoggingEvent getEvent() {
+        return events.get(events.size() - 1);
     }
 
     static void clear() {
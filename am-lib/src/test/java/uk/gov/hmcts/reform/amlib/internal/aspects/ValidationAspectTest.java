@@ -0,0 +1,147 @@
+package uk.gov.hmcts.reform.amlib.internal.aspects;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.AmLibConfig;
+import uk.gov.hmcts.reform.amlib.validation.ValidationMode;
+import uk.gov.hmcts.reform.amlib.validation.ValidationStrategy;
+
+import java.lang.reflect.Method;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValidationAspectTest {
+    private final ValidationStrategy strategy = mock(ValidationStrategy.class);
+
+    @Test
+    void whenArgumentsAreInvalidShouldThrowExceptionWithAllMessages() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.FULL);
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(strategy.validate(any(), any(), any()))
+            .thenReturn(Arrays.asList("userId - must not be blank", "userRoles - must not be empty"));
+
+        assertThatExceptionOfType(InvalidParameterException.class)
+            .isThrownBy(() -> aspect.around(joinPoint))
+            .withMessage("userId - must not be blank; userRoles - must not be empty");
+        verify(joinPoint, never()).proceed();
+    }
+
+    @Test
+    void whenModeIsOffShouldNotValidate() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.OFF);
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(joinPoint.proceed()).thenReturn("result");
+
+        assertThat(aspect.around(joinPoint)).isEqualTo("result");
+        verify(strategy, never()).validate(any(), any(), any());
+    }
+
+    @Test
+    void whenModeIsFullShouldValidateNestedCalls() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.FULL);
+        when(strategy.validate(any(), any(), any())).thenReturn(Collections.emptyList());
+
+        aspect.around(createJoinPointCalling(aspect, createJoinPoint()));
+
+        verify(strategy, times(2)).validate(any(), any(), any());
+    }
+
+    @Test
+    void whenModeIsBoundaryShouldValidateOnlyOutermostCall() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.BOUNDARY);
+        when(strategy.validate(any(), any(), any())).thenReturn(Collections.emptyList());
+
+        aspect.around(createJoinPointCalling(aspect, createJoinPoint()));
+        aspect.around(createJoinPoint());
+
+        verify(strategy, times(2)).validate(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("PMD.AvoidCatchingThrowable") // advice declares Throwable, callback cannot
+    void whenModeIsBoundaryShouldValidateCallsMadeFromCallbacks() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.BOUNDARY);
+        when(strategy.validate(any(), any(), any())).thenReturn(Collections.emptyList());
+        ProceedingJoinPoint nestedJoinPoint = createJoinPoint();
+        Consumer<Object> callback = ValidationAspect.outsideServiceCall(value -> {
+            try {
+                aspect.around(nestedJoinPoint);
+            } catch (Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+        });
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            callback.accept("value");
+            return aspect.around(createJoinPoint());
+        });
+
+        aspect.around(joinPoint);
+
+        verify(strategy, times(2)).validate(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("PMD.AvoidCatchingThrowable") // advice declares Throwable, operation cannot
+    void whenModeIsBoundaryShouldNotValidateAgainCallsMadeOnAnotherThreadWithinServiceCall() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.BOUNDARY);
+        when(strategy.validate(any(), any(), any())).thenReturn(Collections.emptyList());
+        ProceedingJoinPoint nestedJoinPoint = createJoinPoint();
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(joinPoint.proceed()).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+            ValidationAspect.withinCurrentServiceCall(() -> {
+                try {
+                    return aspect.around(nestedJoinPoint);
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            })).join());
+
+        aspect.around(joinPoint);
+
+        verify(strategy, times(1)).validate(any(), any(), any());
+        verify(nestedJoinPoint).proceed();
+    }
+
+    @Test
+    void whenServiceIsConfiguredShouldValidateInModeOfItsConfiguration() throws Throwable {
+        ValidationAspect aspect = new ValidationAspect(strategy, ValidationMode.FULL);
+        ConfiguredService service = () -> AmLibConfig.builder().validationMode(ValidationMode.OFF).build();
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(joinPoint.getTarget()).thenReturn(service);
+
+        aspect.around(joinPoint);
+
+        verify(strategy, never()).validate(any(), any(), any());
+    }
+
+    private ProceedingJoinPoint createJoinPoint() {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(mock(Method.class));
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        return joinPoint;
+    }
+
+    private ProceedingJoinPoint createJoinPointCalling(ValidationAspect aspect, ProceedingJoinPoint nestedJoinPoint)
+        throws Throwable {
+        ProceedingJoinPoint joinPoint = createJoinPoint();
+        when(joinPoint.proceed()).thenAnswer(invocation -> aspect.around(nestedJoinPoint));
+        return joinPoint;
+    }
+}
@@ -0,0 +1,59 @@
+package uk.gov.hmcts.reform.amlib.internal.models;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import uk.gov.hmcts.reform.amlib.enums.Permission;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.CREATE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.DELETE;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.UPDATE;
+
+class PermissionMaskTest {
+
+    @Test
+    void shouldConvertBetweenSumOfPermissionsAndSetOfPermissions() {
+        PermissionMask permissionMask = PermissionMask.valueOf(ImmutableSet.of(READ, DELETE));
+
+        assertThat(permissionMask.toInt()).isEqualTo(10);
+        assertThat(permissionMask.toSet()).containsOnly(READ, DELETE);
+        assertThat(PermissionMask.valueOf(10)).isSameAs(permissionMask);
+    }
+
+    @Test
+    void unionShouldContainPermissionsOfBothMasks() {
+        PermissionMask permissionMask = PermissionMask.valueOf(ImmutableSet.of(CREATE))
+            .union(PermissionMask.valueOf(ImmutableSet.of(READ, UPDATE)));
+
+        assertThat(permissionMask.contains(CREATE)).isTrue();
+        assertThat(permissionMask.contains(READ)).isTrue();
+        assertThat(permissionMask.contains(UPDATE)).isTrue();
+        assertThat(permissionMask.contains(DELETE)).isFalse();
+    }
+
+    @Test
+    void emptyMaskShouldNotContainAnyPermission() {
+        assertThat(PermissionMask.NONE.isEmpty()).isTrue();
+        assertThat(PermissionMask.valueOf(ImmutableSet.of())).isSameAs(PermissionMask.NONE);
+        assertThat(PermissionMask.NONE.toSet()).isEmpty();
+    }
+
+    @Test
+    void setOfPermissionsShouldBeSharedAndUnmodifiable() {
+        Set<Permission> permissions = PermissionMask.valueOf(3).toSet();
+
+        assertThat(PermissionMask.valueOf(ImmutableSet.of(CREATE, READ)).toSet()).isSameAs(permissions);
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> permissions.add(DELETE));
+    }
+
+    @Test
+    void shouldRejectInvalidSumOfPermissions() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> PermissionMask.valueOf(16));
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> PermissionMask.valueOf(-1));
+    }
+}
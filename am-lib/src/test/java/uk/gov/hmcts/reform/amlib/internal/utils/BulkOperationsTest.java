@@ -0,0 +1,67 @@
+package uk.gov.hmcts.reform.amlib.internal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SuppressWarnings("PMD.DoNotUseThreads") // Work is expected to run on executor threads
+class BulkOperationsTest {
+
+    private static final List<Integer> ITEMS = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldReturnResultsInOrderOfItems() {
+        List<String> results = BulkOperations.mapInOrder(ITEMS, String::valueOf, executor, 4);
+
+        assertThat(results).isEqualTo(ITEMS.stream().map(String::valueOf).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldProcessChunksOnCallingThreadAndExecutor() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        BulkOperations.mapInOrder(ITEMS, item -> threads.add(Thread.currentThread()), executor, 4);
+
+        assertThat(threads).contains(Thread.currentThread()).hasSizeGreaterThan(1).hasSizeLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void whenParallelismIsOneShouldProcessItemsOnCallingThread() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        BulkOperations.mapInOrder(ITEMS, item -> threads.add(Thread.currentThread()), executor, 1);
+
+        assertThat(threads).containsExactly(Thread.currentThread());
+    }
+
+    @Test
+    void whenMapperFailsOnExecutorShouldRethrowItsException() {
+        IllegalStateException exception = new IllegalStateException("cannot map");
+
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> BulkOperations.mapInOrder(ITEMS, item -> {
+                if (item == ITEMS.size() - 1) {
+                    throw exception;
+                }
+                return item;
+            }, executor, 4))
+            .isSameAs(exception);
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.hmcts.reform.amlib.internal.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallerTransactionsTest {
+
+    private final Object database = new Object();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.hasResource(database)) {
+            TransactionSynchronizationManager.unbindResource(database);
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void transactionShouldBeActiveOnlyWhenDatabaseIsBoundToIt() {
+        assertThat(CallerTransactions.isActive(database)).isFalse();
+
+        TransactionSynchronizationManager.bindResource(database, new Object());
+
+        assertThat(CallerTransactions.isActive(database)).isTrue();
+        assertThat(CallerTransactions.isActive(null)).isFalse();
+    }
+
+    @Test
+    void actionRunAfterCommitShouldNotRunOnRollback() {
+        CallerTransactions.runAfterCommit(runs::incrementAndGet);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(runs).hasValue(0);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void actionRunAfterCompletionShouldRunOnRollback() {
+        CallerTransactions.runAfterCompletion(runs::incrementAndGet);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(runs).hasValue(1);
+    }
+}
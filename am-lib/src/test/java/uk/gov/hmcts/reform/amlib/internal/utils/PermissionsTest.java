@@ -1,5 +1,6 @@
 package uk.gov.hmcts.reform.amlib.internal.utils;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -7,6 +8,7 @@ import uk.gov.hmcts.reform.amlib.enums.Permission;
 import uk.gov.hmcts.reform.amlib.exceptions.UnsupportedPermissionsException;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -67,6 +69,22 @@ class PermissionsTest {
             .withMessage("The given permissions are not supported");
     }
 
+    @Test
+    void copyOf_shouldCopySharedPermissionSetsIntoModifiableSets() {
+        Set<Permission> sharedPermissions = Permissions.fromSumOf(Permissions.sumOf(CREATE, READ));
+
+        Map<String, Set<Permission>> copy = Permissions.copyOf(ImmutableMap.of("/name", sharedPermissions));
+        copy.get("/name").add(DELETE);
+
+        assertThat(copy.get("/name")).containsOnly(CREATE, READ, DELETE);
+        assertThat(sharedPermissions).containsOnly(CREATE, READ);
+    }
+
+    @Test
+    void copyOf_shouldReturnNullForNullMap() {
+        assertThat(Permissions.<String>copyOf(null)).isNull();
+    }
+
     private static Stream<Arguments> createArguments() {
         return Stream.of(
             new Arguments(1, CREATE),
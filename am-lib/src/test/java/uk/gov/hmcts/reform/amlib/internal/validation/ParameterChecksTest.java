@@ -0,0 +1,87 @@
+package uk.gov.hmcts.reform.amlib.internal.validation;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+import uk.gov.hmcts.reform.amlib.enums.SecurityClassification;
+import uk.gov.hmcts.reform.amlib.helpers.InvalidArgumentsProvider;
+import uk.gov.hmcts.reform.amlib.models.ExplicitAccessGrant;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+import uk.gov.hmcts.reform.amlib.validation.BeanValidationStrategy;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.hmcts.reform.amlib.enums.Permission.READ;
+import static uk.gov.hmcts.reform.amlib.enums.SecurityClassification.PUBLIC;
+import static uk.gov.hmcts.reform.amlib.helpers.DefaultRoleSetupDataFactory.createResourceDefinition;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createGrantForWholeDocument;
+import static uk.gov.hmcts.reform.amlib.helpers.TestDataFactory.createResource;
+
+/**
+ * Checks must reject everything bean validation rejects, otherwise invalid arguments would be accepted.
+ */
+@SuppressWarnings("PMD.LinguisticNaming")
+class ParameterChecksTest {
+    private static final String VALID_VALUE = "valid string";
+
+    private final Map<Method, Predicate<Object[]>> checks = ParameterChecks.forFrequentlyCalledMethods();
+    private final BeanValidationStrategy beanValidation = new BeanValidationStrategy();
+    private final FilterResourceService filterResourceService = new FilterResourceService("", "", "");
+    private final AccessManagementService accessManagementService = new AccessManagementService("", "", "");
+
+    @Test
+    void filterResourceCheckShouldAcceptValidArguments() throws NoSuchMethodException {
+        Object[] args = {VALID_VALUE, ImmutableSet.of(VALID_VALUE),
+            createResource(VALID_VALUE, createResourceDefinition(VALID_VALUE, VALID_VALUE, VALID_VALUE)),
+            ImmutableMap.of(JsonPointer.valueOf(""), PUBLIC)};
+
+        assertThat(checks.get(filterResourceMethod()).test(args)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(InvalidArgumentsProvider.class)
+    void filterResourceCheckShouldRejectArgumentsRejectedByBeanValidation(
+        String userId, Set<String> userRoles, Resource resource, @ValidAttributeSecurityClassification
+        Map<JsonPointer, SecurityClassification> attributeSecurityClassifications) throws NoSuchMethodException {
+        Object[] args = {userId, userRoles, resource, attributeSecurityClassifications};
+
+        assertThat(beanValidation.validate(filterResourceService, filterResourceMethod(), args)).isNotEmpty();
+        assertThat(checks.get(filterResourceMethod()).test(args)).isFalse();
+    }
+
+    @Test
+    void grantCheckShouldAcceptValidArguments() throws NoSuchMethodException {
+        Object[] args = {createGrantForWholeDocument(VALID_VALUE, VALID_VALUE, null,
+            createResourceDefinition(VALID_VALUE, VALID_VALUE, VALID_VALUE), ImmutableSet.of(READ))};
+
+        assertThat(checks.get(grantMethod()).test(args)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(InvalidArgumentsProvider.class)
+    void grantCheckShouldRejectArgumentsRejectedByBeanValidation(ExplicitAccessGrant accessGrant)
+        throws NoSuchMethodException {
+        Object[] args = {accessGrant};
+
+        assertThat(beanValidation.validate(accessManagementService, grantMethod(), args)).isNotEmpty();
+        assertThat(checks.get(grantMethod()).test(args)).isFalse();
+    }
+
+    private Method filterResourceMethod() throws NoSuchMethodException {
+        return FilterResourceService.class.getMethod("filterResource",
+            String.class, Set.class, Resource.class, Map.class);
+    }
+
+    private Method grantMethod() throws NoSuchMethodException {
+        return AccessManagementService.class.getMethod("grantExplicitResourceAccess", ExplicitAccessGrant.class);
+    }
+}
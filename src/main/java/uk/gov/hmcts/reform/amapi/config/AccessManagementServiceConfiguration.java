@@ -3,6 +3,7 @@ package uk.gov.hmcts.reform.amapi.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import uk.gov.hmcts.reform.amlib.AccessManagementService;
+import uk.gov.hmcts.reform.amlib.AmLibContext;
 import uk.gov.hmcts.reform.amlib.FilterResourceService;
 
 import javax.sql.DataSource;
@@ -11,12 +12,17 @@ import javax.sql.DataSource;
 public class AccessManagementServiceConfiguration {
 
     @Bean
-    public AccessManagementService getAccessManagementService(DataSource dataSource) {
-        return new AccessManagementService(dataSource);
+    public AmLibContext getAmLibContext(DataSource dataSource) {
+        return AmLibContext.create(dataSource);
     }
 
     @Bean
-    public FilterResourceService getFilterAccessResourceService(DataSource dataSource) {
-        return new FilterResourceService(dataSource);
+    public AccessManagementService getAccessManagementService(AmLibContext amLibContext) {
+        return new AccessManagementService(amLibContext);
+    }
+
+    @Bean
+    public FilterResourceService getFilterAccessResourceService(AmLibContext amLibContext) {
+        return new FilterResourceService(amLibContext);
     }
 }
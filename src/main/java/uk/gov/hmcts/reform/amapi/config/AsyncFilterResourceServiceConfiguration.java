@@ -0,0 +1,31 @@
+package uk.gov.hmcts.reform.amapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.gov.hmcts.reform.amlib.AsyncFilterResourceService;
+import uk.gov.hmcts.reform.amlib.FilterResourceService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Enables filter endpoint which releases request thread while resources are filtered. Number of threads filtering
+ * resources should not exceed size of the database connection pool.
+ */
+@Configuration
+@ConditionalOnProperty("filter-resource.async.enabled")
+public class AsyncFilterResourceServiceConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService getFilterResourceExecutor(@Value("${filter-resource.async.threads}") int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    @Bean
+    public AsyncFilterResourceService getAsyncFilterResourceService(FilterResourceService filterResourceService,
+                                                                    ExecutorService filterResourceExecutor) {
+        return new AsyncFilterResourceService(filterResourceService, filterResourceExecutor);
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.hmcts.reform.amapi.controllers;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.gov.hmcts.reform.amapi.models.FilterResource;
+import uk.gov.hmcts.reform.amlib.AsyncFilterResourceService;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Filter endpoint which releases request thread while resources are filtered, enabled with
+ * <code>filter-resource.async.enabled</code> property.
+ */
+@RestController
+@RequestMapping("api/${version:v1}")
+@ConditionalOnProperty("filter-resource.async.enabled")
+public class AsyncFilterResourceController {
+
+    @Autowired
+    private AsyncFilterResourceService asyncFilterResourceService;
+
+    @ApiOperation(value = "Filter access to resource without holding request thread",
+        response = FilteredResourceEnvelope.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Successfully returns filtered output"),
+        @ApiResponse(code = 415, message = "Unsupported media type. Expected json"),
+        @ApiResponse(code = 401, message = "You are not authorized to perform this particular request. "
+            + "Please provide a valid access token in the request"),
+        @ApiResponse(code = 400, message = "Incomplete request information or Malformed input request"),
+        @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @PostMapping(value = "/filter-resource/async", consumes = (APPLICATION_JSON_VALUE))
+    public CompletableFuture<FilteredResourceEnvelope> filterResource(@RequestBody FilterResource request) {
+        return asyncFilterResourceService.filterResource(request.getUserId(), request.getUserRoles(),
+            request.getResource(), request.getAttributeSecurityClassification());
+    }
+}
@@ -0,0 +1,80 @@
+package uk.gov.hmcts.reform.amapi.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.gov.hmcts.reform.amapi.exception.AccessManagementResponseEntityExceptionHandler;
+import uk.gov.hmcts.reform.amapi.models.FilterResource;
+import uk.gov.hmcts.reform.amlib.AsyncFilterResourceService;
+import uk.gov.hmcts.reform.amlib.models.FilteredResourceEnvelope;
+import uk.gov.hmcts.reform.amlib.models.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("PMD.JUnitTestsShouldIncludeAssert")
+public class AsyncFilterResourceControllerUnitTest {
+
+    @InjectMocks
+    private AsyncFilterResourceController asyncFilterResourceController;
+
+    @Mock
+    private AsyncFilterResourceService asyncFilterResourceService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    public void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(asyncFilterResourceController)
+            .setControllerAdvice(new AccessManagementResponseEntityExceptionHandler())
+            .build();
+    }
+
+    @Test
+    public void testFilterResource() throws Exception {
+        String inputJson = Resources.toString(Resources
+            .getResource("input-data/filterResource.json"), StandardCharsets.UTF_8);
+        FilterResource filterResource = new ObjectMapper().readValue(inputJson, FilterResource.class);
+
+        Resource resource = Resource.builder().id("1234").data(JsonNodeFactory.instance.objectNode()
+            .put("json", "resource")).build();
+
+        Mockito.when(asyncFilterResourceService.filterResource(filterResource.getUserId(),
+            filterResource.getUserRoles(),
+            filterResource.getResource(),
+            filterResource.getAttributeSecurityClassification()))
+            .thenReturn(CompletableFuture.completedFuture(FilteredResourceEnvelope.builder()
+                .resource(resource).build()));
+
+        MvcResult result = this.mvc.perform(post("/api/v1/filter-resource/async")
+            .content(inputJson)
+            .header(CONTENT_TYPE, APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        this.mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.resource.id", is("1234")))
+            .andExpect(jsonPath("$.resource.data.json", is("resource")));
+    }
+}